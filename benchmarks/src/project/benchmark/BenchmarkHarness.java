@@ -0,0 +1,133 @@
+package project.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * A small benchmark harness (similar to JMH's SampleTime mode).<br>
+ * Runs warmup and measurement iterations, times every single operation
+ * and measures the allocated bytes of the benchmark thread.
+ */
+public class BenchmarkHarness {
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final int operationsPerIteration;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    /**
+     * Constructor always takes 3 parameters.
+     * @param warmupIterations iterations which are run, but not measured
+     * @param measurementIterations iterations which are measured
+     * @param operationsPerIteration number of operations per iteration
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, int operationsPerIteration) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.operationsPerIteration = operationsPerIteration;
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Measures one benchmark.<br>
+     * The setup is called before each iteration and is not measured.
+     * @param name name of the benchmark including its parameters
+     * @param setup called before each iteration (e.g. to reset a Tower)
+     * @param operation the measured operation
+     * @return the Result
+     */
+    public Result measure(String name, Runnable setup, Runnable operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            setup.run();
+            for (int op = 0; op < operationsPerIteration; op++) {
+                operation.run();
+            }
+        }
+
+        long[] samples = new long[measurementIterations * operationsPerIteration];
+        long totalTime = 0, allocatedBytes = 0;
+        long threadId = Thread.currentThread().getId();
+        int sample = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            setup.run();
+            long bytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            long iterationStart = System.nanoTime();
+            for (int op = 0; op < operationsPerIteration; op++) {
+                long start = System.nanoTime();
+                operation.run();
+                samples[sample++] = System.nanoTime() - start;
+            }
+            totalTime += System.nanoTime() - iterationStart;
+            allocatedBytes += threadMXBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        }
+        Arrays.sort(samples);
+        return new Result(name, samples, totalTime, allocatedBytes);
+    }
+
+    /**
+     * Data class for the Result of one benchmark.
+     */
+    public static class Result {
+        private final String name;
+        private final long[] sortedSamples; // ns
+        private final long totalTime; // ns
+        private final long allocatedBytes;
+
+        private Result(String name, long[] sortedSamples, long totalTime, long allocatedBytes) {
+            this.name = name;
+            this.sortedSamples = sortedSamples;
+            this.totalTime = totalTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return operations per second
+         */
+        public double getThroughput() {
+            return sortedSamples.length / (totalTime / 1e9);
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return latency of a single operation in nanoseconds
+         */
+        public long getLatency(double percentile) {
+            int index = (int) Math.ceil(percentile / 100d * sortedSamples.length) - 1;
+            return sortedSamples[Math.max(0, Math.min(index, sortedSamples.length - 1))];
+        }
+
+        /**
+         * @return allocated bytes per operation
+         */
+        public double getBytesPerOperation() {
+            return (double) allocatedBytes / sortedSamples.length;
+        }
+
+        /**
+         * @return allocation rate in MB per second
+         */
+        public double getAllocationRate() {
+            return allocatedBytes / 1e6 / (totalTime / 1e9);
+        }
+
+        public static String header() {
+            return String.format("%-55s %14s %10s %10s %10s %10s %12s %10s",
+                    "benchmark", "ops/s", "p50 ns", "p90 ns", "p99 ns", "p99.9 ns", "B/op", "MB/s");
+        }
+
+        /**
+         * toString method has a custom formatting, matching the header.
+         * @return one table row
+         */
+        @Override
+        public String toString() {
+            return String.format("%-55s %14.1f %10d %10d %10d %10d %12.1f %10.1f",
+                    name, getThroughput(), getLatency(50), getLatency(90), getLatency(99), getLatency(99.9),
+                    getBytesPerOperation(), getAllocationRate());
+        }
+    }
+}
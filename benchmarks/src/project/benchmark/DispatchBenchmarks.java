@@ -0,0 +1,211 @@
+package project.benchmark;
+
+import project.config.Config;
+import project.config.ConfigConstants;
+import project.elevator.Elevator;
+import project.elevator.Request;
+import project.simulation.Simulation;
+import project.simulation.SimulationConstants;
+import project.tower.Tower;
+
+import java.util.*;
+
+/**
+ * Benchmarks for dispatching, time estimation and the fixedUpdate tick
+ * across different tower sizes and queue depths.<br>
+ * Parameters can be given as 'key=value' arguments, e.g.:
+ * <pre>elevators=7,50,500 floors=55,500 depths=0,100,1000,10000 zones=1,5 warmup=3 iterations=5 ops=1000 maxQueued=100000 threads=1,4</pre>
+ * Combinations with more than 'maxQueued' queued requests over all elevators are skipped.
+ * With more than one zone, the elevators are split into zones of the same size (see Config 'zones').
+ * The fixedUpdate benchmark runs once for each number of 'threads'.
+ */
+public class DispatchBenchmarks {
+    private static final long SEED = 42;
+
+    private final BenchmarkHarness harness;
+    private final int operationsPerIteration;
+    private final int[] threadCounts;
+    private final List<BenchmarkHarness.Result> results = new ArrayList<>();
+
+    private Tower tower;
+    private Simulation simulation;
+    private Request[] requests;
+    private int nextRequest;
+    private double sink; // so the JIT cannot remove the calculations
+
+    public DispatchBenchmarks(int warmupIterations, int measurementIterations, int operationsPerIteration, int[] threadCounts) {
+        harness = new BenchmarkHarness(warmupIterations, measurementIterations, operationsPerIteration);
+        this.operationsPerIteration = operationsPerIteration;
+        this.threadCounts = threadCounts;
+    }
+
+    /**
+     * Benchmark entry point.
+     * @param args parameters as 'key=value'
+     */
+    public static void main(String[] args) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length == 2) parameters.put(keyValue[0], keyValue[1]);
+        }
+        int[] elevatorCounts = parseInts(parameters.getOrDefault("elevators", "7,50,500"));
+        int[] floorCounts = parseInts(parameters.getOrDefault("floors", "55,500"));
+        int[] queueDepths = parseInts(parameters.getOrDefault("depths", "0,100,1000,10000"));
+        int[] zoneCounts = parseInts(parameters.getOrDefault("zones", "1"));
+        long maxQueued = Long.parseLong(parameters.getOrDefault("maxQueued", "100000"));
+
+        var benchmarks = new DispatchBenchmarks(
+                Integer.parseInt(parameters.getOrDefault("warmup", "3")),
+                Integer.parseInt(parameters.getOrDefault("iterations", "5")),
+                Integer.parseInt(parameters.getOrDefault("ops", "1000")),
+                parseInts(parameters.getOrDefault("threads", "1")));
+
+        System.out.println(BenchmarkHarness.Result.header());
+        for (int floors : floorCounts) {
+            for (int depth : queueDepths) {
+                benchmarks.runElevatorBenchmarks(floors, depth);
+                for (int elevators : elevatorCounts) {
+                    if ((long) elevators * depth > maxQueued) {
+                        System.out.printf("skipped elevators=%d floors=%d depth=%d (more than %d queued requests)%n", elevators, floors, depth, maxQueued);
+                        continue;
+                    }
+                    for (int zones : zoneCounts) {
+                        if (zones > elevators || zones > floors) continue;
+                        benchmarks.runTowerBenchmarks(elevators, floors, depth, zones);
+                    }
+                }
+            }
+        }
+        benchmarks.printTickBudget();
+    }
+
+    /**
+     * Benchmarks the methods of a single Elevator.
+     * @param floors number of floors
+     * @param depth number of queued requests
+     */
+    private void runElevatorBenchmarks(int floors, int depth) {
+        String params = String.format("(floors=%d, depth=%d)", floors, depth);
+        Runnable keepFixture = () -> nextRequest = 0;
+        Runnable newFixture = () -> {
+            createTower(1, floors, depth, 1);
+            createRequests(floors);
+        };
+
+        newFixture.run();
+        Elevator elevator = tower.getElevators().get(0);
+        record(harness.measure("Elevator.calculateTimeToRequest " + params, keepFixture,
+                () -> sink += elevator.calculateTimeToRequest(requests[nextRequest++])));
+
+        Request unmatched = new Request(0, floors + 1); // never queued, so the whole queue gets searched
+        record(harness.measure("Elevator.tryAddPassenger " + params, keepFixture,
+                () -> sink += elevator.tryAddPassenger(unmatched) ? 1 : 0));
+
+        record(harness.measure("Elevator.addRequest " + params, newFixture,
+                () -> tower.getElevators().get(0).addRequest(requests[nextRequest++])));
+    }
+
+    /**
+     * Benchmarks dispatching in the Tower and a whole fixedUpdate tick.
+     * @param elevators number of elevators
+     * @param floors number of floors
+     * @param depth number of queued requests per elevator
+     * @param zones number of zones (of the same size), so dispatching only looks at the cars of one zone
+     */
+    private void runTowerBenchmarks(int elevators, int floors, int depth, int zones) {
+        String params = String.format("(elevators=%d, floors=%d, depth=%d, zones=%d)", elevators, floors, depth, zones);
+        Runnable newFixture = () -> {
+            createTower(elevators, floors, depth, zones);
+            createRequests(floors);
+        };
+
+        record(harness.measure("Tower.executeRequest " + params, newFixture, () -> {
+            Request request = requests[nextRequest++];
+            tower.addRequest(request.getOriginFloor(), request.getDestinationFloor());
+            tower.update();
+        }));
+
+        for (int threads : threadCounts) {
+            String fixedUpdateParams = String.format("(elevators=%d, floors=%d, depth=%d, zones=%d, threads=%d)", elevators, floors, depth, zones, threads);
+            record(harness.measure("Simulation.fixedUpdate " + fixedUpdateParams, () -> {
+                newFixture.run();
+                simulation.setParallelism(threads);
+            }, () -> simulation.fixedUpdate()));
+            simulation.setParallelism(1);
+        }
+    }
+
+    /**
+     * Creates a new headless Tower and fills the queue of each elevator.
+     * @param elevators number of elevators
+     * @param floors number of floors
+     * @param depth number of queued requests per elevator
+     * @param zones number of zones (of the same size)
+     */
+    private void createTower(int elevators, int floors, int depth, int zones) {
+        Config config = Config.DEFAULT.with(ConfigConstants.KEY_ELEVATORS, String.valueOf(elevators))
+                .with(ConfigConstants.KEY_FLOORS, String.valueOf(floors));
+        if (zones > 1) {
+            StringJoiner zoneTops = new StringJoiner(",");
+            for (int zone = 1; zone < zones; zone++) {
+                zoneTops.add(String.valueOf(floors * zone / zones));
+            }
+            config = config.with(ConfigConstants.KEY_ZONES, zoneTops.toString());
+        }
+        tower = new Tower(config);
+        simulation = Simulation.createHeadless(tower);
+        Random random = new Random(SEED);
+        for (var elevator : tower.getElevators()) {
+            for (int i = 0; i < depth; i++) {
+                Request request;
+                do {
+                    request = randomRequest(random, floors);
+                } while (!elevator.canServe(request));
+                elevator.addRequest(request);
+            }
+        }
+    }
+
+    /**
+     * Creates the requests for one iteration, so creating them is not measured.
+     * @param floors number of floors
+     */
+    private void createRequests(int floors) {
+        Random random = new Random(SEED + 1);
+        requests = new Request[operationsPerIteration];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = randomRequest(random, floors);
+        }
+        nextRequest = 0;
+    }
+
+    private static Request randomRequest(Random random, int floors) {
+        int floor = random.nextInt(floors) + 1; // 1 - floors
+        return random.nextBoolean() ? new Request(0, floor) : new Request(floor, 0);
+    }
+
+    private void record(BenchmarkHarness.Result result) {
+        results.add(result);
+        System.out.println(result);
+    }
+
+    /**
+     * Prints how many requests can be dispatched within one fixedUpdate at the 99th percentile.
+     */
+    private void printTickBudget() {
+        double tickBudget = SimulationConstants.FIXED_DELTA_TIME * 1e9; // ns
+        System.out.println();
+        System.out.printf("Tick budget at %d Hz: %.0f ms%n", SimulationConstants.FIXED_UPDATES_PER_SECOND, tickBudget / 1e6);
+        for (var result : results) {
+            if (result.getName().startsWith("Tower.executeRequest")) {
+                System.out.printf("%-55s %10.0f requests per tick (p99)%n",
+                        result.getName(), tickBudget / Math.max(1, result.getLatency(99)));
+            }
+        }
+    }
+
+    private static int[] parseInts(String values) {
+        return Arrays.stream(values.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+}
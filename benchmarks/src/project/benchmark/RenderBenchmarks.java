@@ -0,0 +1,117 @@
+package project.benchmark;
+
+import project.TowerRenderer;
+import project.Viewport;
+import project.simulation.Simulation;
+import project.simulation.SimulationConstants;
+import project.tower.Tower;
+import project.tower.TowerConstants;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
+
+import java.util.*;
+
+/**
+ * Benchmarks for rendering the Tower into the image of the View (without a window, so it also runs headless):
+ * frames while the elevators move (only dirty columns are drawn) and frames while scrolling (everything is drawn).<br>
+ * Parameters can be given as 'key=value' arguments, e.g.:
+ * <pre>elevators=7,100,500,2000 warmup=3 iterations=5 ops=600</pre>
+ */
+public class RenderBenchmarks {
+    private static final long SEED = 42;
+
+    private final BenchmarkHarness harness;
+    private final List<BenchmarkHarness.Result> results = new ArrayList<>();
+
+    private Simulation simulation;
+    private TowerRenderer renderer;
+    private Viewport viewport;
+    private int frame;
+
+    public RenderBenchmarks(int warmupIterations, int measurementIterations, int operationsPerIteration) {
+        harness = new BenchmarkHarness(warmupIterations, measurementIterations, operationsPerIteration);
+    }
+
+    /**
+     * Benchmark entry point.
+     * @param args parameters as 'key=value'
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length == 2) parameters.put(keyValue[0], keyValue[1]);
+        }
+        var benchmarks = new RenderBenchmarks(
+                Integer.parseInt(parameters.getOrDefault("warmup", "3")),
+                Integer.parseInt(parameters.getOrDefault("iterations", "5")),
+                Integer.parseInt(parameters.getOrDefault("ops", "600")));
+
+        System.out.println(BenchmarkHarness.Result.header());
+        for (int elevators : Arrays.stream(parameters.getOrDefault("elevators", "7,100,500,2000").split(","))
+                .mapToInt(Integer::parseInt).toArray()) {
+            benchmarks.runRenderBenchmarks(elevators);
+        }
+        benchmarks.printFrameBudget();
+    }
+
+    /**
+     * Renders a Tower with busy elevators into a window of the maximum size, fitted and zoomed in.
+     * @param elevators number of elevators
+     */
+    private void runRenderBenchmarks(int elevators) {
+        Tower tower = new Tower(elevators);
+        tower.setInterFloorRequestsAllowed(true);
+        simulation = Simulation.createHeadless(tower);
+        simulation.setTrafficSource(new TrafficGenerator(SEED, TrafficProfile.LUNCH, elevators * 2d, TowerConstants.NUMBER_OF_FLOORS));
+        simulation.runFor(300); // so the elevators are busy
+        renderer = new TowerRenderer(tower.getElevators());
+        Viewport fitted = new Viewport(elevators, TowerConstants.NUMBER_OF_FLOORS,
+                SimulationConstants.MAX_VIEW_WIDTH, SimulationConstants.MAX_VIEW_HEIGHT);
+        Viewport zoomed = fitted.zoomedBy(SimulationConstants.MAX_ZOOM, 0, SimulationConstants.MAX_VIEW_HEIGHT);
+
+        for (var start : List.of(fitted, zoomed)) {
+            String suffix = String.format(" elevators=%d zoom=%s", elevators, start == fitted ? "fit" : "max");
+            record(harness.measure("TowerRenderer.render moving" + suffix, () -> viewport = start, this::renderMoving));
+            record(harness.measure("TowerRenderer.render scrolling" + suffix, () -> viewport = start, this::renderScrolling));
+        }
+    }
+
+    /**
+     * One frame, the Simulation advances every 2nd or 3rd frame (like 25 fixedUpdates at 60 FPS).
+     */
+    private void renderMoving() {
+        frame++;
+        if (frame * SimulationConstants.FIXED_UPDATES_PER_SECOND / SimulationConstants.FRAMES_PER_SECOND
+                != (frame - 1) * SimulationConstants.FIXED_UPDATES_PER_SECOND / SimulationConstants.FRAMES_PER_SECOND) {
+            simulation.fixedUpdate();
+        }
+        renderer.render(viewport, (frame % 3) / 3f);
+    }
+
+    /**
+     * One frame with a new Viewport, so everything is drawn again.
+     */
+    private void renderScrolling() {
+        frame++;
+        viewport = viewport.scrolledBy(frame % 2 == 0 ? 1 : -1, 0);
+        renderer.render(viewport, 0f);
+    }
+
+    private void record(BenchmarkHarness.Result result) {
+        results.add(result);
+        System.out.println(result);
+    }
+
+    /**
+     * Prints how many frames per second are possible at the 99th percentile.
+     */
+    private void printFrameBudget() {
+        System.out.println();
+        System.out.printf("Frame budget at %d FPS: %.1f ms%n", SimulationConstants.FRAMES_PER_SECOND, 1000d / SimulationConstants.FRAMES_PER_SECOND);
+        for (var result : results) {
+            System.out.printf("%-55s %10.0f FPS (p99)%n", result.getName(), 1e9 / Math.max(1, result.getLatency(99)));
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package project;
 
+import project.config.Config;
+import project.control.ControlConstants;
+import project.control.ControlServer;
+import project.dispatch.DispatchStrategy;
 import project.tower.Tower;
-import project.tower.TowerConstants;
+import project.tower.TowerSnapshot;
 import project.simulation.Simulation;
+import project.trace.TraceRecorder;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -12,13 +21,93 @@ import java.util.*;
  */
 public class Application {
     private final Simulation simulation;
+    private final long seed;
+    private final TrafficGenerator randomRequests;
 
     /**
      * Application entry point.
-     * @param args ignored
+     * @param args '--headless' starts the Simulation without View,
+     *             '--events' starts a headless Simulation, which jumps from event to event instead of fixed steps,
+     *             '--busy-spin' waits for the next frame by spinning instead of parking the thread,
+     *             '--parallel' updates the elevators on all available cores,
+     *             '--dispatch=greedy|destination|batch' selects the DispatchStrategy,
+     *             '--seed=#SEED' makes random Requests reproducible,
+     *             '--inter-floor' also allows Requests between two upper floors,
+     *             '--record=FILE' records a trace for replaying it with TraceReplay,
+     *             '--restore=FILE' starts from a snapshot (written by the 'save' command of a headless Simulation with the same config),
+     *             '--metrics=#SECONDS' prints the wait and journey times periodically (in simulation time),
+     *             '--control=#PORT' (or '--control' for port 7070) opens the control API for adding Requests and streaming the elevator states (see ControlServer),
+     *             '--config=FILE' reads floors, elevator cars and rates from a properties file (see Config),
+     *             '--set=KEY=VALUE' overrides one value of it (can be given more than once), everything else is ignored
+     * @throws IOException if the trace, snapshot or config file cannot be opened, or the control port cannot be bound
      */
-    public static void main(String[] args) {
-        new Application();
+    public static void main(String[] args) throws IOException {
+        var arguments = List.of(args);
+        Tower tower = new Tower(loadConfig(arguments));
+        tower.setDispatchStrategy(DispatchStrategy.forName(getOption(arguments, "--dispatch=", "greedy")));
+        tower.setInterFloorRequestsAllowed(arguments.contains("--inter-floor"));
+        String snapshotFile = getOption(arguments, "--restore=", null);
+        if (snapshotFile != null) {
+            TowerSnapshot.load(tower, Path.of(snapshotFile));
+            System.out.printf("Restored the snapshot at %.1fs%n", tower.getClock().getTime());
+        }
+        String traceFile = getOption(arguments, "--record=", null);
+        if (traceFile != null) {
+            tower.setTraceRecorder(new TraceRecorder(Path.of(traceFile), tower.getClock().getTime()));
+        }
+        Simulation simulation;
+        if (arguments.contains("--events")) {
+            simulation = Simulation.createEventDriven(tower);
+        } else if (arguments.contains("--headless")) {
+            simulation = Simulation.createHeadless(tower);
+        } else {
+            simulation = new Simulation(tower);
+            simulation.setParking(!arguments.contains("--busy-spin"));
+        }
+        String controlPort = arguments.contains("--control") ? String.valueOf(ControlConstants.DEFAULT_PORT)
+                : getOption(arguments, "--control=", null);
+        if (controlPort != null) {
+            ControlServer server = new ControlServer(tower, Integer.parseInt(controlPort));
+            server.start();
+            simulation.setStateListener(ControlConstants.STATE_INTERVAL, server::publishState);
+            System.out.println("Control API on port " + server.getPort());
+        }
+        new Application(simulation,
+                arguments.contains("--parallel") ? Runtime.getRuntime().availableProcessors() : 1,
+                Long.parseLong(getOption(arguments, "--seed=", String.valueOf(System.nanoTime()))),
+                Double.parseDouble(getOption(arguments, "--metrics=", "0")));
+    }
+
+    /**
+     * @param arguments command line arguments
+     * @return the Config of '--config=' (or the default), with all '--set=' overrides
+     * @throws IOException if the config file cannot be read
+     */
+    static Config loadConfig(List<String> arguments) throws IOException {
+        String configFile = getOption(arguments, "--config=", null);
+        Config config = configFile == null ? Config.DEFAULT : Config.load(Path.of(configFile));
+        for (String argument : arguments) {
+            if (argument.startsWith("--set=")) {
+                config = config.with(argument.substring(6));
+            }
+        }
+        if (config != Config.DEFAULT) {
+            System.out.println("Config: " + config);
+        }
+        return config;
+    }
+
+    /**
+     * @param arguments command line arguments
+     * @param prefix like '--seed='
+     * @param defaultValue if the option is not given
+     * @return the value after the prefix
+     */
+    private static String getOption(List<String> arguments, String prefix, String defaultValue) {
+        return arguments.stream()
+                .filter(argument -> argument.startsWith(prefix))
+                .map(argument -> argument.substring(prefix.length()))
+                .findFirst().orElse(defaultValue);
     }
 
     /**
@@ -26,9 +115,29 @@ public class Application {
      * as a new thread, so you can still enter commands in command line.
      */
     public Application() {
-        simulation = new Simulation(new Tower());
-        Thread t = new Thread(simulation);
-        t.start();
+        this(new Simulation(new Tower()), 1, System.nanoTime(), 0d);
+    }
+
+    /**
+     * Starts the Simulation.<br>
+     * A headless Simulation does not get its own thread, it only runs with the 'run' command.
+     * @param simulation the Simulation (with or without View, or event driven)
+     * @param parallelism number of threads for updating the elevators
+     * @param seed for all random Requests
+     * @param metricsInterval simulation time between printing the metrics in seconds, 0 for never
+     */
+    public Application(Simulation simulation, int parallelism, long seed, double metricsInterval) {
+        this.simulation = simulation;
+        this.seed = seed;
+        randomRequests = new TrafficGenerator(seed, TrafficProfile.UNIFORM, 0d, simulation.getTower().getNumberOfFloors());
+        simulation.setParallelism(parallelism);
+        if (metricsInterval > 0d) {
+            simulation.setMetricsListener(metricsInterval, System.out::println);
+        }
+        if (!simulation.isHeadless()) {
+            Thread t = new Thread(simulation);
+            t.start();
+        }
 
         askForInput();
     }
@@ -38,15 +147,20 @@ public class Application {
      * Here it waits for the User to enter commands to add new Requests.
      */
     public void askForInput() {
-        var elevators = simulation.getTower().getElevators();
         Scanner scanner = new Scanner(System.in);
-        System.out.println("Available commands: 'addRequest #FROM #TO' (short 'ar') or 'addRandomRequest' (short 'arr')");
+        System.out.println("Available commands: 'addRequest #FROM #TO' (short 'ar'), 'addRandomRequest' (short 'arr')");
+        System.out.println("or 'traffic #PROFILE #REQUESTS_PER_MINUTE [#PEAK_SECONDS]' (short 't', 'traffic off' stops it), profiles: " + Arrays.toString(TrafficProfile.values()));
+        System.out.println("'metrics' shows wait and journey times (average, 95th and 99th percentile) and the utilisation of the elevators");
+        if (simulation.isHeadless()) {
+            System.out.println("Headless mode: 'run #SECONDS' simulates the given time as fast as possible, 'save #FILE' writes a snapshot");
+        }
         while (true) {
             System.out.println("command:");
             String input = scanner.nextLine();
 
             if (input.equalsIgnoreCase("quit") || input.equalsIgnoreCase("exit")) {
                 simulation.stop();
+                closeTraceRecorder();
                 break;
             }
 
@@ -62,8 +176,9 @@ public class Application {
                     String s = inputs.get(0);
                     try {
                         int numberOfRequests = Integer.parseInt(s);
-                        if (numberOfRequests > 12) {
-                            System.out.println("Limited to 12 random requests at once.");
+                        int intakeCapacity = simulation.getTower().getConfig().getIntakeCapacity();
+                        if (numberOfRequests > intakeCapacity) {
+                            System.out.println("Limited to " + intakeCapacity + " random requests at once.");
                             continue;
                         }
                         for (int i = 0; i < numberOfRequests; i++) {
@@ -79,23 +194,111 @@ public class Application {
                 inputs.remove(0);
                 addRequest(inputs);
 
+            } else if (input.equalsIgnoreCase("metrics")) {
+                System.out.println(simulation.getTower().getMetricsSnapshot());
+
+            } else if (input.toLowerCase().startsWith("traffic") || input.toLowerCase().startsWith("t ")) {
+                List<String> inputs = new LinkedList<>(List.of(input.split("\\s")));
+                inputs.remove(0);
+                setTraffic(inputs);
+
+            } else if (simulation.isHeadless() && input.toLowerCase().startsWith("save ")) {
+                saveSnapshot(input.substring(5).trim());
+
+            } else if (simulation.isHeadless() && input.toLowerCase().startsWith("run")) {
+                List<String> inputs = new LinkedList<>(List.of(input.split("\\s")));
+                inputs.remove(0);
+                runHeadless(inputs);
+
             } else {
                 System.out.println("Unknown command!");
             }
         }
     }
 
+    /**
+     * Runs the headless Simulation for the given time and prints the status of each elevator afterwards.
+     * @param inputs as a List of Strings (only works with a size of 1)
+     */
+    private void runHeadless(List<String> inputs) {
+        if (inputs.size() != 1) {
+            System.out.println("This command needs 1 parameter!");
+            return;
+        }
+        double duration;
+        try {
+            duration = Double.parseDouble(inputs.get(0));
+        } catch (NumberFormatException e) {
+            System.out.println(inputs.get(0) + " is no number!");
+            return;
+        }
+        long startTime = System.nanoTime();
+        simulation.runFor(duration);
+        System.out.printf("Simulated %.1fs in %.3fs (simulation time: %.1fs)%n", duration,
+                (System.nanoTime() - startTime) / 1e9, simulation.getTower().getClock().getTime());
+        var elevators = simulation.getTower().getElevators();
+        for (int i = 0; i < elevators.size(); i++) {
+            System.out.println((i + 1) + ": " + elevators.get(i).getStatusText());
+        }
+        System.out.println(simulation.getTower().getMetricsSnapshot());
+    }
+
+    /**
+     * Writes a snapshot of the Tower (only for a headless Simulation, as it must not be updating meanwhile).
+     * @param file path of the snapshot
+     */
+    private void saveSnapshot(String file) {
+        try {
+            TowerSnapshot.save(simulation.getTower(), Path.of(file));
+            System.out.printf("Saved the snapshot at %.1fs%n", simulation.getTower().getClock().getTime());
+        } catch (IOException e) {
+            System.out.println("Could not write the snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts or stops generated traffic.
+     * @param inputs as a List of Strings ('off', or profile, requests per minute and optional peak duration)
+     */
+    private void setTraffic(List<String> inputs) {
+        if (inputs.size() == 1 && inputs.get(0).equalsIgnoreCase("off")) {
+            simulation.setTrafficSource(null);
+            return;
+        }
+        if (inputs.size() != 2 && inputs.size() != 3) {
+            System.out.println("This command needs 2 or 3 parameters!");
+            return;
+        }
+        try {
+            TrafficProfile profile = TrafficProfile.valueOf(inputs.get(0).toUpperCase());
+            double requestsPerMinute = Double.parseDouble(inputs.get(1));
+            double peakDuration = inputs.size() == 3 ? Double.parseDouble(inputs.get(2)) : 0d;
+            simulation.setTrafficSource(new TrafficGenerator(seed, profile, requestsPerMinute,
+                    simulation.getTower().getNumberOfFloors(), peakDuration));
+        } catch (IllegalArgumentException e) { // also NumberFormatException
+            System.out.println("Invalid traffic parameters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the rest of the trace (if one is recorded).
+     */
+    private void closeTraceRecorder() {
+        TraceRecorder recorder = simulation.getTower().getTraceRecorder();
+        if (recorder == null) return;
+        try {
+            recorder.close();
+            System.out.println("Recorded " + recorder.getNumberOfEvents() + " events");
+        } catch (IOException e) {
+            System.out.println("Could not write the trace: " + e.getMessage());
+        }
+    }
+
     /**
      * Method for adding a random Request, so askForInput does not get to overloaded.
      */
     private void addRandomRequest() {
-        Random random = new Random();
-        int randomFloor = random.nextInt(TowerConstants.NUMBER_OF_FLOORS) + 1;
-        if (random.nextBoolean()) {
-            simulation.getTower().addRequest(0, randomFloor);
-        } else {
-            simulation.getTower().addRequest(randomFloor, 0);
-        }
+        randomRequests.addRandomRequest(simulation.getTower());
     }
 
     /**
@@ -111,7 +314,7 @@ public class Application {
         for (String value : inputs) {
             try {
                 int number = Integer.parseInt(value);
-                if (number > TowerConstants.NUMBER_OF_FLOORS || number < 0) {
+                if (number > simulation.getTower().getNumberOfFloors() || number < 0) {
                     System.out.println(number + " is not a valid floor number");
                     return;
                 }
@@ -121,6 +324,11 @@ public class Application {
                 return;
             }
         }
+        String error = simulation.getTower().getRequestError(numbers.get(0), numbers.get(1));
+        if (error != null) {
+            System.out.println(error);
+            return;
+        }
         simulation.getTower().addRequest(numbers.get(0), numbers.get(1));
     }
 }
@@ -0,0 +1,145 @@
+package project;
+
+import project.simulation.SimObject;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static project.simulation.SimulationConstants.*;
+
+/**
+ * Draws the visible part of the Tower into an image, which the View only has to copy to the screen.<br>
+ * The image is kept from frame to frame: only columns, whose elevator moved (by at least a pixel) or whose text changed,
+ * are drawn again (dirty rectangles), columns outside of the Viewport are not looked at (culling),
+ * and all dirty cars are drawn in one pass per color. Everything is drawn again only when the Viewport changed.
+ * Has to be used from one thread only (the Simulation thread).
+ */
+public class TowerRenderer {
+    private final List<? extends SimObject> simObjects;
+    private BufferedImage image, background; // background: floor lines and numbers for the current Viewport
+    private Viewport drawnViewport;
+    private int[] drawnY = new int[0];          // top of the car in each column, as drawn into the image
+    private String[] drawnTexts = new String[0];
+    private int[] dirtyColumns = new int[0];
+    private int numberOfDirtyColumns;
+    private Font floorFont, carFont;
+
+    /**
+     * @param simObjects the elevators, one column each (the floors are taken from the Viewport)
+     */
+    public TowerRenderer(List<? extends SimObject> simObjects) {
+        this.simObjects = simObjects;
+    }
+
+    /**
+     * Draws the changes since the last frame.
+     * @param viewport the visible part (a new image is created if its size changed)
+     * @param interpolation between fixedUpdates (0.0 - 1.0)
+     * @return the image of the whole canvas (only valid until the next call)
+     */
+    public BufferedImage render(Viewport viewport, float interpolation) {
+        boolean redrawAll = viewport != drawnViewport;
+        if (image == null || image.getWidth() != viewport.getWidth() || image.getHeight() != viewport.getHeight()) {
+            image = new BufferedImage(viewport.getWidth(), viewport.getHeight(), BufferedImage.TYPE_INT_RGB);
+            background = new BufferedImage(viewport.getWidth(), viewport.getHeight(), BufferedImage.TYPE_INT_RGB);
+            redrawAll = true;
+        }
+        if (drawnY.length != simObjects.size()) {
+            drawnY = new int[simObjects.size()];
+            drawnTexts = new String[simObjects.size()];
+            dirtyColumns = new int[simObjects.size()];
+            redrawAll = true;
+        }
+        Graphics2D g = image.createGraphics();
+        if (redrawAll) {
+            drawBackground(viewport);
+            g.drawImage(background, 0, 0, null);
+            drawnViewport = viewport;
+        }
+        g.clipRect(GUTTER_PIXEL, 0, viewport.getAreaWidth(), viewport.getHeight());
+
+        boolean drawTexts = viewport.getColumnWidth() >= TEXT_MIN_COLUMN_PIXEL;
+        numberOfDirtyColumns = 0;
+        for (int i = viewport.getFirstColumn(); i <= viewport.getLastColumn(); i++) {
+            SimObject simObject = simObjects.get(i);
+            int y = viewport.getScreenY(simObject.getDisplayHeight(interpolation)) - viewport.getCarHeight();
+            String text = drawTexts ? simObject.getDisplayText(interpolation) : null;
+            if (!redrawAll && y == drawnY[i] && text == drawnTexts[i]) continue; // texts are cached, so the same String means the same text
+            if (!redrawAll) { // restore the background of the column
+                int x = viewport.getColumnX(i), columnWidth = viewport.getColumnX(i + 1) - x;
+                g.drawImage(background, x, 0, x + columnWidth, viewport.getHeight(), x, 0, x + columnWidth, viewport.getHeight(), null);
+            }
+            drawnY[i] = y;
+            drawnTexts[i] = text;
+            dirtyColumns[numberOfDirtyColumns++] = i;
+        }
+
+        int carWidth = viewport.getCarWidth(), carHeight = viewport.getCarHeight();
+        int carOffset = (int) ((viewport.getColumnWidth() - carWidth) / 2);
+        g.setColor(Color.BLACK);
+        for (int d = 0; d < numberOfDirtyColumns; d++) {
+            int i = dirtyColumns[d];
+            g.fillRect(viewport.getColumnX(i) + carOffset, drawnY[i], carWidth, carHeight);
+        }
+        if (drawTexts) {
+            g.setColor(Color.ORANGE);
+            g.setFont(getCarFont(g));
+            for (int d = 0; d < numberOfDirtyColumns; d++) {
+                int i = dirtyColumns[d], x = viewport.getColumnX(i), columnWidth = viewport.getColumnX(i + 1) - x;
+                if (drawnY[i] + carHeight < 0 || drawnY[i] > viewport.getHeight()) continue;
+                Shape clip = g.getClip();
+                g.clipRect(x, 0, columnWidth, viewport.getHeight()); // the text must not reach into a column, which is not drawn again
+                g.drawString(drawnTexts[i], x + carOffset, drawnY[i] + carHeight - 2);
+                g.setClip(clip);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * @return number of columns drawn in the last frame
+     */
+    public int getNumberOfDirtyColumns() {
+        return numberOfDirtyColumns;
+    }
+
+    /**
+     * Prepares the background for the Viewport, so it does not need to be drawn every frame.
+     * @param viewport the visible part
+     */
+    private void drawBackground(Viewport viewport) {
+        Graphics2D g = background.createGraphics();
+        g.setBackground(Color.WHITE);
+        g.clearRect(0, 0, viewport.getWidth(), viewport.getHeight());
+        g.setColor(Color.BLUE);
+        g.setFont(getFloorFont(g));
+        int fontHeight = g.getFontMetrics().getHeight();
+        int labelStep = (int) Math.ceil(fontHeight / viewport.getFloorHeight()); // floor numbers must not overlap
+        int floors = viewport.getFloors();
+        for (int floor = 0; floor <= floors + 1; floor++) {
+            int lineY = viewport.getFloorY(floor);
+            if (lineY < 0 || lineY > viewport.getHeight() + fontHeight) continue; // culled
+            g.drawLine(0, lineY, viewport.getWidth(), lineY);
+            if (floor <= floors && floor % labelStep == 0) {
+                g.drawString(String.valueOf(floor), 0, lineY - 2);
+            }
+        }
+        g.dispose();
+    }
+
+    private Font getFloorFont(Graphics2D g) {
+        if (floorFont == null) {
+            floorFont = g.getFont().deriveFont(10f);
+        }
+        return floorFont;
+    }
+
+    private Font getCarFont(Graphics2D g) {
+        if (carFont == null) {
+            carFont = g.getFont().deriveFont(9f);
+        }
+        return carFont;
+    }
+}
@@ -1,31 +1,70 @@
 package project;
 
-import project.tower.TowerConstants;
+import project.config.Config;
 import project.simulation.SimObject;
 import project.simulation.SimulationConstants;
 
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
+import java.awt.event.*;
 import java.awt.image.BufferStrategy;
-import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * The window of the Simulation: the elevators (scrollable with the mouse wheel or by dragging, shift + wheel scrolls sideways,
+ * ctrl + wheel zooms) and a status table below.<br>
+ * Rendering happens on the Simulation thread (TowerRenderer), everything else of Swing on the Event Dispatch Thread.
+ */
 public class View {
-
-    final int WIDTH = (TowerConstants.NUMBER_OF_ELEVATORS) * SimulationConstants.ELEVATOR_SPACING_PIXEL;
-    public static final int HEIGHT = (TowerConstants.NUMBER_OF_FLOORS + 1) * SimulationConstants.FLOOR_HEIGHT_PIXEL;
-
     private final List<SimObject> simObjects = new ArrayList<>();
-    private final List<JLabel> statusLabels = new ArrayList<>();
+    private final TowerRenderer renderer = new TowerRenderer(simObjects);
+    private final int floors;
+    private final double floorHeight; // in m
+    private final StatusTableModel statusTableModel = new StatusTableModel();
+    private final long statusUpdateNanos;
+    private long nextStatusUpdate;
+    private String[] statusTexts = new String[0]; // last texts passed to the table
+    private volatile Viewport viewport;
+    private volatile int firstVisibleRow, lastVisibleRow; // of the status table
 
     private JFrame frame;
     private JFrame statusFrame;
+    private Canvas canvas;
     private BufferStrategy bufferStrategy;
 
-    BufferedImage background;
+    /**
+     * @param simObjects the elevators to show
+     */
+    public View(List<? extends SimObject> simObjects) {
+        this(simObjects, Config.DEFAULT);
+    }
 
-    public View() {
+    /**
+     * @param simObjects the elevators to show
+     * @param config floors, floor height and statusUpdatesPerSecond
+     */
+    public View(List<? extends SimObject> simObjects, Config config) {
+        this(simObjects, config.getNumberOfFloors(), config.getFloorHeight(), config.getStatusUpdatesPerSecond());
+    }
+
+    /**
+     * @param simObjects the elevators to show
+     * @param statusUpdatesPerSecond how often the status table is updated (it does not need the FPS)
+     */
+    public View(List<? extends SimObject> simObjects, double statusUpdatesPerSecond) {
+        this(simObjects, Config.DEFAULT.getNumberOfFloors(), Config.DEFAULT.getFloorHeight(), statusUpdatesPerSecond);
+    }
+
+    private View(List<? extends SimObject> simObjects, int floors, double floorHeight, double statusUpdatesPerSecond) {
+        if (statusUpdatesPerSecond <= 0d) {
+            throw new IllegalArgumentException("Status updates per second have to be positive!");
+        }
+        this.simObjects.addAll(simObjects);
+        this.floors = floors;
+        this.floorHeight = floorHeight;
+        statusUpdateNanos = (long) (1e9 / statusUpdatesPerSecond);
         SwingUtilities.invokeLater(this::createAndShowGUI);
     }
 
@@ -36,98 +75,136 @@ public class View {
         // Sim View
         frame = new JFrame("Simulation");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        JPanel panel = (JPanel) frame.getContentPane();
-
-        panel.setSize(WIDTH, HEIGHT);
-        panel.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+        Dimension size = Viewport.getPreferredSize(simObjects.size(), floors);
+        viewport = new Viewport(simObjects.size(), floors, floorHeight, size.width, size.height);
 
-        Canvas canvas = new Canvas();
-        canvas.setBounds(0, 0, WIDTH, HEIGHT);
+        canvas = new Canvas();
+        canvas.setPreferredSize(size);
         canvas.setIgnoreRepaint(true);
+        addViewportListeners(canvas);
 
-        panel.add(canvas);
-
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setResizable(false);
-        frame.setVisible(true);
+        frame.add(canvas);
         frame.pack();
-
-        background = new BufferedImage(WIDTH * 2, HEIGHT * 2, BufferedImage.TYPE_INT_ARGB);
-        drawBackground(background.createGraphics());
+        frame.setVisible(true);
 
         // Status View
         statusFrame = new JFrame("Status");
         statusFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        statusFrame.setMinimumSize(new Dimension(frame.getWidth(), 18 * simObjects.size()));
-        statusFrame.setMaximumSize(new Dimension(frame.getWidth() * 8, 24 * simObjects.size()));
-        statusFrame.setSize((frame.getWidth() * 4),20 * simObjects.size());
-        statusFrame.setLayout(new GridLayout(simObjects.size(), 1));
-        for (int i = 0; i < simObjects.size(); i++) {
-            JLabel label = new JLabel(String.valueOf(i));
-            statusFrame.add(label);
-            statusLabels.add(label);
-        }
-
+        JTable table = new JTable(statusTableModel);
+        table.getColumnModel().getColumn(0).setMaxWidth(50);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleRows(table));
+        int rows = Math.min(simObjects.size(), SimulationConstants.STATUS_TABLE_ROWS);
+        table.setPreferredScrollableViewportSize(new Dimension(frame.getWidth() * 4, table.getRowHeight() * rows));
+        statusFrame.add(scrollPane);
+        statusFrame.pack();
         statusFrame.setLocation(0, frame.getHeight() + frame.getInsets().top + 2);
         statusFrame.setVisible(true);
+        updateVisibleRows(table);
 
         canvas.createBufferStrategy(2);
         bufferStrategy = canvas.getBufferStrategy();
     }
 
     /**
-     * View render calls the render method for each SimObject
-     * and also updates the statusLabels for them.
-     * @param interpolation passes on interpolation value
+     * Scrolling, dragging, zooming and resizing create a new Viewport.
+     * @param canvas the canvas, where the elevators are drawn
      */
-    public void render(float interpolation) {
-        if (bufferStrategy == null) return; // View not ready yet
-        Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
-        g.drawImage(background, 0, 0, WIDTH, HEIGHT, frame);
+    private void addViewportListeners(Canvas canvas) {
+        canvas.addMouseWheelListener(e -> {
+            double notches = e.getPreciseWheelRotation();
+            if (e.isControlDown()) {
+                viewport = viewport.zoomedBy(Math.pow(SimulationConstants.ZOOM_STEP, -notches), e.getX(), e.getY());
+            } else if (e.isShiftDown()) {
+                viewport = viewport.scrolledBy(notches * viewport.getColumnWidth() * 3, 0d);
+            } else {
+                viewport = viewport.scrolledBy(0d, notches * viewport.getFloorHeight() * 3);
+            }
+        });
+        MouseAdapter drag = new MouseAdapter() {
+            private Point last;
 
-        setFontSize(g, 0.6f);
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = e.getPoint();
+            }
 
-        for (int i = 0; i < simObjects.size(); i++) {
-            var simObject = simObjects.get(i);
-            simObject.render(g, interpolation);
-            statusLabels.get(i).setText((i + 1) + ": " + simObject.getStatusText());
-        }
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                viewport = viewport.scrolledBy(last.x - e.getX(), last.y - e.getY());
+                last = e.getPoint();
+            }
+        };
+        canvas.addMouseListener(drag);
+        canvas.addMouseMotionListener(drag);
+        canvas.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                viewport = viewport.resizedTo(canvas.getWidth(), canvas.getHeight());
+            }
+        });
+    }
 
-        g.dispose();
-        bufferStrategy.show();
+    private void updateVisibleRows(JTable table) {
+        Rectangle visible = table.getVisibleRect();
+        firstVisibleRow = Math.max(0, table.rowAtPoint(visible.getLocation()));
+        int last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        lastVisibleRow = last < 0 ? simObjects.size() - 1 : last;
     }
 
     /**
-     * Prepares the background, so it does not need to be drawn every frame.
-     * @param g graphics context to be drawn to.
+     * View render lets the TowerRenderer draw the changes and copies its image to the canvas.
+     * Also updates the status table (throttled, see updateStatusTable).
+     * @param interpolation passes on interpolation value
      */
-    private void drawBackground(Graphics2D g) {
-        g.setBackground(Color.WHITE);
-        g.clearRect(0, 0, WIDTH * 2, HEIGHT * 2);
-        g.setColor(Color.BLUE);
-        setFontSize(g, 1.5f);
-        for (int i = 0; i < TowerConstants.NUMBER_OF_FLOORS + 2; i++) {
-            int lineY = SimulationConstants.FLOOR_HEIGHT_PIXEL * i * 2;
-            g.drawLine(0, lineY, WIDTH * 2, lineY);
-            g.drawString(String.valueOf(56 - i), 0, lineY - 2);
-        }
+    public void render(float interpolation) {
+        if (bufferStrategy == null) return; // View not ready yet
+        Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+        g.drawImage(renderer.render(viewport, interpolation), 0, 0, null);
+        g.dispose();
+        bufferStrategy.show();
+        updateStatusTable();
     }
 
     /**
-     * A method for modifying font size for a certain graphics context.
-     * @param g graphics context to be drawn to
-     * @param size multiplier for font size compared to previous size
+     * Collects the status texts of the visible rows at most statusUpdatesPerSecond times
+     * and passes the changed ones to the table on the Event Dispatch Thread (Swing is not thread safe).
      */
-    private void setFontSize(Graphics2D g, float size) {
-        Font currentFont = g.getFont();
-        Font newFont = currentFont.deriveFont(currentFont.getSize() * size);
-        g.setFont(newFont);
+    private void updateStatusTable() {
+        long now = System.nanoTime();
+        if (now - nextStatusUpdate < 0L) return;
+        nextStatusUpdate = now + statusUpdateNanos;
+        if (statusTexts.length != simObjects.size()) {
+            statusTexts = new String[simObjects.size()];
+        }
+        int first = firstVisibleRow, last = Math.min(lastVisibleRow, simObjects.size() - 1);
+        String[] changedTexts = null;
+        for (int i = first; i <= last; i++) {
+            String text = simObjects.get(i).getStatusText();
+            if (text.equals(statusTexts[i])) continue;
+            statusTexts[i] = text;
+            if (changedTexts == null) {
+                changedTexts = new String[statusTexts.length];
+            }
+            changedTexts[i] = text;
+        }
+        if (changedTexts != null) {
+            String[] texts = changedTexts;
+            SwingUtilities.invokeLater(() -> statusTableModel.setTexts(texts));
+        }
     }
 
     public List<SimObject> getSimObjects() {
         return simObjects;
     }
 
+    /**
+     * @return the TowerRenderer (e.g. for the number of columns drawn in the last frame)
+     */
+    public TowerRenderer getRenderer() {
+        return renderer;
+    }
+
     /**
      * Close the View(s)
      */
@@ -135,4 +212,50 @@ public class View {
         frame.dispose();
         statusFrame.dispose();
     }
+
+    /**
+     * The rows of the status table: a JTable only asks for the rows it shows,
+     * so hundreds of elevators cost as much as the visible ones.
+     */
+    private static class StatusTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private String[] texts = new String[0];
+
+        /**
+         * @param changedTexts new texts, null where nothing changed
+         */
+        private void setTexts(String[] changedTexts) {
+            if (texts.length != changedTexts.length) {
+                texts = new String[changedTexts.length];
+                fireTableDataChanged();
+            }
+            for (int i = 0; i < changedTexts.length; i++) {
+                if (changedTexts[i] != null) {
+                    texts[i] = changedTexts[i];
+                    fireTableRowsUpdated(i, i);
+                }
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return texts.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "#" : "Status";
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == 0 ? String.valueOf(row + 1) : texts[row];
+        }
+    }
 }
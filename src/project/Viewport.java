@@ -0,0 +1,195 @@
+package project;
+
+import project.tower.TowerConstants;
+
+import java.awt.*;
+
+import static project.simulation.SimulationConstants.*;
+
+/**
+ * The visible part of the Tower in the View: size of the canvas, zoom and scroll position.<br>
+ * Viewports are immutable, so the Event Dispatch Thread (mouse and resize events) can pass a new one
+ * to the Simulation thread (rendering), which redraws everything only when it gets a different Viewport.
+ * Horizontal and vertical zoom are separate, so a tower with few elevators can still be shown with readable texts.
+ */
+public class Viewport {
+    private final int columns, floors;  // content: number of elevators and highest floor
+    private final double floorMeters;   // height of one floor in the tower in m
+    private final int width, height;    // canvas size in pixels
+    private final double zoomX, zoomY;
+    private final double x, y;          // scroll position in pixels of the zoomed content
+
+    /**
+     * Creates a Viewport, which fits the whole tower into the size (as far as the zoom limits allow),
+     * scrolled to floor 0.
+     * @param columns number of elevators
+     * @param floors highest floor
+     * @param width in pixels (including the GUTTER_PIXEL for the floor numbers)
+     * @param height in pixels
+     */
+    public Viewport(int columns, int floors, int width, int height) {
+        this(columns, floors, TowerConstants.FLOOR_HEIGHT, width, height);
+    }
+
+    /**
+     * Like above, for a tower with a configured floor height.
+     * @param columns number of elevators
+     * @param floors highest floor
+     * @param floorMeters height of one floor in m (one floor is always FLOOR_HEIGHT_PIXEL high at zoom 1)
+     * @param width in pixels (including the GUTTER_PIXEL for the floor numbers)
+     * @param height in pixels
+     */
+    public Viewport(int columns, int floors, double floorMeters, int width, int height) {
+        this(columns, floors, floorMeters, width, height,
+                clampZoom((width - GUTTER_PIXEL) / (double) (Math.max(columns, 1) * ELEVATOR_SPACING_PIXEL)),
+                clampZoom(height / (double) ((floors + 1) * FLOOR_HEIGHT_PIXEL)),
+                0d, Double.MAX_VALUE);
+    }
+
+    private Viewport(int columns, int floors, double floorMeters, int width, int height, double zoomX, double zoomY, double x, double y) {
+        if (floorMeters <= 0d) {
+            throw new IllegalArgumentException("Floor height has to be positive!");
+        }
+        this.columns = columns;
+        this.floors = floors;
+        this.floorMeters = floorMeters;
+        this.width = Math.max(width, GUTTER_PIXEL + 1);
+        this.height = Math.max(height, 1);
+        this.zoomX = zoomX;
+        this.zoomY = zoomY;
+        this.x = clamp(x, 0d, Math.max(0d, getContentWidth() - getAreaWidth()));
+        this.y = clamp(y, 0d, Math.max(0d, getContentHeight() - this.height));
+    }
+
+    /**
+     * @param columns number of elevators
+     * @param floors highest floor
+     * @return the size of the canvas, which shows everything at DEFAULT_ZOOM (but at most MAX_VIEW_WIDTH * MAX_VIEW_HEIGHT)
+     */
+    public static Dimension getPreferredSize(int columns, int floors) {
+        return new Dimension(
+                (int) Math.min(MAX_VIEW_WIDTH, GUTTER_PIXEL + columns * ELEVATOR_SPACING_PIXEL * DEFAULT_ZOOM),
+                Math.min(MAX_VIEW_HEIGHT, (floors + 1) * FLOOR_HEIGHT_PIXEL));
+    }
+
+    public Viewport scrolledBy(double dx, double dy) {
+        return new Viewport(columns, floors, floorMeters, width, height, zoomX, zoomY, x + dx, y + dy);
+    }
+
+    /**
+     * Zooms both directions, so the content under the anchor stays where it is.
+     * @param factor e.g. ZOOM_STEP for zooming in
+     * @param anchorX pixel on the canvas
+     * @param anchorY pixel on the canvas
+     * @return the new Viewport
+     */
+    public Viewport zoomedBy(double factor, int anchorX, int anchorY) {
+        double newZoomX = clampZoom(zoomX * factor), newZoomY = clampZoom(zoomY * factor);
+        double areaX = Math.max(anchorX - GUTTER_PIXEL, 0);
+        return new Viewport(columns, floors, floorMeters, width, height, newZoomX, newZoomY,
+                (x + areaX) * newZoomX / zoomX - areaX, (y + anchorY) * newZoomY / zoomY - anchorY);
+    }
+
+    public Viewport resizedTo(int width, int height) {
+        return new Viewport(columns, floors, floorMeters, width, height, zoomX, zoomY, x, y);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getFloors() {
+        return floors;
+    }
+
+    /**
+     * @return width of one elevator column in pixels
+     */
+    public double getColumnWidth() {
+        return ELEVATOR_SPACING_PIXEL * zoomX;
+    }
+
+    /**
+     * @return height of one floor in pixels
+     */
+    public double getFloorHeight() {
+        return FLOOR_HEIGHT_PIXEL * zoomY;
+    }
+
+    public int getCarWidth() {
+        return Math.max(1, (int) Math.round(CAR_PIXEL_WIDTH * zoomX));
+    }
+
+    public int getCarHeight() {
+        return Math.max(1, (int) Math.round(CAR_PIXEL_HEIGHT * zoomY));
+    }
+
+    /**
+     * @return width of the area right of the gutter, where the elevators are drawn
+     */
+    public int getAreaWidth() {
+        return width - GUTTER_PIXEL;
+    }
+
+    public double getContentWidth() {
+        return columns * getColumnWidth();
+    }
+
+    public double getContentHeight() {
+        return (floors + 1) * getFloorHeight();
+    }
+
+    /**
+     * @return first (partly) visible column
+     */
+    public int getFirstColumn() {
+        return Math.max(0, (int) (x / getColumnWidth()));
+    }
+
+    /**
+     * @return last (partly) visible column
+     */
+    public int getLastColumn() {
+        return Math.min(columns - 1, (int) ((x + getAreaWidth()) / getColumnWidth()));
+    }
+
+    /**
+     * @param column index of the elevator
+     * @return left edge of the column on the canvas
+     */
+    public int getColumnX(int column) {
+        return GUTTER_PIXEL + (int) Math.round(column * getColumnWidth() - x);
+    }
+
+    /**
+     * @param meters height in the tower
+     * @return y on the canvas
+     */
+    public int getScreenY(double meters) {
+        return (int) Math.round(getContentHeight() - meters / floorMeters * getFloorHeight() - y);
+    }
+
+    /**
+     * @param floor number of the floor
+     * @return y of the floor line on the canvas
+     */
+    public int getFloorY(int floor) {
+        return getScreenY(floor * floorMeters);
+    }
+
+    private static double clampZoom(double zoom) {
+        return clamp(zoom, MIN_ZOOM, MAX_ZOOM);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
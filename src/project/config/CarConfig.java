@@ -0,0 +1,127 @@
+package project.config;
+
+import project.elevator.ElevatorConstants;
+import project.elevator.ElevatorProfile;
+
+import java.util.BitSet;
+
+/**
+ * Configuration of one elevator car: kinematics, boarding time, capacity and the floors it serves.<br>
+ * Immutable, part of a Config.
+ */
+public class CarConfig {
+    private final double maxSpeed;     // m/s
+    private final double acceleration; // m/s^2
+    private final double waitingTime;  // s
+    private final double boardingTime; // s per passenger
+    private final int capacity;
+    private final BitSet servedFloors; // null if the car serves all floors
+    private final boolean collective;
+
+    /**
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2
+     * @param waitingTime at each stop in seconds
+     * @param capacity max. number of passengers
+     * @param servedFloors the floors, where the car stops, null for all floors
+     */
+    public CarConfig(double maxSpeed, double acceleration, double waitingTime, int capacity, BitSet servedFloors) {
+        this(maxSpeed, acceleration, waitingTime, capacity, servedFloors, false);
+    }
+
+    /**
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2
+     * @param waitingTime at each stop in seconds
+     * @param capacity max. number of passengers
+     * @param servedFloors the floors, where the car stops, null for all floors
+     * @param collective if the car picks up and drops off several Requests on the way
+     */
+    public CarConfig(double maxSpeed, double acceleration, double waitingTime, int capacity, BitSet servedFloors, boolean collective) {
+        this(maxSpeed, acceleration, waitingTime, ElevatorConstants.BOARDING_TIME, capacity, servedFloors, collective);
+    }
+
+    /**
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2
+     * @param waitingTime at each stop in seconds
+     * @param boardingTime in seconds per passenger getting in or out
+     * @param capacity max. number of passengers
+     * @param servedFloors the floors, where the car stops, null for all floors
+     * @param collective if the car picks up and drops off several Requests on the way
+     */
+    public CarConfig(double maxSpeed, double acceleration, double waitingTime, double boardingTime, int capacity, BitSet servedFloors,
+                     boolean collective) {
+        if (maxSpeed <= 0d || acceleration <= 0d || waitingTime < 0d || boardingTime < 0d) {
+            throw new IllegalArgumentException("Speed and acceleration have to be positive, waiting and boarding time must not be negative!");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity has to be at least 1!");
+        }
+        this.maxSpeed = maxSpeed;
+        this.acceleration = acceleration;
+        this.waitingTime = waitingTime;
+        this.boardingTime = boardingTime;
+        this.capacity = capacity;
+        this.servedFloors = servedFloors == null ? null : (BitSet) servedFloors.clone();
+        this.collective = collective;
+    }
+
+    /**
+     * @param numberOfFloors highest floor of the Tower
+     * @param floorHeight in m
+     * @return a new ElevatorProfile with the kinematics of this car
+     */
+    public ElevatorProfile createProfile(int numberOfFloors, double floorHeight) {
+        return new ElevatorProfile(maxSpeed, acceleration, waitingTime, boardingTime, numberOfFloors, floorHeight);
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    public double getWaitingTime() {
+        return waitingTime;
+    }
+
+    /**
+     * @return seconds per passenger getting in or out
+     */
+    public double getBoardingTime() {
+        return boardingTime;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return a copy of the served floors, null if the car serves all floors
+     */
+    public BitSet getServedFloors() {
+        return servedFloors == null ? null : (BitSet) servedFloors.clone();
+    }
+
+    /**
+     * @return if the car is in collective control (several Requests on the way), else one Request after the other
+     */
+    public boolean isCollective() {
+        return collective;
+    }
+
+    public boolean servesAllFloors() {
+        return servedFloors == null;
+    }
+
+    /**
+     * @param floor the floor
+     * @return if the car stops at the floor
+     */
+    public boolean serves(int floor) {
+        return servedFloors == null || servedFloors.get(floor);
+    }
+}
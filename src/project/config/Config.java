@@ -0,0 +1,324 @@
+package project.config;
+
+import project.elevator.ElevatorConstants;
+import project.simulation.SimulationConstants;
+import project.tower.TowerConstants;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static project.config.ConfigConstants.*;
+
+/**
+ * Configuration of the Tower, its elevator cars and the Simulation rates, so variants can run without recompiling.<br>
+ * Read from properties (a file and/or 'key=value' overrides), everything not given has the value of the Constants classes:
+ * <pre>
+ * floors=55
+ * floorHeight=4.0
+ * elevators=7
+ * car.maxSpeed=8.0          (for all cars)
+ * car.3.maxSpeed=12.0       (only for car 3, cars are numbered from 1 like in the status table)
+ * car.3.capacity=6
+ * car.3.floors=0,30-55      (served floors, 'all' by default)
+ * zones=18,36               (low-rise 1-18, mid-rise 19-36, high-rise 37-55, each with its share of the cars and floor 0)
+ * </pre>
+ * 'car.#.floors' takes precedence over the zones, the zones over 'car.floors'.
+ * Other keys: intakeCapacity, fixedUpdatesPerSecond, framesPerSecond, statusUpdatesPerSecond, parking (true: idle cars wait where calls are expected),
+ * car(.#).acceleration, car(.#).waitingTime, car(.#).boardingTime (s per passenger getting in or out), car(.#).collective (true: stops for several Requests on the way). Configs are immutable, 'with' creates a changed copy.
+ */
+public class Config {
+    public static final Config DEFAULT = new Config(new Properties());
+
+    private final Properties properties; // only the given values, not the defaults
+    private final int numberOfFloors;
+    private final double floorHeight;
+    private final int intakeCapacity;
+    private final int fixedUpdatesPerSecond, framesPerSecond, statusUpdatesPerSecond;
+    private final List<CarConfig> cars;
+    private final int[] zoneTops; // highest floor of each zone, empty without zones
+    private final boolean parking;
+
+    /**
+     * @param properties the given values (copied)
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid
+     */
+    public Config(Properties properties) {
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+        for (String key : this.properties.stringPropertyNames()) {
+            if (!KEYS.contains(key) && !CAR_KEY.matcher(key).matches()) {
+                throw new IllegalArgumentException("Unknown configuration key: " + key);
+            }
+        }
+        numberOfFloors = getInt(KEY_FLOORS, TowerConstants.NUMBER_OF_FLOORS, 1);
+        floorHeight = getDouble(KEY_FLOOR_HEIGHT, TowerConstants.FLOOR_HEIGHT);
+        if (floorHeight <= 0d) {
+            throw new IllegalArgumentException(KEY_FLOOR_HEIGHT + " has to be positive: " + floorHeight);
+        }
+        intakeCapacity = getInt(KEY_INTAKE_CAPACITY, TowerConstants.REQUEST_INTAKE_CAPACITY, 1);
+        fixedUpdatesPerSecond = getInt(KEY_FIXED_UPDATES_PER_SECOND, SimulationConstants.FIXED_UPDATES_PER_SECOND, 1);
+        framesPerSecond = getInt(KEY_FRAMES_PER_SECOND, SimulationConstants.FRAMES_PER_SECOND, 1);
+        statusUpdatesPerSecond = getInt(KEY_STATUS_UPDATES_PER_SECOND, SimulationConstants.STATUS_UPDATES_PER_SECOND, 1);
+        parking = parseBoolean(KEY_PARKING, properties.getProperty(KEY_PARKING));
+        int numberOfCars = getInt(KEY_ELEVATORS, TowerConstants.NUMBER_OF_ELEVATORS, 1);
+        for (String key : this.properties.stringPropertyNames()) {
+            var matcher = CAR_KEY.matcher(key);
+            if (matcher.matches() && matcher.group(1) != null && Integer.parseInt(matcher.group(1)) > numberOfCars) {
+                throw new IllegalArgumentException("There is no car " + matcher.group(1) + ": " + key);
+            }
+        }
+        zoneTops = parseZones(numberOfCars);
+        List<CarConfig> carConfigs = new ArrayList<>(numberOfCars);
+        for (int car = 1; car <= numberOfCars; car++) {
+            carConfigs.add(createCar(car, numberOfCars));
+        }
+        cars = Collections.unmodifiableList(carConfigs);
+    }
+
+    /**
+     * Loads a properties file.
+     * @param path path of the file
+     * @return the Config
+     * @throws IOException if the file cannot be read
+     */
+    public static Config load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return new Config(properties);
+    }
+
+    /**
+     * @param key e.g. 'car.2.maxSpeed'
+     * @param value the new value
+     * @return a copy of this Config with the changed value
+     */
+    public Config with(String key, String value) {
+        Properties changed = new Properties();
+        changed.putAll(properties);
+        changed.setProperty(key, value);
+        return new Config(changed);
+    }
+
+    /**
+     * @param override like 'floors=80'
+     * @return a copy of this Config with the changed value
+     */
+    public Config with(String override) {
+        String[] keyValue = override.split("=", 2);
+        if (keyValue.length != 2) {
+            throw new IllegalArgumentException("Expected key=value: " + override);
+        }
+        return with(keyValue[0].trim(), keyValue[1].trim());
+    }
+
+    private CarConfig createCar(int car, int numberOfCars) {
+        BitSet floors;
+        if (properties.getProperty("car." + car + ".floors") == null && zoneTops.length > 1) {
+            floors = getZoneFloors((car - 1) * zoneTops.length / numberOfCars);
+        } else {
+            floors = parseFloors(getCarValue(car, "floors"), car);
+        }
+        return new CarConfig(
+                getCarDouble(car, "maxSpeed", ElevatorConstants.MAX_SPEED),
+                getCarDouble(car, "acceleration", ElevatorConstants.ACCELERATION),
+                getCarDouble(car, "waitingTime", ElevatorConstants.WAITING_TIME),
+                getCarDouble(car, "boardingTime", ElevatorConstants.BOARDING_TIME),
+                getCarInt(car, "capacity", ElevatorConstants.CAPACITY),
+                floors,
+                getCarBoolean(car, "collective"));
+    }
+
+    /**
+     * @param numberOfCars number of elevators (each zone needs at least one)
+     * @return highest floor of each zone (the last one is the top floor), empty without zones
+     */
+    private int[] parseZones(int numberOfCars) {
+        String value = properties.getProperty(KEY_ZONES);
+        if (value == null || value.isBlank()) return new int[0];
+        String[] parts = value.split(",");
+        int[] tops = new int[parts.length + 1];
+        for (int i = 0; i < parts.length; i++) {
+            tops[i] = parseInt(KEY_ZONES, parts[i]);
+            if (tops[i] < (i == 0 ? 1 : tops[i - 1] + 1) || tops[i] >= numberOfFloors) {
+                throw new IllegalArgumentException("Zones have to be ascending floors between 1 and " + (numberOfFloors - 1) + ": " + value);
+            }
+        }
+        tops[parts.length] = numberOfFloors;
+        if (tops.length > numberOfCars) {
+            throw new IllegalArgumentException(tops.length + " zones need at least as many elevators: " + numberOfCars);
+        }
+        return tops;
+    }
+
+    /**
+     * @param zone index of the zone (from 0)
+     * @return floor 0 and the floors of the zone
+     */
+    private BitSet getZoneFloors(int zone) {
+        BitSet floors = new BitSet(numberOfFloors + 1);
+        floors.set(0);
+        floors.set(zone == 0 ? 1 : zoneTops[zone - 1] + 1, zoneTops[zone] + 1);
+        return floors;
+    }
+
+    /**
+     * @param car number of the car (from 1)
+     * @param name e.g. 'maxSpeed'
+     * @return the value of 'car.#.name', else of 'car.name', else null
+     */
+    private String getCarValue(int car, String name) {
+        String value = properties.getProperty("car." + car + "." + name);
+        return value != null ? value : properties.getProperty("car." + name);
+    }
+
+    private double getCarDouble(int car, String name, double defaultValue) {
+        String value = getCarValue(car, name);
+        return value == null ? defaultValue : parseDouble("car " + car + " " + name, value);
+    }
+
+    private int getCarInt(int car, String name, int defaultValue) {
+        String value = getCarValue(car, name);
+        return value == null ? defaultValue : parseInt("car " + car + " " + name, value);
+    }
+
+    private boolean getCarBoolean(int car, String name) {
+        return parseBoolean("car " + car + " " + name, getCarValue(car, name));
+    }
+
+    private static boolean parseBoolean(String name, String value) {
+        if (value == null || value.trim().equalsIgnoreCase("false")) return false;
+        if (value.trim().equalsIgnoreCase("true")) return true;
+        throw new IllegalArgumentException(name + " has to be true or false: " + value);
+    }
+
+    /**
+     * @param value like '0,30-55' or 'all'
+     * @param car number of the car (from 1)
+     * @return the served floors, null for all
+     */
+    private BitSet parseFloors(String value, int car) {
+        if (value == null || value.equalsIgnoreCase("all")) return null;
+        BitSet floors = new BitSet(numberOfFloors + 1);
+        for (String part : value.split(",")) {
+            String[] range = part.trim().split("-", 2);
+            int from = parseInt("car " + car + " floors", range[0]);
+            int to = range.length == 2 ? parseInt("car " + car + " floors", range[1]) : from;
+            if (from < 0 || to > numberOfFloors || from > to) {
+                throw new IllegalArgumentException("Invalid floors of car " + car + ": " + part);
+            }
+            floors.set(from, to + 1);
+        }
+        return floors;
+    }
+
+    private int getInt(String key, int defaultValue, int min) {
+        String value = properties.getProperty(key);
+        int result = value == null ? defaultValue : parseInt(key, value);
+        if (result < min) {
+            throw new IllegalArgumentException(key + " has to be at least " + min + ": " + result);
+        }
+        return result;
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : parseDouble(key, value);
+    }
+
+    private static double parseDouble(String name, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is no number: " + value);
+        }
+    }
+
+    /**
+     * Parses a count or a floor, so e.g. '7.9' is rejected instead of cut to 7.
+     */
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is no whole number: " + value);
+        }
+    }
+
+    public int getNumberOfFloors() {
+        return numberOfFloors;
+    }
+
+    /**
+     * @return floor height in m
+     */
+    public double getFloorHeight() {
+        return floorHeight;
+    }
+
+    public int getNumberOfElevators() {
+        return cars.size();
+    }
+
+    public List<CarConfig> getCars() {
+        return cars;
+    }
+
+    /**
+     * @return if at least one car does not serve all floors
+     */
+    public boolean hasZones() {
+        return cars.stream().anyMatch(car -> !car.servesAllFloors());
+    }
+
+    /**
+     * @return number of zones, 1 without zones (cars with own floors do not count)
+     */
+    public int getNumberOfZones() {
+        return Math.max(1, zoneTops.length);
+    }
+
+    public int getIntakeCapacity() {
+        return intakeCapacity;
+    }
+
+    public int getFixedUpdatesPerSecond() {
+        return fixedUpdatesPerSecond;
+    }
+
+    /**
+     * @return time of one fixedUpdate in seconds
+     */
+    public double getFixedDeltaTime() {
+        return 1d / fixedUpdatesPerSecond;
+    }
+
+    public int getFramesPerSecond() {
+        return framesPerSecond;
+    }
+
+    public int getStatusUpdatesPerSecond() {
+        return statusUpdatesPerSecond;
+    }
+
+    /**
+     * @return if idle cars are parked at the floors, where the next calls are expected
+     */
+    public boolean isParking() {
+        return parking;
+    }
+
+    /**
+     * @return the given values (not the defaults), sorted by key like 'car.1.maxSpeed=10, floors=80'
+     */
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ");
+        new TreeSet<>(properties.stringPropertyNames()).forEach(key -> joiner.add(key + "=" + properties.getProperty(key)));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package project.config;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Keys of the Config
+ */
+public class ConfigConstants {
+    public static final String KEY_FLOORS = "floors";
+    public static final String KEY_FLOOR_HEIGHT = "floorHeight";
+    public static final String KEY_ELEVATORS = "elevators";
+    public static final String KEY_INTAKE_CAPACITY = "intakeCapacity";
+    public static final String KEY_FIXED_UPDATES_PER_SECOND = "fixedUpdatesPerSecond";
+    public static final String KEY_FRAMES_PER_SECOND = "framesPerSecond";
+    public static final String KEY_STATUS_UPDATES_PER_SECOND = "statusUpdatesPerSecond";
+    public static final String KEY_ZONES = "zones"; // highest floor of each zone but the last, like '18,36'
+    public static final String KEY_PARKING = "parking"; // true: idle cars are parked where calls are expected
+    static final Set<String> KEYS = Set.of(KEY_FLOORS, KEY_FLOOR_HEIGHT, KEY_ELEVATORS, KEY_INTAKE_CAPACITY,
+            KEY_FIXED_UPDATES_PER_SECOND, KEY_FRAMES_PER_SECOND, KEY_STATUS_UPDATES_PER_SECOND, KEY_ZONES, KEY_PARKING);
+    static final Pattern CAR_KEY = Pattern.compile("car\\.(?:([1-9][0-9]*)\\.)?(maxSpeed|acceleration|waitingTime|boardingTime|capacity|floors|collective)");
+}
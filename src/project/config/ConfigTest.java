@@ -0,0 +1,160 @@
+package project.config;
+
+import org.junit.jupiter.api.Test;
+import project.dispatch.BatchDispatchStrategy;
+import project.dispatch.DestinationDispatchStrategy;
+import project.dispatch.GreedyDispatchStrategy;
+import project.dispatch.DispatchStrategy;
+import project.elevator.Elevator;
+import project.elevator.ElevatorConstants;
+import project.simulation.Simulation;
+import project.tower.Tower;
+import project.tower.TowerConstants;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the Config and a Tower built from it
+ */
+public class ConfigTest {
+
+    @Test
+    void default_hasValuesOfConstants() {
+        Config config = Config.DEFAULT;
+        assertEquals(TowerConstants.NUMBER_OF_FLOORS, config.getNumberOfFloors());
+        assertEquals(TowerConstants.FLOOR_HEIGHT, config.getFloorHeight());
+        assertEquals(TowerConstants.NUMBER_OF_ELEVATORS, config.getNumberOfElevators());
+        assertEquals(ElevatorConstants.MAX_SPEED, config.getCars().get(0).getMaxSpeed());
+        assertEquals(ElevatorConstants.CAPACITY, config.getCars().get(0).getCapacity());
+        assertFalse(config.hasZones());
+        assertFalse(config.isParking());
+        assertEquals("", config.toString());
+    }
+
+    @Test
+    void properties_carValuesOverrideValuesForAllCars() {
+        Properties properties = new Properties();
+        properties.setProperty("floors", "80");
+        properties.setProperty("elevators", "3");
+        properties.setProperty("car.maxSpeed", "6");
+        properties.setProperty("car.2.maxSpeed", "12");
+        properties.setProperty("car.3.floors", "0,40-80");
+        properties.setProperty("car.2.boardingTime", "1.5");
+        Config config = new Config(properties);
+
+        assertEquals(80, config.getNumberOfFloors());
+        assertEquals(6d, config.getCars().get(0).getMaxSpeed());
+        assertEquals(12d, config.getCars().get(1).getMaxSpeed());
+        assertEquals(6d, config.getCars().get(2).getMaxSpeed());
+        assertEquals(ElevatorConstants.BOARDING_TIME, config.getCars().get(0).getBoardingTime());
+        assertEquals(1.5, config.getCars().get(1).getBoardingTime());
+        assertEquals(1.5, config.getCars().get(1).createProfile(80, TowerConstants.FLOOR_HEIGHT).getBoardingTime());
+        assertTrue(config.hasZones());
+        CarConfig express = config.getCars().get(2);
+        assertTrue(express.serves(0));
+        assertFalse(express.serves(39));
+        assertTrue(express.serves(40));
+        assertTrue(express.serves(80));
+    }
+
+    @Test
+    void with_overridesOneValue() {
+        Config config = Config.DEFAULT.with("elevators=3").with("fixedUpdatesPerSecond", "50");
+        assertEquals(3, config.getNumberOfElevators());
+        assertEquals(0.02, config.getFixedDeltaTime(), 1e-12);
+        assertEquals(TowerConstants.NUMBER_OF_ELEVATORS, Config.DEFAULT.getNumberOfElevators()); // unchanged
+        assertEquals("elevators=3, fixedUpdatesPerSecond=50", config.toString());
+    }
+
+    @Test
+    void invalidValues_throwException() {
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("speed", "3"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("floors", "many"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("floorHeight", "0"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("car.8.capacity", "4")); // only 7 cars
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("car.1.floors", "0,50-60"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("elevators"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("car.collective", "yes"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("car.boardingTime", "-1"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("parking", "1"));
+    }
+
+    @Test
+    void fractionalCounts_throwException() {
+        for (String override : List.of("elevators=2.5", "floors=40.5", "car.capacity=7.9", "car.2.capacity=3.0",
+                "zones=20.5", "car.1.floors=0,10.5-20", "intakeCapacity=1e3")) {
+            var e = assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with(override));
+            assertTrue(e.getMessage().contains("is no whole number"), e.getMessage());
+        }
+        assertEquals(8, Config.DEFAULT.with("car.capacity", " 8 ").getCars().get(0).getCapacity());
+    }
+
+    @Test
+    void zones_splitCarsAndFloors() {
+        Config config = Config.DEFAULT.with("elevators=5").with("zones=20");
+        assertEquals(2, config.getNumberOfZones());
+        CarConfig low = config.getCars().get(0), high = config.getCars().get(4);
+        assertTrue(low.serves(0) && low.serves(1) && low.serves(20));
+        assertFalse(low.serves(21));
+        assertTrue(high.serves(0) && high.serves(21) && high.serves(55));
+        assertFalse(high.serves(20));
+        assertTrue(config.with("car.5.floors", "all").getCars().get(4).servesAllFloors()); // own floors win
+
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("zones", "30,20"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("zones", "55"));
+        assertThrows(IllegalArgumentException.class, () -> Config.DEFAULT.with("elevators=2").with("zones", "10,20"));
+    }
+
+    @Test
+    void tower_usesFloorsFloorHeightAndCars() {
+        Tower tower = new Tower(Config.DEFAULT.with("floors=10").with("floorHeight=3").with("elevators=2").with("car.2.capacity=4"));
+        assertEquals(10, tower.getNumberOfFloors());
+        assertEquals(2, tower.getElevators().size());
+        assertEquals(4, tower.getElevators().get(1).getCapacity());
+        assertFalse(tower.getElevators().get(1).isCollective());
+        assertTrue(new Tower(Config.DEFAULT.with("car.collective=true")).getElevators().get(6).isCollective());
+        assertFalse(tower.addRequest(0, 11));
+
+        Simulation simulation = Simulation.createHeadless(tower);
+        tower.addRequest(0, 10);
+        simulation.runFor(120);
+        Elevator elevator = tower.getElevators().get(0);
+        assertEquals(10, elevator.getCurrentFloor());
+        assertEquals(30d, elevator.getHeight(), 1e-9);
+    }
+
+    @Test
+    void zones_requestsOnlyGoToCarsServingBothFloors() {
+        Config config = Config.DEFAULT.with("elevators=2").with("car.1.floors=0,40-55");
+        for (DispatchStrategy strategy : List.of(new GreedyDispatchStrategy(), new DestinationDispatchStrategy(0d, 4), new BatchDispatchStrategy())) {
+            Tower tower = new Tower(config);
+            tower.setInterFloorRequestsAllowed(true);
+            tower.setDispatchStrategy(strategy);
+            Simulation simulation = Simulation.createHeadless(tower);
+            tower.addRequest(0, 50);
+            simulation.runFor(120); // the express car waits at floor 50 now
+            for (int floor = 41; floor <= 45; floor++) {
+                tower.addRequest(floor, 10); // nearest is the express car, but it does not stop at floor 10
+            }
+            simulation.runFor(1);
+            Elevator express = tower.getElevators().get(0);
+            assertEquals(50, express.getCurrentFloor());
+            assertTrue(express.getStatusText().endsWith("[]"), strategy.getClass().getSimpleName() + ": " + express.getStatusText());
+        }
+    }
+
+    @Test
+    void zones_towerRejectsRequestNoCarServes() {
+        Tower tower = new Tower(Config.DEFAULT.with("elevators=2").with("car.floors=0-20").with("car.2.floors=0,21-55"));
+        tower.setInterFloorRequestsAllowed(true);
+        assertTrue(tower.addRequest(0, 30));
+        assertTrue(tower.addRequest(5, 20));
+        assertFalse(tower.addRequest(10, 30));
+    }
+}
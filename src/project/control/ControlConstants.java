@@ -0,0 +1,25 @@
+package project.control;
+
+/**
+ * Constants for the control API (message types and sizes are the protocol, see ControlServer)
+ */
+public class ControlConstants {
+    public static final int DEFAULT_PORT = 7070;
+    public static final double STATE_INTERVAL = 0.1; // s of simulation time between two captured states (the fastest stream)
+    public static final int MAX_BATCH_SIZE = 1024; // Requests per message
+    public static final int READ_BUFFER_SIZE = 8192; // per connection, holds the largest message
+    public static final int WRITE_BUFFER_SIZE = 16384; // per connection (at least 2 states), states are dropped for clients, which do not read
+    public static final int ACCEPT_BACKLOG = 1024; // connections waiting to be accepted
+
+    // message types
+    public static final byte REQUESTS = 'R';  // client: count (short), then origin and destination floor (shorts) of each Request
+    public static final byte SUBSCRIBE = 'S'; // client: interval in s of simulation time (float), 0 unsubscribes
+    public static final byte ACK = 'A';       // server: accepted and rejected Requests of one REQUESTS message (shorts)
+    public static final byte STATE = 'T';     // server: a StateFrame
+
+    // Calculated
+    public static final int REQUESTS_HEADER_SIZE = 3;
+    public static final int REQUEST_SIZE = 4;
+    public static final int SUBSCRIBE_SIZE = 5;
+    public static final int ACK_SIZE = 5;
+}
@@ -0,0 +1,351 @@
+package project.control;
+
+import project.config.Config;
+import project.metrics.Histogram;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static project.control.ControlConstants.*;
+
+/**
+ * Load generator for the ControlServer: many call panels on one loopback connection each, all driven by one Selector,
+ * which send batches of Requests at a fixed rate (each panel waits for the ACK of its last batch), and subscribers,
+ * which stream the elevator states.<br>
+ * Without a port it starts its own Tower, ControlServer and real time Simulation (without View) in this process,
+ * so it also shows, if the Simulation thread stays on time under the load.
+ */
+public class ControlLoadGenerator {
+    private final Panel[] panels;
+    private final Selector selector;
+    private final int batchSize, numberOfFloors;
+    private final long periodNanos;
+    private final SplittableRandom random = new SplittableRandom(1);
+    private final Histogram ackLatencies = new Histogram(); // recorded in ms, so the buckets of the Histogram are us (microseconds)
+    private long sentBatches, ackedBatches, acceptedRequests, rejectedRequests, receivedStates;
+
+    /**
+     * Connects all panels (blocking), then switches them to non-blocking.
+     * @param address of the ControlServer
+     * @param numberOfPanels connections sending Requests
+     * @param numberOfSubscribers of them also subscribe to the elevator states
+     * @param stateInterval of the subscriptions in s of simulation time
+     * @param rate batches per panel and second
+     * @param batchSize Requests per batch
+     * @param numberOfFloors highest floor of the Tower
+     * @throws IOException if a connection fails
+     */
+    public ControlLoadGenerator(InetSocketAddress address, int numberOfPanels, int numberOfSubscribers, double stateInterval,
+                                double rate, int batchSize, int numberOfFloors) throws IOException {
+        if (numberOfPanels < 1 || rate <= 0d || batchSize < 1 || batchSize > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Panels and rate have to be positive, the batch size between 1 and " + MAX_BATCH_SIZE + "!");
+        }
+        this.batchSize = batchSize;
+        this.numberOfFloors = numberOfFloors;
+        periodNanos = (long) (1e9 / rate);
+        selector = Selector.open();
+        panels = new Panel[numberOfPanels];
+        int frameBufferSize = READ_BUFFER_SIZE + WRITE_BUFFER_SIZE;
+        for (int i = 0; i < numberOfPanels; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            Panel panel = new Panel(channel, REQUESTS_HEADER_SIZE + batchSize * REQUEST_SIZE, frameBufferSize);
+            panel.key = channel.register(selector, SelectionKey.OP_READ, panel);
+            if (i < numberOfSubscribers) {
+                panel.out.put(SUBSCRIBE).putFloat((float) stateInterval);
+                flush(panel);
+            }
+            panels[i] = panel;
+        }
+    }
+
+    /**
+     * Control load generator entry point.
+     * @param args 'port=#PORT' of a running ControlServer (else one is started in this process), 'floors=#FLOORS' of its Tower,
+     *             'panels=#CONNECTIONS', 'rate=#BATCHES_PER_PANEL_AND_SECOND', 'batch=#REQUESTS', 'duration=#SECONDS',
+     *             'subscribers=#CONNECTIONS' also streaming the states, 'interval=#SECONDS' between two states
+     * @throws IOException if the server cannot be started or connected
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                System.out.println("Expected key=value: " + arg);
+                return;
+            }
+            options.put(keyValue[0], keyValue[1]);
+        }
+        double duration = Double.parseDouble(options.getOrDefault("duration", "10"));
+        int numberOfPanels = Integer.parseInt(options.getOrDefault("panels", "1000"));
+        int numberOfSubscribers = Integer.parseInt(options.getOrDefault("subscribers", "10"));
+        double stateInterval = Double.parseDouble(options.getOrDefault("interval", "0.5"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "1"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch", "1"));
+
+        Tower tower = null;
+        ControlServer server = null;
+        RealTimeRunner runner = null;
+        int port, numberOfFloors;
+        if (options.containsKey("port")) {
+            port = Integer.parseInt(options.get("port"));
+            numberOfFloors = Integer.parseInt(options.getOrDefault("floors", String.valueOf(Config.DEFAULT.getNumberOfFloors())));
+        } else {
+            tower = new Tower();
+            numberOfFloors = tower.getNumberOfFloors();
+            server = new ControlServer(tower, 0);
+            server.start();
+            port = server.getPort();
+            Simulation simulation = Simulation.createHeadless(tower);
+            simulation.setStateListener(STATE_INTERVAL, server::publishState);
+            runner = new RealTimeRunner(simulation);
+            runner.start();
+        }
+        var generator = new ControlLoadGenerator(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                numberOfPanels, numberOfSubscribers, stateInterval, rate, batchSize, numberOfFloors);
+        long startTime = System.nanoTime();
+        generator.run(duration);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        generator.close();
+        System.out.println(generator.getSummary(seconds));
+        if (server != null) {
+            runner.stop();
+            System.out.printf("Server: %d accepted, %d rejected, %d states dropped, %d pending in the Tower%n",
+                    server.getAcceptedRequests(), server.getRejectedRequests(), server.getDroppedStates(), tower.getPendingRequests());
+            System.out.println(runner);
+            server.close();
+        }
+    }
+
+    /**
+     * Sends batches for the given time, then waits (at most 1 s) for the outstanding ACKs.
+     * @param duration real time in seconds
+     * @throws IOException if a connection fails
+     */
+    public void run(double duration) throws IOException {
+        long startTime = System.nanoTime(), endTime = startTime + (long) (duration * 1e9);
+        for (int i = 0; i < panels.length; i++) { // spread over the first period, so the panels do not send at once
+            panels[i].nextSendTime = startTime + periodNanos * i / panels.length;
+        }
+        long now;
+        while ((now = System.nanoTime()) < endTime) {
+            long nextSendTime = endTime;
+            for (Panel panel : panels) {
+                if (panel.sentTime == 0L && panel.nextSendTime <= now) {
+                    sendBatch(panel, now);
+                }
+                if (panel.sentTime == 0L) {
+                    nextSendTime = Math.min(nextSendTime, panel.nextSendTime);
+                }
+            }
+            long timeoutMillis = Math.max(1L, (nextSendTime - System.nanoTime()) / 1_000_000L);
+            select(timeoutMillis);
+        }
+        long drainEndTime = System.nanoTime() + 1_000_000_000L;
+        while (ackedBatches < sentBatches && System.nanoTime() < drainEndTime) {
+            select(10L);
+        }
+    }
+
+    private void sendBatch(Panel panel, long now) throws IOException {
+        ByteBuffer out = panel.out;
+        out.put(REQUESTS).putShort((short) batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            int floor = 1 + random.nextInt(numberOfFloors);
+            if (random.nextBoolean()) {
+                out.putShort((short) 0).putShort((short) floor);
+            } else {
+                out.putShort((short) floor).putShort((short) 0);
+            }
+        }
+        panel.sentTime = now;
+        panel.nextSendTime += periodNanos;
+        if (panel.nextSendTime < now) { // late (the last ACK took longer than a period), so do not catch up
+            panel.nextSendTime = now + periodNanos;
+        }
+        sentBatches++;
+        flush(panel);
+    }
+
+    private void select(long timeoutMillis) throws IOException {
+        selector.select(timeoutMillis);
+        for (SelectionKey key : selector.selectedKeys()) {
+            Panel panel = (Panel) key.attachment();
+            if (!key.isValid()) continue;
+            if (key.isWritable()) {
+                flush(panel);
+            }
+            if (key.isReadable()) {
+                if (panel.channel.read(panel.in) < 0) {
+                    throw new IOException("Connection closed by the server");
+                }
+                readMessages(panel);
+            }
+        }
+        selector.selectedKeys().clear();
+    }
+
+    /**
+     * Reads the complete ACKs and StateFrames of a panel.
+     */
+    private void readMessages(Panel panel) throws IOException {
+        ByteBuffer in = panel.in;
+        in.flip();
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte type = in.get(start);
+            if (type == ACK) {
+                if (in.remaining() < ACK_SIZE) break;
+                acceptedRequests += in.getShort(start + 1) & 0xFFFF;
+                rejectedRequests += in.getShort(start + 3) & 0xFFFF;
+                in.position(start + ACK_SIZE);
+                ackLatencies.record((System.nanoTime() - panel.sentTime) / 1e6);
+                panel.sentTime = 0L;
+                ackedBatches++;
+            } else if (type == STATE) {
+                if (in.remaining() < StateFrame.HEADER_SIZE) break;
+                int size = StateFrame.getEncodedSize(in.getShort(start + StateFrame.HEADER_SIZE - 2) & 0xFFFF);
+                if (in.remaining() < size) break;
+                in.position(start + size);
+                receivedStates++;
+            } else {
+                throw new IOException("Unknown message type " + type);
+            }
+        }
+        in.compact();
+    }
+
+    private static void flush(Panel panel) throws IOException {
+        ByteBuffer out = panel.out;
+        out.flip();
+        panel.channel.write(out);
+        out.compact();
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (panel.key != null && panel.key.interestOps() != ops) {
+            panel.key.interestOps(ops);
+        }
+    }
+
+    /**
+     * Closes all connections.
+     * @throws IOException if closing fails
+     */
+    public void close() throws IOException {
+        for (Panel panel : panels) {
+            panel.channel.close();
+        }
+        selector.close();
+    }
+
+    /**
+     * @param seconds real time the run took
+     * @return batches, Requests, ACK latencies and states received
+     */
+    public String getSummary(double seconds) {
+        return String.format("Panels: %d, batches: %d sent, %d acked (%.0f Requests/s), Requests: %d accepted, %d rejected%n"
+                        + "ACK latency in ms: mean %.3f, p50 %.3f, p99 %.3f, max %.3f, states received: %d",
+                panels.length, sentBatches, ackedBatches, (acceptedRequests + rejectedRequests) / seconds,
+                acceptedRequests, rejectedRequests, ackLatencies.getMean(), ackLatencies.getValueAtPercentile(50d),
+                ackLatencies.getValueAtPercentile(99d), ackLatencies.getMax(), receivedStates);
+    }
+
+    public long getSentBatches() {
+        return sentBatches;
+    }
+
+    public long getAckedBatches() {
+        return ackedBatches;
+    }
+
+    public long getAcceptedRequests() {
+        return acceptedRequests;
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests;
+    }
+
+    public long getReceivedStates() {
+        return receivedStates;
+    }
+
+    /**
+     * A call panel: one connection with at most one batch waiting for its ACK.
+     */
+    private static class Panel {
+        private final SocketChannel channel;
+        private final ByteBuffer out, in;
+        private SelectionKey key;
+        private long nextSendTime, sentTime; // ns, sentTime is 0 if no ACK is outstanding
+
+        private Panel(SocketChannel channel, int batchBufferSize, int readBufferSize) {
+            this.channel = channel;
+            out = ByteBuffer.allocate(Math.max(batchBufferSize, SUBSCRIBE_SIZE) + SUBSCRIBE_SIZE);
+            in = ByteBuffer.allocate(readBufferSize);
+        }
+    }
+
+    /**
+     * Runs the fixedUpdates of a headless Simulation in real time on its own thread
+     * and measures, how late they are (e.g. because the ControlServer took the cores).
+     */
+    private static class RealTimeRunner implements Runnable {
+        private final Simulation simulation;
+        private final Histogram lateness = new Histogram(); // recorded in ms, so the buckets of the Histogram are us (microseconds)
+        private volatile boolean running;
+        private Thread thread;
+
+        private RealTimeRunner(Simulation simulation) {
+            this.simulation = simulation;
+        }
+
+        private void start() {
+            running = true;
+            thread = new Thread(this, "simulation");
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            long stepNanos = (long) (simulation.getTower().getClock().getFixedDeltaTime() * 1e9);
+            long nextUpdateTime = System.nanoTime();
+            while (running) {
+                long now = System.nanoTime();
+                if (now < nextUpdateTime) {
+                    LockSupport.parkNanos(nextUpdateTime - now);
+                    continue;
+                }
+                lateness.record((now - nextUpdateTime) / 1e6);
+                simulation.fixedUpdate();
+                nextUpdateTime += stepNanos;
+            }
+        }
+
+        private void stop() {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Simulation: %d fixedUpdates, lateness in ms: mean %.3f, p99 %.3f, max %.3f",
+                    lateness.getCount(), lateness.getMean(), lateness.getValueAtPercentile(99d), lateness.getMax());
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package project.control;
+
+import project.tower.Tower;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static project.control.ControlConstants.*;
+
+/**
+ * Local control API: a non-blocking socket server on its own thread (one Selector for all connections),
+ * so thousands of call panels can add Requests and watch the elevators without touching the Simulation thread.<br>
+ * Protocol (binary, big-endian): a client sends REQUESTS messages with a batch of Requests, which are passed to
+ * Tower.addRequest (lock-free), and gets an ACK with the number of accepted and rejected ones for each.
+ * A SUBSCRIBE message starts a stream of StateFrames at the given interval (in simulation time).
+ * The Simulation thread only copies the states into a StateFrame (see publishState) and hands it over;
+ * encoding and writing is done here. Clients, which do not read, get no more ACKs (their Requests wait in the socket)
+ * and miss StateFrames, instead of filling the memory.
+ */
+public class ControlServer implements Runnable, Closeable {
+    private final Tower tower;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final List<Connection> connections = new ArrayList<>();
+    private final AtomicReference<StateFrame> latestFrame = new AtomicReference<>(); // captured, not yet sent
+    private final AtomicReference<StateFrame> spareFrame = new AtomicReference<>();  // sent, can be filled again
+    private final ByteBuffer frameBuffer;
+    private final int frameSize;
+    private volatile boolean running;
+    private volatile long acceptedRequests, rejectedRequests, droppedStates;
+    private volatile int numberOfConnections;
+    private Thread thread;
+
+    /**
+     * Opens the server on the loopback address.
+     * @param tower the Tower getting the Requests
+     * @param port the port, 0 for any free one
+     * @throws IOException if the port cannot be bound
+     */
+    public ControlServer(Tower tower, int port) throws IOException {
+        this(tower, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * @param tower the Tower getting the Requests
+     * @param address where the server listens
+     * @throws IOException if the address cannot be bound
+     */
+    public ControlServer(Tower tower, InetSocketAddress address) throws IOException {
+        this.tower = tower;
+        frameSize = StateFrame.getEncodedSize(tower.getElevators().size());
+        frameBuffer = ByteBuffer.allocate(frameSize);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, ACCEPT_BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the server thread (a daemon, so it does not keep the application running).
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "control-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Copies the elevator states and hands them over to the server thread.<br>
+     * Has to be called on the Simulation thread (see Simulation.setStateListener), does not allocate, once two frames exist.
+     * If the server did not send the last frame yet, it is replaced.
+     * @param tower the Tower of this server
+     */
+    public void publishState(Tower tower) {
+        StateFrame frame = spareFrame.getAndSet(null);
+        if (frame == null) {
+            frame = new StateFrame(tower.getElevators().size());
+        }
+        frame.capture(tower);
+        StateFrame replaced = latestFrame.getAndSet(frame);
+        if (replaced != null) {
+            spareFrame.set(replaced);
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * The server loop: sends new StateFrames, accepts connections and reads and writes the ready ones.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                sendLatestFrame();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        handle((Connection) key.attachment(), key);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) System.out.println("Control server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel, Math.max(WRITE_BUFFER_SIZE, 2 * frameSize));
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connections.add(connection);
+            numberOfConnections = connections.size();
+        }
+    }
+
+    /**
+     * Reads and writes a ready connection, and closes it, if the client is gone or breaks the protocol.
+     */
+    private void handle(Connection connection, SelectionKey key) {
+        try {
+            if (key.isWritable()) {
+                flush(connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                if (connection.channel.read(connection.in) < 0) {
+                    closeConnection(connection);
+                    return;
+                }
+                processMessages(connection);
+                flush(connection);
+            }
+        } catch (IOException e) { // also ProtocolException
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * Processes all complete messages in the read buffer.
+     * Stops reading from the connection, if there is no room for the next ACK (until the client read the others).
+     * @param connection the connection
+     * @throws ProtocolException for an unknown message type or a too large batch
+     */
+    private void processMessages(Connection connection) throws ProtocolException {
+        ByteBuffer in = connection.in, out = connection.out;
+        in.flip();
+        boolean paused = false;
+        while (in.hasRemaining()) {
+            int start = in.position();
+            byte type = in.get(start);
+            if (type == REQUESTS) {
+                if (in.remaining() < REQUESTS_HEADER_SIZE) break;
+                int count = in.getShort(start + 1) & 0xFFFF;
+                if (count > MAX_BATCH_SIZE) {
+                    throw new ProtocolException("Batch of " + count + " Requests");
+                }
+                if (in.remaining() < REQUESTS_HEADER_SIZE + count * REQUEST_SIZE) break;
+                if (out.remaining() < ACK_SIZE) {
+                    paused = true;
+                    break;
+                }
+                in.position(start + REQUESTS_HEADER_SIZE);
+                addRequests(in, count, out);
+            } else if (type == SUBSCRIBE) {
+                if (in.remaining() < SUBSCRIBE_SIZE) break;
+                in.position(start + 1);
+                connection.stateInterval = in.getFloat();
+                connection.nextStateTime = 0d;
+            } else {
+                throw new ProtocolException("Unknown message type " + type);
+            }
+        }
+        in.compact();
+        setInterest(connection, SelectionKey.OP_READ, !paused);
+    }
+
+    /**
+     * Adds a batch of Requests to the Tower and puts the ACK.
+     */
+    private void addRequests(ByteBuffer in, int count, ByteBuffer out) {
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            int originFloor = in.getShort(), destinationFloor = in.getShort();
+            try {
+                if (tower.addRequest(originFloor, destinationFloor)) accepted++;
+            } catch (IllegalStateException e) { // the intake is full (OverflowPolicy.REJECT)
+            }
+        }
+        out.put(ACK).putShort((short) accepted).putShort((short) (count - accepted));
+        acceptedRequests += accepted;
+        rejectedRequests += count - accepted;
+    }
+
+    /**
+     * Encodes the latest StateFrame once and copies it to every subscriber, whose interval is over.
+     */
+    private void sendLatestFrame() {
+        StateFrame frame = latestFrame.getAndSet(null);
+        if (frame == null) return;
+        frameBuffer.clear();
+        frame.encode(frameBuffer);
+        double time = frame.getTime();
+        spareFrame.set(frame);
+        for (int i = 0; i < connections.size(); i++) {
+            Connection connection = connections.get(i);
+            if (connection.stateInterval <= 0f || time < connection.nextStateTime) continue;
+            connection.nextStateTime = time + connection.stateInterval - STATE_INTERVAL / 2; // frames are captured every STATE_INTERVAL
+            if (connection.out.remaining() < frameSize) {
+                droppedStates++;
+                continue;
+            }
+            connection.out.put(frameBuffer.array(), 0, frameSize);
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                closeConnection(connection);
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Writes as much of the write buffer as the socket takes, and waits for OP_WRITE, if something is left.
+     * Continues reading, if reading was paused for a full write buffer.
+     * @param connection the connection
+     * @throws IOException if the client is gone
+     */
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        if (out.position() == 0) return;
+        out.flip();
+        connection.channel.write(out);
+        out.compact();
+        setInterest(connection, SelectionKey.OP_WRITE, out.position() > 0);
+        if ((connection.key.interestOps() & SelectionKey.OP_READ) == 0 && out.remaining() >= ACK_SIZE) {
+            processMessages(connection);
+        }
+    }
+
+    private static void setInterest(Connection connection, int operation, boolean interested) {
+        int ops = connection.key.interestOps();
+        int newOps = interested ? ops | operation : ops & ~operation;
+        if (newOps != ops) connection.key.interestOps(newOps);
+    }
+
+    private void closeConnection(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        connections.remove(connection);
+        numberOfConnections = connections.size();
+    }
+
+    /**
+     * Stops the server thread and closes all connections.
+     * @throws IOException if closing the server socket fails
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Connection connection : new ArrayList<>(connections)) {
+            closeConnection(connection);
+        }
+        serverChannel.close();
+        selector.close();
+    }
+
+    /**
+     * @return number of Requests passed to the Tower and accepted
+     */
+    public long getAcceptedRequests() {
+        return acceptedRequests;
+    }
+
+    /**
+     * @return number of Requests the Tower rejected (invalid floors or full intake)
+     */
+    public long getRejectedRequests() {
+        return rejectedRequests;
+    }
+
+    /**
+     * @return number of StateFrames not sent, because a client did not read the ones before
+     */
+    public long getDroppedStates() {
+        return droppedStates;
+    }
+
+    public int getNumberOfConnections() {
+        return numberOfConnections;
+    }
+
+    /**
+     * A client connection with its buffers and its subscription.
+     */
+    private static class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ByteBuffer out;
+        private SelectionKey key;
+        private float stateInterval; // s of simulation time, 0 if not subscribed
+        private double nextStateTime;
+
+        private Connection(SocketChannel channel, int writeBufferSize) {
+            this.channel = channel;
+            out = ByteBuffer.allocate(writeBufferSize);
+        }
+    }
+}
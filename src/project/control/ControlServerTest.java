@@ -0,0 +1,130 @@
+package project.control;
+
+import org.junit.jupiter.api.Test;
+import project.enums.Direction;
+import project.enums.Status;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static project.control.ControlConstants.*;
+
+/**
+ * Does some Tests for the ControlServer over loopback connections
+ */
+public class ControlServerTest {
+
+    @Test
+    void requests_areAddedAndAcked() throws IOException {
+        Tower tower = new Tower();
+        PrintStream systemOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ControlServer server = new ControlServer(tower, 0); SocketChannel client = connect(server)) {
+            System.setOut(new PrintStream(output));
+            server.start();
+            ByteBuffer batch = ByteBuffer.allocate(REQUESTS_HEADER_SIZE + 3 * REQUEST_SIZE);
+            batch.put(REQUESTS).putShort((short) 3)
+                    .putShort((short) 0).putShort((short) 10)
+                    .putShort((short) 20).putShort((short) 0)
+                    .putShort((short) 5).putShort((short) 6); // inter-floor Requests are not allowed
+            write(client, batch);
+
+            ByteBuffer ack = read(client, ACK_SIZE);
+            assertEquals(ACK, ack.get());
+            assertEquals(2, ack.getShort());
+            assertEquals(1, ack.getShort());
+            assertEquals(2, tower.getPendingRequests());
+            assertEquals(2, server.getAcceptedRequests());
+            assertEquals(1, server.getRejectedRequests());
+        } finally {
+            System.setOut(systemOut);
+        }
+        assertEquals("", output.toString(), "invalid Requests are rejected without printing");
+    }
+
+    @Test
+    void subscribe_streamsTheState() throws IOException {
+        Tower tower = new Tower();
+        try (ControlServer server = new ControlServer(tower, 0); SocketChannel client = connect(server)) {
+            server.start();
+            ByteBuffer messages = ByteBuffer.allocate(SUBSCRIBE_SIZE + REQUESTS_HEADER_SIZE + REQUEST_SIZE);
+            messages.put(SUBSCRIBE).putFloat(1f);
+            messages.put(REQUESTS).putShort((short) 1).putShort((short) 0).putShort((short) 30);
+            write(client, messages);
+            assertEquals(ACK, read(client, ACK_SIZE).get()); // so the subscription is processed
+            Simulation.createHeadless(tower).runFor(15d); // after the stop at floor 0
+            server.publishState(tower);
+
+            int numberOfElevators = tower.getElevators().size();
+            ByteBuffer state = read(client, StateFrame.getEncodedSize(numberOfElevators));
+            assertEquals(STATE, state.get());
+            StateFrame frame = StateFrame.decode(state);
+            assertEquals(tower.getClock().getTime(), frame.getTime(), 1e-9);
+            assertEquals(numberOfElevators, frame.getNumberOfElevators());
+            boolean moving = false;
+            for (int i = 0; i < numberOfElevators; i++) {
+                var elevator = tower.getElevators().get(i);
+                assertEquals((float) elevator.getHeight(), frame.getHeight(i));
+                assertEquals(elevator.getCurrentStatus(), frame.getStatus(i));
+                assertEquals(elevator.getCurrentDirection(), frame.getDirection(i));
+                assertEquals(elevator.getNextDestinationFloor(), frame.getNextDestinationFloor(i));
+                moving |= frame.getStatus(i) != Status.IDLE && frame.getDirection(i) == Direction.UP;
+            }
+            assertTrue(moving);
+        }
+    }
+
+    @Test
+    void unknownMessage_closesTheConnection() throws IOException {
+        Tower tower = new Tower();
+        try (ControlServer server = new ControlServer(tower, 0); SocketChannel client = connect(server)) {
+            server.start();
+            write(client, ByteBuffer.allocate(1).put((byte) 'X'));
+            assertEquals(-1, client.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    void loadGenerator_allBatchesAcked() throws IOException {
+        Tower tower = new Tower();
+        try (ControlServer server = new ControlServer(tower, 0)) {
+            server.start();
+            var generator = new ControlLoadGenerator(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()),
+                    200, 0, 0d, 20d, 4, tower.getNumberOfFloors());
+            generator.run(0.5);
+            generator.close();
+            assertTrue(generator.getSentBatches() > 200);
+            assertEquals(generator.getSentBatches(), generator.getAckedBatches());
+            assertEquals(4 * generator.getSentBatches(), generator.getAcceptedRequests());
+            assertEquals(0, generator.getRejectedRequests());
+            assertEquals(generator.getAcceptedRequests(), server.getAcceptedRequests());
+        }
+    }
+
+    private static SocketChannel connect(ControlServer server) throws IOException {
+        return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    private static void write(SocketChannel client, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    private static ByteBuffer read(SocketChannel client, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (client.read(buffer) < 0) throw new IOException("Connection closed");
+        }
+        return buffer.flip();
+    }
+}
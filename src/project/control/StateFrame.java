@@ -0,0 +1,127 @@
+package project.control;
+
+import project.elevator.Elevator;
+import project.enums.Direction;
+import project.enums.Status;
+import project.tower.Tower;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Copy of the elevator states at one simulation time in primitive arrays, so the Simulation thread can hand it over
+ * to the ControlServer, which encodes it on its own thread.<br>
+ * Encoded as STATE, the time (double) and the number of elevators (short), then for each elevator
+ * its height in m (float), status and direction (ordinal bytes), next destination floor and passengers (shorts).
+ */
+public class StateFrame {
+    public static final int HEADER_SIZE = 11;
+    public static final int ELEVATOR_SIZE = 10;
+    private static final Status[] STATUSES = Status.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private double time;
+    private final float[] heights;
+    private final byte[] statuses, directions;
+    private final short[] destinationFloors, passengers;
+
+    /**
+     * @param numberOfElevators of the Tower
+     */
+    public StateFrame(int numberOfElevators) {
+        heights = new float[numberOfElevators];
+        statuses = new byte[numberOfElevators];
+        directions = new byte[numberOfElevators];
+        destinationFloors = new short[numberOfElevators];
+        passengers = new short[numberOfElevators];
+    }
+
+    /**
+     * @param numberOfElevators of the Tower
+     * @return size of an encoded StateFrame in bytes
+     */
+    public static int getEncodedSize(int numberOfElevators) {
+        return HEADER_SIZE + numberOfElevators * ELEVATOR_SIZE;
+    }
+
+    /**
+     * Copies the states of the elevators (has to be called on the Simulation thread).
+     * @param tower the Tower with the same number of elevators
+     */
+    void capture(Tower tower) {
+        time = tower.getClock().getTime();
+        List<Elevator> elevators = tower.getElevators();
+        for (int i = 0; i < heights.length; i++) {
+            Elevator elevator = elevators.get(i);
+            heights[i] = (float) elevator.getHeight();
+            statuses[i] = (byte) elevator.getCurrentStatus().ordinal();
+            directions[i] = (byte) elevator.getCurrentDirection().ordinal();
+            destinationFloors[i] = (short) elevator.getNextDestinationFloor();
+            passengers[i] = (short) elevator.getNumberOfPassengers();
+        }
+    }
+
+    /**
+     * @param buffer with at least getEncodedSize bytes remaining
+     */
+    void encode(ByteBuffer buffer) {
+        buffer.put(ControlConstants.STATE).putDouble(time).putShort((short) heights.length);
+        for (int i = 0; i < heights.length; i++) {
+            buffer.putFloat(heights[i]).put(statuses[i]).put(directions[i]).putShort(destinationFloors[i]).putShort(passengers[i]);
+        }
+    }
+
+    /**
+     * Decodes a StateFrame (e.g. on the client side).
+     * @param buffer positioned after the STATE byte, with the whole frame remaining
+     * @return the StateFrame
+     */
+    public static StateFrame decode(ByteBuffer buffer) {
+        double time = buffer.getDouble();
+        StateFrame frame = new StateFrame(buffer.getShort() & 0xFFFF);
+        frame.time = time;
+        for (int i = 0; i < frame.heights.length; i++) {
+            frame.heights[i] = buffer.getFloat();
+            frame.statuses[i] = buffer.get();
+            frame.directions[i] = buffer.get();
+            frame.destinationFloors[i] = buffer.getShort();
+            frame.passengers[i] = buffer.getShort();
+        }
+        return frame;
+    }
+
+    /**
+     * @return simulation time of the states in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+
+    public int getNumberOfElevators() {
+        return heights.length;
+    }
+
+    /**
+     * @param elevator index
+     * @return height in m
+     */
+    public float getHeight(int elevator) {
+        return heights[elevator];
+    }
+
+    public Status getStatus(int elevator) {
+        return STATUSES[statuses[elevator]];
+    }
+
+    public Direction getDirection(int elevator) {
+        return DIRECTIONS[directions[elevator]];
+    }
+
+    public int getNextDestinationFloor(int elevator) {
+        return destinationFloors[elevator];
+    }
+
+    public int getNumberOfPassengers(int elevator) {
+        return passengers[elevator];
+    }
+}
@@ -0,0 +1,85 @@
+package project.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Solves the assignment problem (Hungarian method with potentials, O(n^2 * m)):
+ * assigns each of n rows to a different one of m columns (n <= m), so the sum of the costs is minimal.<br>
+ * Keeps its arrays for the next call, so solving a batch does not allocate anything, once the sizes are reached.
+ */
+class AssignmentSolver {
+    private double[] rowPotentials = new double[1], columnPotentials = new double[1], minima = new double[1];
+    private int[] rowOfColumn = new int[1], previousColumn = new int[1]; // 1-based, 0 is the virtual start column
+    private boolean[] used = new boolean[1];
+
+    /**
+     * @param costs cost of assigning a row (first index) to a column (second index), at least rows * columns
+     * @param rows number of rows (n)
+     * @param columns number of columns (m), has to be at least n
+     * @param assignment gets the column of each row, at least rows long
+     */
+    void solve(double[][] costs, int rows, int columns, int[] assignment) {
+        if (rows > columns) {
+            throw new IllegalArgumentException("More rows than columns: " + rows + " > " + columns);
+        }
+        ensureCapacity(rows, columns);
+        Arrays.fill(rowPotentials, 0, rows + 1, 0d);
+        Arrays.fill(columnPotentials, 0, columns + 1, 0d);
+        Arrays.fill(rowOfColumn, 0, columns + 1, 0);
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minima, 0, columns + 1, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, 0, columns + 1, false);
+            do { // search an augmenting path from the new row to a free column (Dijkstra on the reduced costs)
+                used[column] = true;
+                int currentRow = rowOfColumn[column], nextColumn = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= columns; j++) {
+                    if (used[j]) continue;
+                    double reducedCost = costs[currentRow - 1][j - 1] - rowPotentials[currentRow] - columnPotentials[j];
+                    if (reducedCost < minima[j]) {
+                        minima[j] = reducedCost;
+                        previousColumn[j] = column;
+                    }
+                    if (minima[j] < delta) {
+                        delta = minima[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (used[j]) {
+                        rowPotentials[rowOfColumn[j]] += delta;
+                        columnPotentials[j] -= delta;
+                    } else {
+                        minima[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+            do { // flip the path
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+        for (int j = 1; j <= columns; j++) {
+            if (rowOfColumn[j] != 0) {
+                assignment[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+    }
+
+    private void ensureCapacity(int rows, int columns) {
+        if (rowPotentials.length <= rows) {
+            rowPotentials = new double[rows + 1];
+        }
+        if (columnPotentials.length <= columns) {
+            columnPotentials = new double[columns + 1];
+            minima = new double[columns + 1];
+            rowOfColumn = new int[columns + 1];
+            previousColumn = new int[columns + 1];
+            used = new boolean[columns + 1];
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package project.dispatch;
+
+import project.elevator.Elevator;
+import project.elevator.Request;
+import project.tower.Tower;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static project.dispatch.DispatchConstants.*;
+
+/**
+ * Batch dispatch: collects the Requests of one update (or a short batching window)
+ * and assigns them jointly, so the first Request of a burst does not take the elevator a later one needs more.<br>
+ * The cost matrix holds the time each elevator needs to reach each origin floor, and the AssignmentSolver
+ * minimises the sum of these wait times. Every elevator gets at most one Request per round,
+ * so larger batches take a few rounds (with the times updated in between).
+ * An elevator gets at most as many passengers of a Request as it holds, the rest stays for the next round.
+ * Batches larger than maxBatchSize are dispatched greedily, so one update stays cheap.
+ * With zones only the candidates of the batch's Requests (see Tower.getCandidates) are columns of the matrix;
+ * the ones, which do not stop at both floors of a Request, get UNSERVABLE_COST for it and are never assigned to it.
+ */
+public class BatchDispatchStrategy implements DispatchStrategy {
+    private final double batchWindow;
+    private final int maxBatchSize;
+    private final List<Request> pendingRequests = new ArrayList<>();
+    private final AssignmentSolver solver = new AssignmentSolver();
+    private final List<Elevator> candidates = new ArrayList<>(); // of all Requests of the batch
+    private final BitSet isCandidate = new BitSet();
+    private double[][] costs = new double[0][0];
+    private int[] assignment = new int[0];
+    private double batchStartTime;
+    private long optimisedBatches, greedyBatches, solveNanos;
+
+    public BatchDispatchStrategy() {
+        this(BATCH_WINDOW, BATCH_MAX_SIZE);
+    }
+
+    /**
+     * @param batchWindow time in seconds, how long Requests are collected (0 for the Requests of one update)
+     * @param maxBatchSize larger batches are dispatched greedily
+     */
+    public BatchDispatchStrategy(double batchWindow, int maxBatchSize) {
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void dispatch(List<Request> requests, Tower tower) {
+        double time = tower.getClock().getTime();
+        if (pendingRequests.isEmpty()) {
+            batchStartTime = time;
+        }
+        pendingRequests.addAll(requests);
+        if (!pendingRequests.isEmpty() && time >= batchStartTime + batchWindow) {
+            dispatchBatch(tower);
+            pendingRequests.clear();
+        }
+    }
+
+    @Override
+    public double getNextDispatchTime() {
+        return pendingRequests.isEmpty() ? Double.POSITIVE_INFINITY : batchStartTime + batchWindow;
+    }
+
+    @Override
+    public List<Request> getPendingRequests() {
+        return Collections.unmodifiableList(pendingRequests);
+    }
+
+    @Override
+    public boolean restorePendingRequests(List<Request> requests, double nextDispatchTime) {
+        pendingRequests.addAll(requests);
+        batchStartTime = nextDispatchTime - batchWindow;
+        return true;
+    }
+
+    /**
+     * Passengers who can join an existing Request do so first (that is always the fastest),
+     * the rest gets assigned round by round.
+     * @param tower the Tower with the elevators
+     */
+    private void dispatchBatch(Tower tower) {
+        if (pendingRequests.size() > maxBatchSize) {
+            greedyBatches++;
+            dispatchGreedily(tower);
+            return;
+        }
+        long startTime = System.nanoTime();
+        optimisedBatches++;
+        List<Elevator> elevators = collectCandidates(tower);
+        while (true) {
+            pendingRequests.removeIf(request -> tryAddPassenger(request, tower.getCandidates(request)));
+            if (pendingRequests.isEmpty()) break;
+            if (!assignRound(elevators)) { // only elevators left, which can not serve the rest (zones)
+                dispatchGreedily(tower);
+                break;
+            }
+        }
+        solveNanos += System.nanoTime() - startTime;
+    }
+
+    private void dispatchGreedily(Tower tower) {
+        for (int i = 0; i < pendingRequests.size(); i++) {
+            Request request = pendingRequests.get(i);
+            GreedyDispatchStrategy.executeRequest(request, tower.getCandidates(request));
+        }
+    }
+
+    /**
+     * @param tower the Tower with the elevators
+     * @return all elevators without zones, else the elevators, which are a candidate for at least one pending Request
+     */
+    private List<Elevator> collectCandidates(Tower tower) {
+        if (!tower.isZoned()) return tower.getElevators();
+        candidates.clear();
+        isCandidate.clear();
+        for (int r = 0; r < pendingRequests.size(); r++) {
+            for (Elevator elevator : tower.getCandidates(pendingRequests.get(r))) {
+                if (!isCandidate.get(elevator.getIndex())) {
+                    isCandidate.set(elevator.getIndex());
+                    candidates.add(elevator);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Solves the assignment of the pending Requests to the elevators, adds the assigned ones and removes them.
+     * The smaller side are the rows, so either every Request or every elevator gets assigned
+     * (except pairs with UNSERVABLE_COST).
+     * @param elevators the candidates of the batch
+     * @return if at least one Request was assigned
+     */
+    private boolean assignRound(List<Elevator> elevators) {
+        int numberOfRequests = pendingRequests.size(), numberOfElevators = elevators.size();
+        boolean requestsAreRows = numberOfRequests <= numberOfElevators;
+        int rows = Math.min(numberOfRequests, numberOfElevators), columns = Math.max(numberOfRequests, numberOfElevators);
+        ensureCapacity(rows, columns);
+        for (int r = 0; r < numberOfRequests; r++) {
+            Request request = pendingRequests.get(r);
+            for (int e = 0; e < numberOfElevators; e++) {
+                Elevator elevator = elevators.get(e);
+                double time = elevator.canServe(request) ? elevator.calculateTimeToRequest(request) : UNSERVABLE_COST;
+                if (requestsAreRows) {
+                    costs[r][e] = time;
+                } else {
+                    costs[e][r] = time;
+                }
+            }
+        }
+        solver.solve(costs, rows, columns, assignment);
+        boolean assigned = false;
+        for (int row = 0; row < rows; row++) {
+            if (costs[row][assignment[row]] >= UNSERVABLE_COST) continue;
+            int r = requestsAreRows ? row : assignment[row];
+            int e = requestsAreRows ? assignment[row] : row;
+            Elevator elevator = elevators.get(e);
+            Request request = pendingRequests.get(r);
+            if (request.getNumberOfPassengers() > elevator.getCapacity()) {
+                elevator.addRequest(request.split(elevator.getCapacity())); // the rest stays pending
+            } else {
+                elevator.addRequest(request);
+                pendingRequests.set(r, null);
+            }
+            assigned = true;
+        }
+        pendingRequests.removeIf(Objects::isNull);
+        return assigned;
+    }
+
+    private static boolean tryAddPassenger(Request request, List<Elevator> candidates) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.get(i).tryAddPassenger(request)) return true;
+        }
+        return false;
+    }
+
+    private void ensureCapacity(int rows, int columns) {
+        if (costs.length < rows || costs[0].length < columns) {
+            costs = new double[Math.max(rows, costs.length)][Math.max(columns, costs.length == 0 ? 0 : costs[0].length)];
+        }
+        if (assignment.length < rows) {
+            assignment = new int[rows];
+        }
+    }
+
+    /**
+     * @return number of batches assigned by the AssignmentSolver
+     */
+    public long getOptimisedBatches() {
+        return optimisedBatches;
+    }
+
+    /**
+     * @return number of batches dispatched greedily, because they were larger than maxBatchSize
+     */
+    public long getGreedyBatches() {
+        return greedyBatches;
+    }
+
+    /**
+     * @return total time spent on the optimised batches in nanoseconds
+     */
+    public long getSolveNanos() {
+        return solveNanos;
+    }
+}
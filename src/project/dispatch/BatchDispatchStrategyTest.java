@@ -0,0 +1,73 @@
+package project.dispatch;
+
+import org.junit.jupiter.api.Test;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the BatchDispatchStrategy and the AssignmentSolver
+ */
+public class BatchDispatchStrategyTest {
+
+    @Test
+    void solve_findsMinimalAssignment() {
+        double[][] costs = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}};
+        int[] assignment = new int[3];
+        new AssignmentSolver().solve(costs, 3, 3, assignment);
+        assertArrayEquals(new int[]{1, 0, 2}, assignment); // 1 + 2 + 2, greedy by rows would take 1 + 2 + 5
+    }
+
+    @Test
+    void solve_lessRowsThanColumns() {
+        double[][] costs = {
+                {7, 5, 9, 1},
+                {8, 2, 6, 1}};
+        int[] assignment = new int[2];
+        new AssignmentSolver().solve(costs, 2, 4, assignment);
+        assertArrayEquals(new int[]{3, 1}, assignment);
+    }
+
+    @Test
+    void dispatch_assignsBurstJointly() {
+        Tower tower = new Tower(2);
+        Simulation simulation = Simulation.createHeadless(tower);
+        tower.addRequest(0, 5);
+        tower.addRequest(0, 20);
+        simulation.runFor(120); // elevator 1 waits at floor 5, elevator 2 at floor 20
+        assertEquals(5, tower.getElevators().get(0).getCurrentFloor());
+        assertEquals(20, tower.getElevators().get(1).getCurrentFloor());
+
+        BatchDispatchStrategy strategy = new BatchDispatchStrategy(0d, 32);
+        tower.setDispatchStrategy(strategy);
+        tower.addRequest(10, 0); // greedy would give it to elevator 1, so the next one has to wait for elevator 2
+        tower.addRequest(4, 0);
+        tower.update();
+        assertTrue(tower.getElevators().get(0).getStatusText().endsWith("[4-0 (1)]"));
+        assertTrue(tower.getElevators().get(1).getStatusText().endsWith("[10-0 (1)]"));
+        assertEquals(1, strategy.getOptimisedBatches());
+    }
+
+    @Test
+    void dispatch_largeBatchFallsBackToGreedy() {
+        Tower tower = new Tower(3);
+        BatchDispatchStrategy strategy = new BatchDispatchStrategy(0d, 2);
+        tower.setDispatchStrategy(strategy);
+        tower.addRequest(0, 10);
+        tower.addRequest(0, 20);
+        tower.addRequest(0, 30);
+        tower.update();
+        assertEquals(0, strategy.getOptimisedBatches());
+        assertEquals(1, strategy.getGreedyBatches());
+        for (var elevator : tower.getElevators()) {
+            assertFalse(elevator.getStatusText().endsWith("[]"), "every elevator got one of the Requests");
+        }
+    }
+}
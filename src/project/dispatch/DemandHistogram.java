@@ -0,0 +1,127 @@
+package project.dispatch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static project.dispatch.DispatchConstants.*;
+
+/**
+ * Learns, from which floors the calls come at which time of day: an online histogram of the origin floors
+ * for each slot of the day, whose counts decay with a half-life, so it follows changing traffic.<br>
+ * The counts of a slot are only decayed, when a call is recorded in it; reading scales them on the fly.
+ */
+public class DemandHistogram {
+    private final double slotLength, halfLife;
+    private final double[][] counts;        // [slot][floor]
+    private final double[] lastRecordTimes; // per slot: the time its counts are decayed to
+
+    /**
+     * Creates a histogram with DEMAND_SLOT_LENGTH and DEMAND_HALF_LIFE.
+     * @param numberOfFloors highest floor
+     */
+    public DemandHistogram(int numberOfFloors) {
+        this(numberOfFloors, DEMAND_SLOT_LENGTH, DEMAND_HALF_LIFE);
+    }
+
+    /**
+     * @param numberOfFloors highest floor
+     * @param slotLength time of day covered by one slot in seconds
+     * @param halfLife time in seconds, after which a recorded call counts half
+     */
+    public DemandHistogram(int numberOfFloors, double slotLength, double halfLife) {
+        if (slotLength <= 0d || slotLength > DAY_LENGTH || halfLife <= 0d) {
+            throw new IllegalArgumentException("Slot length has to be positive and at most a day, half-life has to be positive!");
+        }
+        this.slotLength = slotLength;
+        this.halfLife = halfLife;
+        int slots = (int) Math.ceil(DAY_LENGTH / slotLength);
+        counts = new double[slots][numberOfFloors + 1];
+        lastRecordTimes = new double[slots];
+    }
+
+    /**
+     * Records a call.
+     * @param floor origin floor of the Request
+     * @param time simulation time in seconds
+     */
+    public void record(int floor, double time) {
+        int slot = getSlot(time);
+        double decay = getDecay(slot, time);
+        if (decay < 1d) {
+            double[] row = counts[slot];
+            for (int f = 0; f < row.length; f++) {
+                row[f] *= decay;
+            }
+        }
+        lastRecordTimes[slot] = time;
+        counts[slot][floor]++;
+    }
+
+    /**
+     * @param floor a floor
+     * @param time simulation time in seconds
+     * @return decayed number of calls from the floor in the slot of the time and the ones before and after it
+     * (the recent calls of today and the coming ones of the days before)
+     */
+    public double getDemand(int floor, double time) {
+        int slot = getSlot(time), slots = counts.length;
+        double demand = 0d;
+        for (int s = slot - 1; s <= slot + 1; s++) {
+            int i = (s + slots) % slots;
+            demand += counts[i][floor] * getDecay(i, time);
+        }
+        return demand;
+    }
+
+    /**
+     * @return highest floor
+     */
+    public int getNumberOfFloors() {
+        return counts[0].length - 1;
+    }
+
+    /**
+     * Writes the counts and record times of all slots (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(counts.length);
+        out.writeInt(counts[0].length);
+        for (int slot = 0; slot < counts.length; slot++) {
+            out.writeDouble(lastRecordTimes[slot]);
+            for (double count : counts[slot]) {
+                out.writeDouble(count);
+            }
+        }
+    }
+
+    /**
+     * Replaces the counts and record times with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the histogram has another number of slots or floors
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int slots = in.readInt(), floors = in.readInt();
+        if (slots != counts.length || floors != counts[0].length) {
+            throw new IllegalArgumentException("The DemandHistogram has " + counts.length + " slots and " + counts[0].length
+                    + " floors, not " + slots + " and " + floors);
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            lastRecordTimes[slot] = in.readDouble();
+            for (int floor = 0; floor < floors; floor++) {
+                counts[slot][floor] = in.readDouble();
+            }
+        }
+    }
+
+    private int getSlot(double time) {
+        return Math.min((int) ((time % DAY_LENGTH) / slotLength), counts.length - 1);
+    }
+
+    private double getDecay(int slot, double time) {
+        return Math.pow(0.5d, Math.max(time - lastRecordTimes[slot], 0d) / halfLife);
+    }
+}
@@ -0,0 +1,161 @@
+package project.dispatch;
+
+import project.elevator.Elevator;
+import project.elevator.Request;
+import project.tower.Tower;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static project.dispatch.DispatchConstants.*;
+
+/**
+ * Destination dispatch: collects Requests over a short batching window,
+ * then groups passengers from the same floor going to nearby floors (up to the largest capacity of the cars serving them)
+ * and gives each group to the elevator which can reach the origin floor as fastest.
+ * Passengers, who do not fit into that car any more, are dispatched on their own.<br>
+ * Limitation: a sequential car serves one Request after the other, so it cannot drop a group at nearby floors.
+ * If the fastest car is sequential, a group only holds passengers with the same origin and destination floor,
+ * who share one trip (nearby destinations only share a trip in collective control).
+ */
+public class DestinationDispatchStrategy implements DispatchStrategy {
+    private static final Comparator<Request> BY_FLOORS = Comparator.comparingInt(Request::getOriginFloor)
+            .thenComparingInt(Request::getDestinationFloor);
+
+    private final double batchWindow;
+    private final int groupFloors;
+    private final List<Request> pendingRequests = new ArrayList<>();
+    private double batchStartTime;
+
+    public DestinationDispatchStrategy() {
+        this(DESTINATION_BATCH_WINDOW, DESTINATION_GROUP_FLOORS);
+    }
+
+    /**
+     * @param batchWindow time in seconds, how long Requests are collected before they are grouped
+     * @param groupFloors max. number of floors between the destinations of one group
+     */
+    public DestinationDispatchStrategy(double batchWindow, int groupFloors) {
+        this.batchWindow = batchWindow;
+        this.groupFloors = groupFloors;
+    }
+
+    @Override
+    public void dispatch(List<Request> requests, Tower tower) {
+        double time = tower.getClock().getTime();
+        if (pendingRequests.isEmpty()) {
+            batchStartTime = time;
+        }
+        pendingRequests.addAll(requests);
+        if (!pendingRequests.isEmpty() && time >= batchStartTime + batchWindow) {
+            dispatchGroups(tower);
+            pendingRequests.clear();
+        }
+    }
+
+    @Override
+    public double getNextDispatchTime() {
+        return pendingRequests.isEmpty() ? Double.POSITIVE_INFINITY : batchStartTime + batchWindow;
+    }
+
+    @Override
+    public List<Request> getPendingRequests() {
+        return Collections.unmodifiableList(pendingRequests);
+    }
+
+    @Override
+    public boolean restorePendingRequests(List<Request> requests, double nextDispatchTime) {
+        pendingRequests.addAll(requests);
+        batchStartTime = nextDispatchTime - batchWindow;
+        return true;
+    }
+
+    /**
+     * Sorts the pending Requests by floors, so groups are next to each other, and dispatches each group.
+     * @param tower the Tower with the elevators
+     */
+    private void dispatchGroups(Tower tower) {
+        pendingRequests.sort(BY_FLOORS);
+        int groupStart = 0;
+        while (groupStart < pendingRequests.size()) {
+            Request first = pendingRequests.get(groupStart);
+            Elevator fastestElevator = getFastestElevator(first, tower.getCandidates(first));
+            int maxFloors = fastestElevator != null && fastestElevator.isCollective() ? groupFloors : 0;
+            int capacity = getMaxCapacity(tower.getCandidates(first));
+            int groupEnd = groupStart + 1, groupPassengers = first.getNumberOfPassengers();
+            while (groupEnd < pendingRequests.size() && belongsToGroup(first, pendingRequests.get(groupEnd), maxFloors)
+                    && groupPassengers + pendingRequests.get(groupEnd).getNumberOfPassengers() <= capacity) {
+                groupPassengers += pendingRequests.get(groupEnd).getNumberOfPassengers();
+                groupEnd++;
+            }
+            dispatchGroup(groupStart, groupEnd, fastestElevator, tower);
+            groupStart = groupEnd;
+        }
+    }
+
+    /**
+     * @param request the first Request of a group
+     * @param candidates the elevators, which stop at both floors of the Request
+     * @return the elevator which reaches the origin floor as fastest, null without candidates
+     */
+    private static Elevator getFastestElevator(Request request, List<Elevator> candidates) {
+        Elevator fastestElevator = null;
+        double fastestTime = Double.MAX_VALUE;
+        for (var e : candidates) {
+            double time = e.calculateTimeToRequest(request);
+            if (time < fastestTime) {
+                fastestElevator = e;
+                fastestTime = time;
+            }
+        }
+        return fastestElevator;
+    }
+
+    private static int getMaxCapacity(List<Elevator> candidates) {
+        int capacity = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            capacity = Math.max(capacity, candidates.get(i).getCapacity());
+        }
+        return capacity;
+    }
+
+    /**
+     * @param maxFloors max. number of floors between the destinations (0 for sequential cars)
+     */
+    private static boolean belongsToGroup(Request first, Request request, int maxFloors) {
+        boolean sameDirection = (first.getDestinationFloor() > first.getOriginFloor()) == (request.getDestinationFloor() > request.getOriginFloor());
+        return request.getOriginFloor() == first.getOriginFloor() && sameDirection
+                && Math.abs(request.getDestinationFloor() - first.getDestinationFloor()) <= maxFloors;
+    }
+
+    /**
+     * Gives the whole group to the elevator which reaches the origin floor as fastest (and stops there).
+     * Passengers with the same destination share one Request,
+     * those whose destination the elevator does not serve or who do not fit any more are dispatched on their own.
+     * @param from index of the first Request of the group
+     * @param to index after the last Request of the group
+     * @param fastestElevator the elevator for the group, null if no elevator serves the first Request
+     * @param tower the Tower with the elevators
+     */
+    private void dispatchGroup(int from, int to, Elevator fastestElevator, Tower tower) {
+        int room = fastestElevator == null ? 0 : fastestElevator.getCapacity();
+        for (int i = from; i < to; i++) {
+            Request request = pendingRequests.get(i);
+            int passengers = request.getNumberOfPassengers();
+            if (fastestElevator == null || !fastestElevator.canServe(request) || room == 0) {
+                GreedyDispatchStrategy.executeRequest(request, tower.getCandidates(request));
+                continue;
+            }
+            Request part = passengers > room ? request.split(room) : request;
+            room -= part.getNumberOfPassengers();
+            if (!fastestElevator.tryAddPassenger(part)) {
+                fastestElevator.addRequest(part);
+            }
+            if (part != request) { // the rest did not fit
+                GreedyDispatchStrategy.executeRequest(request, tower.getCandidates(request));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package project.dispatch;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.config.ConfigConstants;
+import project.elevator.Request;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the DestinationDispatchStrategy
+ */
+public class DestinationDispatchStrategyTest {
+
+    @Test
+    void dispatch_groupsNearbyDestinationsAfterBatchWindow() {
+        Tower tower = new Tower(Config.DEFAULT.with(ConfigConstants.KEY_ELEVATORS, "3").with("car.collective", "true"));
+        addBatch(tower);
+        assertTrue(tower.getElevators().get(0).getStatusText().endsWith("[0-10 (1), 0-12 (2)]"));
+        assertTrue(tower.getElevators().get(1).getStatusText().endsWith("[0-30 (1)]"));
+        assertTrue(tower.getElevators().get(2).getStatusText().endsWith("[]"));
+    }
+
+    @Test
+    void dispatch_sequentialCarsOnlyGroupSameDestination() {
+        Tower tower = new Tower(3);
+        addBatch(tower);
+        assertTrue(tower.getElevators().get(0).getStatusText().endsWith("[0-10 (1)]"));
+        assertTrue(tower.getElevators().get(1).getStatusText().endsWith("[0-12 (2)]"));
+        assertTrue(tower.getElevators().get(2).getStatusText().endsWith("[0-30 (1)]"));
+    }
+
+    @Test
+    void dispatch_groupSharesOneTripOfASequentialCar() {
+        Tower tower = new Tower(2);
+        tower.setDispatchStrategy(new DestinationDispatchStrategy(2.0, 4));
+        tower.addRequest(0, 12);
+        tower.addRequest(0, 20);
+        tower.addRequest(0, 12);
+        tower.addRequest(0, 12);
+        tower.update();
+        tower.getClock().advance(2.0);
+        tower.update();
+        assertTrue(tower.getElevators().get(0).getStatusText().endsWith("[0-12 (3)]"));
+        assertTrue(tower.getElevators().get(1).getStatusText().endsWith("[0-20 (1)]"));
+
+        Simulation simulation = Simulation.createHeadless(tower);
+        simulation.runFor(15d); // after the stop at floor 0
+        assertEquals(3, tower.getElevators().get(0).getNumberOfPassengers(), "all three ride in one trip");
+        simulation.runFor(120d);
+        assertEquals(4, tower.getMetricsSnapshot().getJourneyTimes().getCount());
+    }
+
+    @Test
+    void dispatch_splitsRequestsLargerThanCapacity() {
+        for (DispatchStrategy strategy : List.of(new GreedyDispatchStrategy(), new DestinationDispatchStrategy(0d, 4), new BatchDispatchStrategy(0d, 8))) {
+            Tower tower = new Tower(3);
+            strategy.dispatch(List.of(new Request(0, 20, 0d, 5), new Request(0, 21, 0d, 1)), tower);
+            int passengers = 0;
+            for (var elevator : tower.getElevators()) {
+                String status = elevator.getStatusText();
+                assertTrue(!status.contains("(4)") && !status.contains("(5)"), strategy.getClass().getSimpleName() + ": " + status);
+                passengers += countPassengers(status);
+            }
+            assertEquals(6, passengers, strategy.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Adds four Requests from floor 0 and checks, that they are held back until the batch window of 2 s is over.
+     * @param tower the Tower getting a DestinationDispatchStrategy
+     */
+    private static void addBatch(Tower tower) {
+        tower.setDispatchStrategy(new DestinationDispatchStrategy(2.0, 4));
+        tower.addRequest(0, 30);
+        tower.addRequest(0, 12);
+        tower.addRequest(0, 10);
+        tower.addRequest(0, 12);
+        tower.update();
+        for (var elevator : tower.getElevators()) {
+            assertTrue(elevator.getStatusText().endsWith("[]"), "requests are held back during the batch window");
+        }
+
+        tower.getClock().advance(2.0);
+        tower.update();
+    }
+
+    private static int countPassengers(String status) {
+        int passengers = 0;
+        for (String part : status.substring(status.lastIndexOf('[')).split("\\(")) {
+            int end = part.indexOf(')');
+            if (end > 0) passengers += Integer.parseInt(part.substring(0, end));
+        }
+        return passengers;
+    }
+}
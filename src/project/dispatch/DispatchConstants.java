@@ -0,0 +1,16 @@
+package project.dispatch;
+
+/**
+ * Constants for the dispatch strategies
+ */
+public class DispatchConstants {
+    public static final double DESTINATION_BATCH_WINDOW = 2.0; // s
+    public static final int DESTINATION_GROUP_FLOORS = 4; // max. floors between destinations of one group
+    public static final double BATCH_WINDOW = 0.0; // s, 0 assigns the Requests of each update jointly
+    public static final int BATCH_MAX_SIZE = 32; // larger batches are dispatched greedily
+    public static final double UNSERVABLE_COST = 1e9; // s, cost of an elevator, which does not stop at the floors of a Request
+    public static final double DAY_LENGTH = 86400d; // s, the simulation starts at midnight
+    public static final double DEMAND_SLOT_LENGTH = 900d; // s, time of day covered by one slot of the DemandHistogram
+    public static final double DEMAND_HALF_LIFE = 7 * DAY_LENGTH; // s, after which recorded calls count half
+    public static final double PARKING_MIN_GAIN = 0.05; // share of the expected travel time to the next call, which a parking trip has to save
+}
@@ -0,0 +1,60 @@
+package project.dispatch;
+
+import project.elevator.Request;
+import project.tower.Tower;
+
+import java.util.List;
+
+/**
+ * Interface for all strategies, which decide which elevator gets a Request.
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Dispatches the Requests, which were taken from the intake in one Tower update.<br>
+     * Gets called on every update (also without new Requests), so a strategy can hold Requests back.
+     * Always called from the Simulation thread.
+     * @param requests the new Requests (only valid during this call)
+     * @param tower the Tower with the elevators and the SimulationClock
+     */
+    void dispatch(List<Request> requests, Tower tower);
+
+    /**
+     * Tells the discrete event Simulation, when the strategy wants to be called again without new Requests.
+     * @return simulation time in seconds, when held back Requests get dispatched (POSITIVE_INFINITY if there are none)
+     */
+    default double getNextDispatchTime() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return the Requests held back for a later dispatch (e.g. for a snapshot), empty if the strategy dispatches at once
+     */
+    default List<Request> getPendingRequests() {
+        return List.of();
+    }
+
+    /**
+     * Holds back Requests of a snapshot again (see TowerSnapshot), so they get dispatched at the same time as in the original.
+     * @param requests the Requests, which the strategy of the snapshot held back
+     * @param nextDispatchTime when that strategy wanted to dispatch them (simulation time in seconds)
+     * @return false if the strategy does not hold Requests back (then they are dispatched on the next update)
+     */
+    default boolean restorePendingRequests(List<Request> requests, double nextDispatchTime) {
+        return false;
+    }
+
+    /**
+     * Creates a strategy by its name, so it can be selected at startup.
+     * @param name 'greedy', 'destination' or 'batch'
+     * @return the new DispatchStrategy
+     */
+    static DispatchStrategy forName(String name) {
+        return switch (name.toLowerCase()) {
+            case "greedy" -> new GreedyDispatchStrategy();
+            case "destination" -> new DestinationDispatchStrategy();
+            case "batch" -> new BatchDispatchStrategy();
+            default -> throw new IllegalArgumentException("Unknown dispatch strategy: " + name);
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package project.dispatch;
+
+import project.elevator.Elevator;
+import project.elevator.Request;
+import project.tower.Tower;
+
+import java.util.List;
+
+/**
+ * Dispatches each Request on its own to the elevator which can execute it as fastest.
+ * Only the candidates of the Tower's zone index (the elevators stopping at both floors) are looked at.
+ * A Request with more passengers than the car holds is split, and the rest is dispatched again.
+ */
+public class GreedyDispatchStrategy implements DispatchStrategy {
+
+    @Override
+    public void dispatch(List<Request> requests, Tower tower) {
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            executeRequest(request, tower.getCandidates(request));
+        }
+    }
+
+    /**
+     * Finally adds the request to the elevator which can execute it as fastest.
+     * @param request the Request to be added
+     * @param candidates the elevators of the Tower, which stop at both floors of the Request
+     */
+    static void executeRequest(Request request, List<Elevator> candidates) {
+        Elevator fastestElevator = null;
+        double fastestTime = Double.MAX_VALUE;
+        for (var e : candidates) {
+            if (e.tryAddPassenger(request)) return; // if we can add passenger to existing queue it has to be faster, so nothing more needed
+            double time = e.calculateTimeToRequest(request);
+            if (time < fastestTime) {
+                fastestElevator = e;
+                fastestTime = time;
+            }
+        }
+        if (fastestElevator != null) { // the Tower only accepts Requests, which at least one elevator serves
+            addRequest(fastestElevator, request, candidates);
+        }
+    }
+
+    /**
+     * Adds the request to the elevator. If it has more passengers than the car holds,
+     * the elevator gets as many as fit and the rest is dispatched again.
+     * @param elevator the chosen elevator
+     * @param request the Request to be added
+     * @param candidates the elevators of the Tower, which stop at both floors of the Request
+     */
+    static void addRequest(Elevator elevator, Request request, List<Elevator> candidates) {
+        if (request.getNumberOfPassengers() > elevator.getCapacity()) {
+            elevator.addRequest(request.split(elevator.getCapacity()));
+            executeRequest(request, candidates);
+        } else {
+            elevator.addRequest(request);
+        }
+    }
+}
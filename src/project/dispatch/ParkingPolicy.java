@@ -0,0 +1,178 @@
+package project.dispatch;
+
+import project.elevator.Elevator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+import static project.dispatch.DispatchConstants.*;
+
+/**
+ * Parks idle elevators at the floors, where the next calls are expected (learned by a DemandHistogram from the accepted Requests),
+ * e.g. at the lobby in the morning and at the upper floors in the evening, instead of leaving them where they stopped.<br>
+ * The cars without work are placed, so the expected travel time to the next call is minimal:
+ * the demand of each floor times the travel time of the nearest of these cars, which stops there.
+ * The placement is only done again, when a car got work or finished it, and an idle car only moves,
+ * if that saves at least PARKING_MIN_GAIN of the expected travel time. Without any recorded demand the cars stay where they are.
+ */
+public class ParkingPolicy {
+    private final DemandHistogram demand;
+    private final BitSet available = new BitSet(); // cars without work at the last placement
+    private final double[] demands;           // of each floor, for the current placement
+    private final double[] nearestOtherTimes; // of each floor: travel time of the nearest other available car
+    private int[] positions = new int[0];     // parking floors of the available cars, -1 for the others
+
+    /**
+     * @param numberOfFloors highest floor
+     */
+    public ParkingPolicy(int numberOfFloors) {
+        this(new DemandHistogram(numberOfFloors));
+    }
+
+    /**
+     * @param demand the (maybe already trained) DemandHistogram
+     */
+    public ParkingPolicy(DemandHistogram demand) {
+        this.demand = demand;
+        demands = new double[demand.getNumberOfFloors() + 1];
+        nearestOtherTimes = new double[demands.length];
+    }
+
+    /**
+     * Records an accepted Request for the demand.
+     * @param originFloor from floor
+     * @param time simulation time in seconds
+     */
+    public void recordCall(int originFloor, double time) {
+        demand.record(originFloor, time);
+    }
+
+    /**
+     * @param elevators the elevators of the Tower
+     * @return if a car got work or finished it since the last placement (so parkIdleCars has to be called)
+     */
+    public boolean needsPlacement(List<Elevator> elevators) {
+        for (int i = 0; i < elevators.size(); i++) {
+            if (elevators.get(i).hasWork() == available.get(i)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Places the idle cars again, if a car got work or finished it since the last call.
+     * Cars on a parking trip keep their parking floor.
+     * @param elevators the elevators of the Tower
+     * @param time simulation time in seconds
+     */
+    public void parkIdleCars(List<Elevator> elevators, double time) {
+        if (!needsPlacement(elevators)) return;
+        int numberOfCars = elevators.size();
+        if (positions.length < numberOfCars) {
+            positions = new int[numberOfCars];
+        }
+        for (int i = 0; i < numberOfCars; i++) {
+            Elevator car = elevators.get(i);
+            available.set(i, !car.hasWork());
+            positions[i] = car.hasWork() ? -1 : car.getNextDestinationFloor();
+        }
+        double totalDemand = 0d;
+        for (int floor = 0; floor < demands.length; floor++) {
+            demands[floor] = demand.getDemand(floor, time);
+            totalDemand += demands[floor];
+        }
+        if (totalDemand == 0d) return;
+        for (int i = 0; i < numberOfCars; i++) {
+            if (elevators.get(i).isIdle()) {
+                placeCar(elevators, i);
+            }
+        }
+    }
+
+    /**
+     * Parks the car at the floor with the lowest expected travel time to the next call (given the other available cars),
+     * if that saves at least PARKING_MIN_GAIN compared to staying.
+     * @param elevators the elevators of the Tower
+     * @param index of the idle car
+     */
+    private void placeCar(List<Elevator> elevators, int index) {
+        Elevator car = elevators.get(index);
+        for (int floor = 0; floor < demands.length; floor++) {
+            double nearestTime = Double.MAX_VALUE;
+            for (int i = 0; i < elevators.size(); i++) {
+                Elevator other = elevators.get(i);
+                if (i == index || positions[i] < 0 || !other.serves(floor)) continue;
+                nearestTime = Math.min(nearestTime, other.getProfile().getTravelTime(positions[i], floor));
+            }
+            nearestOtherTimes[floor] = nearestTime;
+        }
+        int bestFloor = positions[index];
+        double stayingTime = getExpectedTravelTime(car, bestFloor), bestTime = stayingTime;
+        for (int floor = 0; floor < demands.length; floor++) {
+            if (!car.serves(floor) || floor == positions[index]) continue;
+            double time = getExpectedTravelTime(car, floor);
+            if (time < bestTime) {
+                bestTime = time;
+                bestFloor = floor;
+            }
+        }
+        if (bestTime < stayingTime * (1d - PARKING_MIN_GAIN)) {
+            car.park(bestFloor);
+            positions[index] = bestFloor;
+        }
+    }
+
+    /**
+     * @param car the idle car
+     * @param position its parking floor
+     * @return sum of the demand of each floor times the travel time of the nearest available car, which stops there
+     */
+    private double getExpectedTravelTime(Elevator car, int position) {
+        double sum = 0d;
+        for (int floor = 0; floor < demands.length; floor++) {
+            if (demands[floor] == 0d) continue;
+            double time = car.serves(floor) ? Math.min(nearestOtherTimes[floor], car.getProfile().getTravelTime(position, floor))
+                    : nearestOtherTimes[floor];
+            if (time != Double.MAX_VALUE) {
+                sum += demands[floor] * time;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Writes the learned demand and which cars were available at the last placement (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        demand.writeTo(out);
+        long[] words = available.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Replaces the learned demand and the available cars with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the DemandHistogram has another number of slots or floors
+     */
+    public void readFrom(DataInput in) throws IOException {
+        demand.readFrom(in);
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        available.clear();
+        available.or(BitSet.valueOf(words));
+    }
+
+    public DemandHistogram getDemand() {
+        return demand;
+    }
+}
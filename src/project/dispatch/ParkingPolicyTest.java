@@ -0,0 +1,59 @@
+package project.dispatch;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.elevator.Elevator;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static project.dispatch.DispatchConstants.DAY_LENGTH;
+
+/**
+ * Does some Tests for the DemandHistogram and the ParkingPolicy
+ */
+public class ParkingPolicyTest {
+
+    @Test
+    void demandHistogram_separatesTimesOfDayAndDecays() {
+        DemandHistogram histogram = new DemandHistogram(10, 900d, 3600d);
+        histogram.record(3, 0d);
+        histogram.record(3, 0d);
+        assertEquals(2d, histogram.getDemand(3, 0d), 1e-12);
+        assertEquals(2d * Math.pow(0.5d, 1000d / 3600d), histogram.getDemand(3, 1000d), 1e-12); // the slot before counts as well
+        assertEquals(0d, histogram.getDemand(3, 1800d));
+        assertEquals(0d, histogram.getDemand(4, 0d));
+
+        double decay = Math.pow(0.5d, DAY_LENGTH / 3600d);
+        assertEquals(2d * decay, histogram.getDemand(3, DAY_LENGTH), 1e-12);
+        histogram.record(3, DAY_LENGTH); // the next day
+        assertEquals(1d + 2d * decay, histogram.getDemand(3, DAY_LENGTH), 1e-12);
+    }
+
+    @Test
+    void tower_parksIdleCarWhereTheCallsCome() {
+        for (boolean parking : new boolean[]{false, true}) {
+            Tower tower = new Tower(Config.DEFAULT.with("elevators=2").with("parking", String.valueOf(parking)));
+            Simulation simulation = Simulation.createHeadless(tower);
+            for (int i = 0; i < 4; i++) {
+                tower.addRequest(40, 0); // evening: everybody goes down
+                simulation.runFor(60);
+            }
+            simulation.runFor(300);
+            boolean carAtFloor40 = false;
+            for (Elevator elevator : tower.getElevators()) {
+                assertTrue(elevator.isIdle());
+                carAtFloor40 |= elevator.getCurrentFloor() == 40;
+            }
+            assertEquals(parking, carAtFloor40, "parking " + parking);
+        }
+    }
+
+    @Test
+    void tower_withoutParkingHasNoPolicy() {
+        assertNull(new Tower().getParkingPolicy());
+        assertEquals(0, new Tower(Config.DEFAULT.with("parking=true")).getParkingPolicy().getDemand().getDemand(0, 0d), 0d);
+    }
+}
@@ -0,0 +1,141 @@
+package project.elevator;
+
+import project.enums.Direction;
+import project.enums.Status;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Ring buffer for queueing Elevator Actions.<br>
+ * Stores duration, status and direction in parallel primitive arrays,
+ * so queueing Actions does not allocate any objects (unless the buffer has to grow).
+ */
+class ActionQueue {
+    private static final Status[] STATUSES = Status.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private double[] durations;
+    private byte[] statuses;
+    private byte[] directions;
+    private int head, size;
+
+    /**
+     * @param initialCapacity gets rounded up to a power of 2
+     */
+    ActionQueue(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+        durations = new double[capacity];
+        statuses = new byte[capacity];
+        directions = new byte[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an Action at the end of the queue.
+     * @param duration in seconds
+     * @param status enum
+     * @param direction enum
+     */
+    void add(double duration, Status status, Direction direction) {
+        if (size == durations.length) grow();
+        int slot = (head + size) & (durations.length - 1);
+        durations[slot] = duration;
+        statuses[slot] = (byte) status.ordinal();
+        directions[slot] = (byte) direction.ordinal();
+        size++;
+    }
+
+    double getFirstDuration() {
+        return durations[head];
+    }
+
+    Status getFirstStatus() {
+        return STATUSES[statuses[head]];
+    }
+
+    Direction getFirstDirection() {
+        return DIRECTIONS[directions[head]];
+    }
+
+    /**
+     * Removes the head of the queue.
+     */
+    void removeFirst() {
+        if (size == 0) throw new IllegalStateException("ActionQueue is empty");
+        head = (head + 1) & (durations.length - 1);
+        size--;
+    }
+
+    /**
+     * Removes all Actions (e.g. when the elevator stops on the way instead).
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Writes the queued Actions (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) & (durations.length - 1);
+            out.writeDouble(durations[slot]);
+            out.writeByte(statuses[slot]);
+            out.writeByte(directions[slot]);
+        }
+    }
+
+    /**
+     * Replaces the queued Actions with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails or the input holds an unknown status or direction
+     */
+    void readFrom(DataInput in) throws IOException {
+        clear();
+        int numberOfActions = in.readInt();
+        if (numberOfActions < 0) {
+            throw new IOException("Invalid number of Actions: " + numberOfActions);
+        }
+        for (int i = 0; i < numberOfActions; i++) {
+            double duration = in.readDouble();
+            int status = in.readByte(), direction = in.readByte();
+            if (status < 0 || status >= STATUSES.length || direction < 0 || direction >= DIRECTIONS.length) {
+                throw new IOException("Invalid status " + status + " or direction " + direction + " of Action " + i);
+            }
+            add(duration, STATUSES[status], DIRECTIONS[direction]);
+        }
+    }
+
+    /**
+     * Doubles the capacity and moves the head to index 0.
+     */
+    private void grow() {
+        int capacity = durations.length * 2;
+        double[] newDurations = new double[capacity];
+        byte[] newStatuses = new byte[capacity];
+        byte[] newDirections = new byte[capacity];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) & (durations.length - 1);
+            newDurations[i] = durations[slot];
+            newStatuses[i] = statuses[slot];
+            newDirections[i] = directions[slot];
+        }
+        durations = newDurations;
+        statuses = newStatuses;
+        directions = newDirections;
+        head = 0;
+    }
+}
@@ -1,253 +1,888 @@
 package project.elevator;
 
-import project.View;
 import project.enums.Direction;
 import project.enums.Status;
+import project.metrics.PassengerMetrics;
 import project.simulation.SimObject;
-import project.simulation.Simulation;
-import project.simulation.SimulationConstants;
-import project.tower.TowerConstants;
+import project.simulation.SimulationClock;
+import project.trace.TraceRecorder;
 
-import java.awt.*;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.BitSet;
 
 import static project.elevator.ElevatorConstants.*;
 
 /**
  * The actual Elevator class which holds most of the logic.<br>
  * Implements SimObject, so it can be used for the Simulation.
+ * The motion is calculated in closed form from the start of the current Action,
+ * so a fixedUpdate only has to do something, when an Action ends.
  */
 public class Elevator implements SimObject {
-    private final Point.Double position;
-    private double speed, velocity;
     private int currentFloor, nextDestinationFloor, numberOfPassengers;
-    private final Queue<Request> requestQueue;
-    private final Queue<Action> actionQueue;
+    private final RequestQueue requestQueue;
+    private final ActionQueue actionQueue;
+    private final SimulationClock clock;
+    private ElevatorProfile profile;
+    private final int index;
+    private TraceRecorder traceRecorder; // null if nothing is recorded
+    private final PassengerMetrics metrics = new PassengerMetrics();
+    private final int capacity;
+    private final BitSet servedFloors; // null if the elevator serves all floors
+    private final double[] ridingArrivalTimes; // of the current passengers
+    private final StopPlan stopPlan; // null in the sequential mode (one Request after the other)
+
+    // texts are only built again, if the state or the displayed height changed
+    private boolean statusTextDirty = true;
+    private String statusTail, statusText, elevationText;
+    private long statusCentimeters = -1, elevationCentimeters = -1;
 
     // current Action has different time then queued Actions
-    private double actionEndTime;
+    private double actionStartTime, actionEndTime;
     private Status currentStatus;
     private Direction currentDirection;
+    private double actionStartHeight, actionStartSpeed; // m, m/s
+    private double actionAcceleration, actionMaxSpeed;  // of the profile, when the Action started
+
+    // running totals, so calculateTimeToRequest does not need to go through the queues
+    private double queuedActionTime;
+    private double requestTimeTotal, requestTimeDone; // cumulative since the requestQueue was last empty
+    private double boardingTimeDone; // of the first Request, already queued as Action before its pickup
+    private int lastQueuedFloor; // the floor where the requestQueue ends
+    private final EmptyRunIndex emptyRuns; // cumulative request time at the start of each empty run
 
     /**
-     * Constructor always takes 2 parameters
+     * Creates an Elevator with its own SimulationClock.
      * @param index the index of elevator in Tower List
      * @param currentFloor the floor, where the elevator starts
      */
     public Elevator(int index, int currentFloor) {
+        this(index, currentFloor, new SimulationClock());
+    }
+
+    /**
+     * Creates an Elevator, which uses the given (shared) SimulationClock.
+     * @param index the index of elevator in Tower List
+     * @param currentFloor the floor, where the elevator starts
+     * @param clock the SimulationClock of the Tower
+     */
+    public Elevator(int index, int currentFloor, SimulationClock clock) {
+        this(index, currentFloor, clock, ElevatorProfile.DEFAULT);
+    }
+
+    /**
+     * Creates an Elevator with its own kinematics.
+     * @param index the index of elevator in Tower List
+     * @param currentFloor the floor, where the elevator starts
+     * @param clock the SimulationClock of the Tower
+     * @param profile the ElevatorProfile (speed, acceleration and waiting time)
+     */
+    public Elevator(int index, int currentFloor, SimulationClock clock, ElevatorProfile profile) {
+        this(index, currentFloor, clock, profile, CAPACITY, null);
+    }
+
+    /**
+     * Creates an Elevator with its own kinematics, capacity and zone (e.g. an express car).
+     * @param index the index of elevator in Tower List
+     * @param currentFloor the floor, where the elevator starts
+     * @param clock the SimulationClock of the Tower
+     * @param profile the ElevatorProfile (speed, acceleration, waiting time and floor height)
+     * @param capacity max. number of passengers
+     * @param servedFloors the floors, where the elevator stops, null for all floors
+     */
+    public Elevator(int index, int currentFloor, SimulationClock clock, ElevatorProfile profile, int capacity, BitSet servedFloors) {
+        this(index, currentFloor, clock, profile, capacity, servedFloors, false);
+    }
+
+    /**
+     * Creates an Elevator with its own kinematics, capacity and zone, optionally in collective control:
+     * then it picks up and drops off passengers of several Requests on the way, instead of serving one after the other.
+     * @param index the index of elevator in Tower List
+     * @param currentFloor the floor, where the elevator starts
+     * @param clock the SimulationClock of the Tower
+     * @param profile the ElevatorProfile (speed, acceleration, waiting time and floor height)
+     * @param capacity max. number of passengers
+     * @param servedFloors the floors, where the elevator stops, null for all floors
+     * @param collective if Requests are merged into the stops along the way
+     */
+    public Elevator(int index, int currentFloor, SimulationClock clock, ElevatorProfile profile, int capacity, BitSet servedFloors,
+                    boolean collective) {
+        this.clock = clock;
+        this.profile = profile;
+        this.index = index;
         this.currentFloor = currentFloor;
         nextDestinationFloor = currentFloor;
-        position = new Point.Double((index * SimulationConstants.ELEVATOR_SPACING_PIXEL) + (SimulationConstants.ELEVATOR_SPACING_PIXEL - PIXEL_HEIGHT) / 2.0, currentFloor * TowerConstants.FLOOR_HEIGHT);
-        requestQueue = new LinkedList<>();
-        actionQueue = new LinkedList<>();
+        lastQueuedFloor = currentFloor;
+        this.capacity = capacity;
+        this.servedFloors = servedFloors == null ? null : (BitSet) servedFloors.clone();
+        ridingArrivalTimes = new double[capacity];
+        requestQueue = new RequestQueue(16, capacity);
+        actionQueue = new ActionQueue(8);
+        emptyRuns = new EmptyRunIndex(16);
+        stopPlan = collective ? new StopPlan(16, capacity) : null;
         currentStatus = Status.IDLE;
         currentDirection = Direction.NONE;
+        startAction(clock.getTime(), currentFloor * profile.getFloorHeight(), 0d);
     }
 
     /**
-     * Calculates the pure travel time between 2 floors.
+     * Calculates the pure travel time between 2 floors (with the DEFAULT ElevatorProfile).
      * @param floor1 origin floor
      * @param floor2 destination floor
      * @return time as double in seconds
      */
     public static double calculateTravelTime(int floor1, int floor2) {
-        double distance = Math.abs((floor2 - floor1) * TowerConstants.FLOOR_HEIGHT);
-        if (distance > DISTANCE_TO_ACCELERATE * 2) {
-            return (distance - DISTANCE_TO_ACCELERATE * 2) / MAX_SPEED + TIME_TO_ACCELERATE * 2;
-        }
-        return Math.sqrt(distance / ACCELERATION) * 2;
+        return ElevatorProfile.DEFAULT.getTravelTime(floor1, floor2);
     }
 
     /**
      * Calculates the travel time between two floors, and adds the WAITING_TIME
-     * only if the floors are actually different.
+     * only if the floors are actually different (with the DEFAULT ElevatorProfile).
      * @param floor1 origin floor
      * @param floor2 destination floor
      * @return time as double in seconds
      */
     public static double calculateTravelAndWaitingTime(int floor1, int floor2) {
-        return floor1 == floor2 ? 0d : calculateTravelTime(floor1, floor2) + WAITING_TIME;
+        return ElevatorProfile.DEFAULT.getTravelAndWaitingTime(floor1, floor2);
     }
 
     /**
      * Calculates the time needed, until the elevator reaches the origin floor of the new request
+     * and its passengers got in.<br>
+     * Uses the running totals of the queues, so it does not depend on the queue length.
+     * In collective control it is the time until the stop, where the Request would be inserted.
      * @param request the new Request
      * @return time as double in seconds
      */
     public double calculateTimeToRequest(Request request) {
-        double remainingActionTime = actionEndTime - Simulation.getTick() / 1000d;
-        double totalTime = Math.max(remainingActionTime, 0d);
-        totalTime += actionQueue.stream() // time for remaining Actions
-                .mapToDouble(Action::getDuration)
-                .sum();
-        int previousFloor = nextDestinationFloor;
-        for (var req : requestQueue) { // time for remaining Requests
-            if (request.getOriginFloor() == previousFloor && request.getDestinationFloor() == req.getOriginFloor()) {
-                return totalTime; // if the request corresponds to an empty return trip: return time until then
-            }
-            totalTime += calculateTravelAndWaitingTime(previousFloor, req.getOriginFloor());
-            totalTime += calculateTravelAndWaitingTime(req.getOriginFloor(), req.getDestinationFloor());
-            previousFloor = req.getDestinationFloor();
+        if (stopPlan != null) {
+            return stopPlan.findInsertion(request.getOriginFloor(), request.getDestinationFloor(), request.getNumberOfPassengers(),
+                    capacity, profile, getFirstStopTime(), nextDestinationFloor, getTimeToStopOnTheWay(request.getOriginFloor()));
         }
-        return totalTime + calculateTravelAndWaitingTime(previousFloor, request.getOriginFloor()); // time to requested floor
+        double remainingActionTime = actionEndTime - clock.getTime();
+        double totalTime = Math.max(remainingActionTime, 0d) + queuedActionTime;
+        double boardingTime = profile.getBoardingTime() * request.getNumberOfPassengers();
+        double emptyRunStartTime = emptyRuns.getFirstStartTime(request.getOriginFloor(), request.getDestinationFloor());
+        if (!Double.isNaN(emptyRunStartTime)) {
+            return totalTime + emptyRunStartTime - requestTimeDone + boardingTime; // if the request corresponds to an empty return trip: return time until then
+        }
+        totalTime += requestTimeTotal - requestTimeDone; // time for remaining Requests
+        return totalTime + profile.getTravelAndWaitingTime(lastQueuedFloor, request.getOriginFloor()) + boardingTime; // time to requested floor
     }
 
     /**
-     * Tries to add a passenger to an existing Request.
+     * Tries to add the passengers to an existing Request, if the car has room for them.
      * @param request incoming Request
-     * @return boolean, if it could add the passenger
+     * @return boolean, if it could add the passengers
      */
     public boolean tryAddPassenger(Request request) {
-        return requestQueue.stream()
-                .filter(r -> r.equals(request) && r.getNumberOfPassengers() < CAPACITY) // if request is in queue and under capacity
-                .findFirst()
-                .map(r -> {
-                    r.addPassenger();   // add passenger
-                    return true;
-                }).orElse(false);
+        int passengers = request.getNumberOfPassengers();
+        if (stopPlan != null) {
+            int pickupIndex = stopPlan.tryAddPassengers(request.getOriginFloor(), request.getDestinationFloor(), passengers,
+                    request.getArrivalTime(), capacity);
+            if (pickupIndex < 0) return false;
+            if (pickupIndex == 0 && isCommitted()) {
+                queueBoarding(passengers); // the stop is already queued, so it just gets longer
+            }
+            recordDispatch(request);
+            statusTextDirty = true;
+            return true;
+        }
+        for (int i = 0; i < requestQueue.size(); i++) {
+            if (requestQueue.getOriginFloor(i) == request.getOriginFloor()
+                    && requestQueue.getDestinationFloor(i) == request.getDestinationFloor()
+                    && requestQueue.getNumberOfPassengers(i) + passengers <= capacity) { // if request is in queue and under capacity
+                for (int p = 0; p < passengers; p++) {
+                    requestQueue.addPassenger(i, request.getArrivalTime());
+                }
+                requestTimeTotal += profile.getBoardingTime() * passengers * 2; // getting in and out
+                recordDispatch(request);
+                statusTextDirty = true;
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Actually adds the new Request into the queue. <br>
      * Normally at the end of queue, or if it finds an empty return run.
+     * In collective control at the place of the earliest pickup on the way (see StopPlan).
      * @param request the new Request
+     * @throws IllegalArgumentException if it has more passengers than the capacity (the dispatch has to split it)
      */
     public void addRequest(Request request) {
-        List<Request> requestList = (LinkedList<Request>) requestQueue;
+        int originFloor = request.getOriginFloor(), destinationFloor = request.getDestinationFloor();
+        int passengers = request.getNumberOfPassengers();
+        if (passengers > capacity) {
+            throw new IllegalArgumentException(passengers + " passengers do not fit into elevator " + index + " (capacity " + capacity + ")");
+        }
+        recordDispatch(request);
+        statusTextDirty = true;
+        if (stopPlan != null) {
+            addStops(request);
+            return;
+        }
+        double boardingTime = profile.getBoardingTime() * passengers;
+        if (emptyRuns.contains(originFloor, destinationFloor)) {
+            int previousFloor = nextDestinationFloor;
+            for (int i = 0; i < requestQueue.size(); i++) {
+                if (originFloor == previousFloor && destinationFloor == requestQueue.getOriginFloor(i)) {
+                    requestQueue.insert(i, originFloor, destinationFloor, passengers, request.getArrivalTime()); // if request matches empty return run, insert new Request at this position
+                    emptyRuns.removeFirst(originFloor, destinationFloor); // the empty run is just used now
+                    requestTimeTotal += boardingTime * 2; // only getting in and out takes longer (not counted at the later empty runs)
+                    return;
+                }
+                previousFloor = requestQueue.getDestinationFloor(i);
+            }
+        }
+        requestQueue.add(originFloor, destinationFloor, passengers, request.getArrivalTime());
+        if (lastQueuedFloor != originFloor) {
+            emptyRuns.add(lastQueuedFloor, originFloor, requestTimeTotal);
+        }
+        requestTimeTotal += profile.getTravelAndWaitingTime(lastQueuedFloor, originFloor)
+                + profile.getTravelAndWaitingTime(originFloor, destinationFloor) + boardingTime * 2;
+        lastQueuedFloor = destinationFloor;
+        if (originFloor == currentFloor && currentStatus == Status.IDLE && requestQueue.size() == 1 && actionQueue.isEmpty()) {
+            queueAction(profile.getDwellTime(passengers), Status.WAITING, Direction.NONE);
+            requestTimeDone += boardingTime; // is queued now
+            boardingTimeDone = boardingTime;
+        }
+    }
+
+    /**
+     * Inserts the Request into the StopPlan. If its pickup is a new stop before the next one,
+     * the elevator stops there instead: the running Action is cut and the travel from the current speed is queued.
+     * @param request the new Request
+     */
+    private void addStops(Request request) {
+        int originFloor = request.getOriginFloor();
+        double onTheWayTime = getTimeToStopOnTheWay(originFloor);
+        stopPlan.findInsertion(originFloor, request.getDestinationFloor(), request.getNumberOfPassengers(),
+                capacity, profile, getFirstStopTime(), nextDestinationFloor, onTheWayTime);
+        boolean committed = isCommitted(), withoutStops = stopPlan.isEmpty();
+        stopPlan.insert(originFloor, request.getDestinationFloor(), request.getNumberOfPassengers(), request.getArrivalTime());
+        if (stopPlan.getPickupIndex() != 0) return; // the Actions for a later stop get queued, when the elevator gets there
+        if (stopPlan.isNewPickupStop()) {
+            if (committed && withoutStops) { // the last stop or a parking trip ends first, then evaluateStops goes on from there
+                if (originFloor == nextDestinationFloor) queueBoarding(request.getNumberOfPassengers());
+            } else if (committed) {
+                stopOnTheWay(originFloor);
+            } else if (originFloor == currentFloor) { // idle at the floor
+                queueAction(profile.getDwellTime(stopPlan.getPassengersAt(0)), Status.WAITING, Direction.NONE);
+            }
+        } else if (committed || stopPlan.getFloor(0) == currentFloor) {
+            queueBoarding(request.getNumberOfPassengers()); // stop 0 is already queued, so it just gets longer
+        }
+    }
+
+    /**
+     * Moves an idle elevator to a floor without a Request (e.g. where the next calls are expected).
+     * The doors stay closed, and Requests dispatched on the way are served from the parking floor.
+     * @param floor the parking floor
+     * @throws IllegalArgumentException if the elevator does not stop at the floor
+     * @throws IllegalStateException if the elevator is not idle
+     */
+    public void park(int floor) {
+        if (!serves(floor)) {
+            throw new IllegalArgumentException("Elevator " + index + " does not stop at floor " + floor);
+        }
+        if (!isIdle()) {
+            throw new IllegalStateException("Elevator " + index + " is not idle");
+        }
+        if (floor == currentFloor) return;
+        double displacement = (floor - currentFloor) * profile.getFloorHeight();
+        queueTravel(0d, Math.abs(displacement), displacement < 0 ? Direction.DOWN : Direction.UP);
+        nextDestinationFloor = floor;
+        lastQueuedFloor = floor;
+        statusTextDirty = true;
+    }
+
+    /**
+     * Keeps the elevator waiting for passengers getting in, who were not counted in the waiting Action at this stop.
+     * @param passengers number of passengers
+     */
+    private void queueBoarding(int passengers) {
+        double boardingTime = profile.getBoardingTime() * passengers;
+        if (boardingTime > 0d) {
+            queueAction(boardingTime, Status.WAITING, Direction.NONE);
+        }
+    }
+
+    /**
+     * @return if the elevator is on its way to stop 0 (or waiting there), so a new stop 0 has to change its Actions
+     */
+    private boolean isCommitted() {
+        return clock.getTime() < actionEndTime || !actionQueue.isEmpty();
+    }
+
+    /**
+     * @return time until stop 0 of the StopPlan is done (incl. waiting), or until the elevator is free without stops
+     */
+    private double getFirstStopTime() {
+        double remainingTime = Math.max(actionEndTime - clock.getTime(), 0d) + queuedActionTime;
+        if (stopPlan.isEmpty() || isCommitted()) return remainingTime;
+        int floor = stopPlan.getFloor(0);
+        return floor == currentFloor ? 0d : profile.getTravelTime(currentFloor, floor) + profile.getDwellTime(stopPlan.getPassengersAt(0));
+    }
+
+    /**
+     * @param floor origin floor of a new Request
+     * @return time until the elevator could stop at the floor (incl. waiting, without boarding), if it is on the way to stop 0,
+     * NaN if not (or if the elevator is too fast to stop there or the doors are open)
+     */
+    private double getTimeToStopOnTheWay(int floor) {
+        if (stopPlan.isEmpty() || currentStatus == Status.WAITING) return Double.NaN;
+        double currentTime = clock.getTime();
+        double height = getHeight(currentTime), speed = getSpeed(currentTime);
+        double floorHeight = profile.getFloorHeight();
+        double toNextStop = stopPlan.getFloor(0) * floorHeight - height;
+        double direction = Math.signum(toNextStop);
+        double distance = (floor * floorHeight - height) * direction;
+        if (direction == 0d || distance < -FLOOR_TOLERANCE || distance > toNextStop * direction - FLOOR_TOLERANCE) {
+            return Double.NaN;
+        }
+        if (distance < FLOOR_TOLERANCE) { // already at the floor
+            return speed == 0d ? profile.getWaitingTime() : Double.NaN;
+        }
+        if (profile.getStoppingDistance(speed) > distance) return Double.NaN;
+        return profile.getTravelTime(speed, distance) + profile.getWaitingTime();
+    }
+
+    /**
+     * Stops at a floor before stop 0: cuts the running Action, drops the queued ones and queues the travel from the current speed.
+     * @param floor the new stop 0
+     */
+    private void stopOnTheWay(int floor) {
+        double currentTime = clock.getTime();
+        double height = getHeight(currentTime), speed = getSpeed(currentTime);
+        if (currentTime < actionEndTime) {
+            metrics.addBusyTime(currentTime - actionEndTime); // only the time until now was busy
+            actionEndTime = currentTime;
+        }
+        actionQueue.clear();
+        queuedActionTime = 0d;
+        double displacement = floor * profile.getFloorHeight() - height;
+        if (Math.abs(displacement) >= FLOOR_TOLERANCE) {
+            queueTravel(speed, Math.abs(displacement), displacement < 0 ? Direction.DOWN : Direction.UP);
+        }
+        queueAction(profile.getDwellTime(stopPlan.getPassengersAt(0)), Status.WAITING, Direction.NONE);
+        nextDestinationFloor = floor;
+    }
+
+    /**
+     * Queues accelerating (if there is room), moving at max. speed (if there is room) and decelerating until the stop.
+     * @param startSpeed current speed in m/s (0 when starting at a floor)
+     * @param distance in m (at least the stopping distance)
+     * @param direction enum
+     */
+    private void queueTravel(double startSpeed, double distance, Direction direction) {
+        double acceleration = profile.getAcceleration();
+        double peakSpeed = profile.getPeakSpeed(startSpeed, distance);
+        double accelerationTime = (peakSpeed - startSpeed) / acceleration;
+        double movingDistance = distance - (peakSpeed * peakSpeed * 2 - startSpeed * startSpeed) / (acceleration * 2);
+        if (accelerationTime > 0d) queueAction(accelerationTime, Status.ACCELERATING, direction);
+        if (movingDistance > FLOOR_TOLERANCE) queueAction(movingDistance / peakSpeed, Status.MOVING, direction);
+        queueAction(peakSpeed / acceleration, Status.DECELERATING, direction);
+    }
+
+    /**
+     * Adds an Action to the actionQueue and keeps track of the queued time.
+     * @param duration in seconds
+     * @param status enum
+     * @param direction enum
+     */
+    private void queueAction(double duration, Status status, Direction direction) {
+        actionQueue.add(duration, status, direction);
+        queuedActionTime += duration;
+    }
+
+    /**
+     * Sets the nextDestinationFloor and marks the (empty) run until there as done.
+     * @param floor the new nextDestinationFloor
+     */
+    private void setNextDestinationFloor(int floor) {
+        emptyRuns.removeFirst(nextDestinationFloor, floor);
+        requestTimeDone += profile.getTravelAndWaitingTime(nextDestinationFloor, floor);
+        nextDestinationFloor = floor;
+    }
+
+    /**
+     * Records, that this elevator got the Request (if a TraceRecorder is set).
+     * @param request the dispatched Request
+     */
+    private void recordDispatch(Request request) {
+        if (traceRecorder != null) {
+            traceRecorder.recordDispatch(clock.getTime(), index, request.getOriginFloor(), request.getDestinationFloor());
+        }
+    }
+
+    /**
+     * Sets the TraceRecorder for dispatched Requests and started Actions.
+     * @param traceRecorder the TraceRecorder, or null for no recording
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    /**
+     * @return wait and journey times of the passengers and the busy time of this elevator
+     */
+    public PassengerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public ElevatorProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Changes the kinematics of the elevator and recalculates the time of the queued Requests
+     * (already queued Actions keep their duration). Should be set while the Simulation is not updating.
+     * @param profile the new ElevatorProfile (with the same floor height)
+     */
+    public void setProfile(ElevatorProfile profile) {
+        if (profile.getFloorHeight() != this.profile.getFloorHeight()) {
+            throw new IllegalArgumentException("The floor height cannot change!");
+        }
+        this.profile = profile;
+        emptyRuns.clear();
+        requestTimeDone = 0d;
+        requestTimeTotal = 0d;
         int previousFloor = nextDestinationFloor;
-        for (int i = 0; i < requestList.size(); i++) {
-            Request req = requestList.get(i);
-            if (request.getOriginFloor() == previousFloor && request.getDestinationFloor() == req.getOriginFloor()) {
-                requestList.add(i, request); // if request matches empty return run, insert new Request at this position
-                return;
+        for (int i = 0; i < requestQueue.size(); i++) {
+            int originFloor = requestQueue.getOriginFloor(i), destinationFloor = requestQueue.getDestinationFloor(i);
+            if (previousFloor != originFloor) {
+                emptyRuns.add(previousFloor, originFloor, requestTimeTotal);
             }
-            previousFloor = req.getDestinationFloor();
+            requestTimeTotal += profile.getTravelAndWaitingTime(previousFloor, originFloor)
+                    + profile.getTravelAndWaitingTime(originFloor, destinationFloor)
+                    + profile.getBoardingTime() * requestQueue.getNumberOfPassengers(i) * 2;
+            previousFloor = destinationFloor;
         }
-        requestQueue.add(request);
-        if (request.getOriginFloor() == currentFloor && currentStatus == Status.IDLE && requestQueue.size() == 1) {
-            actionQueue.add(new Action(WAITING_TIME, Status.WAITING, Direction.NONE));
+        requestTimeDone = boardingTimeDone; // the boarding of the first Request is queued already
+    }
+
+    /**
+     * Writes the complete state of the elevator: the running Action (its start, so position and velocity follow),
+     * the queued Actions and Requests (or the StopPlan), the riding passengers and the running totals.<br>
+     * Kinematics, capacity and floors are part of the Config, the metrics are not written.
+     * Has to be called while the Simulation is not updating.
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeBoolean(stopPlan != null);
+        out.writeInt(currentFloor);
+        out.writeInt(nextDestinationFloor);
+        out.writeInt(lastQueuedFloor);
+        out.writeInt(numberOfPassengers);
+        for (int i = 0; i < numberOfPassengers; i++) {
+            out.writeDouble(ridingArrivalTimes[i]);
+        }
+        out.writeByte(currentStatus.ordinal());
+        out.writeByte(currentDirection.ordinal());
+        out.writeDouble(actionStartTime);
+        out.writeDouble(actionEndTime);
+        out.writeDouble(actionStartHeight);
+        out.writeDouble(actionStartSpeed);
+        out.writeDouble(actionAcceleration);
+        out.writeDouble(actionMaxSpeed);
+        out.writeDouble(queuedActionTime);
+        out.writeDouble(requestTimeTotal);
+        out.writeDouble(requestTimeDone);
+        out.writeDouble(boardingTimeDone);
+        actionQueue.writeTo(out);
+        requestQueue.writeTo(out);
+        emptyRuns.writeTo(out);
+        if (stopPlan != null) {
+            stopPlan.writeTo(out);
+        }
+    }
+
+    /**
+     * Replaces the state of the elevator with the one written by writeTo.
+     * Has to be called while the Simulation is not updating.
+     * @param in the input
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the state is of an elevator with another capacity or control mode
+     */
+    public void readFrom(DataInput in) throws IOException {
+        int stateCapacity = in.readInt();
+        boolean stateCollective = in.readBoolean();
+        if (stateCapacity != capacity || stateCollective != (stopPlan != null)) {
+            throw new IllegalArgumentException("Elevator " + index + " has capacity " + capacity + (stopPlan != null ? " (collective)" : "")
+                    + ", not " + stateCapacity + (stateCollective ? " (collective)" : ""));
+        }
+        currentFloor = in.readInt();
+        nextDestinationFloor = in.readInt();
+        lastQueuedFloor = in.readInt();
+        numberOfPassengers = in.readInt();
+        if (numberOfPassengers < 0 || numberOfPassengers > capacity) {
+            throw new IOException("Invalid number of passengers: " + numberOfPassengers);
+        }
+        for (int i = 0; i < numberOfPassengers; i++) {
+            ridingArrivalTimes[i] = in.readDouble();
+        }
+        int status = in.readByte(), direction = in.readByte();
+        if (status < 0 || status >= Status.values().length || direction < 0 || direction >= Direction.values().length) {
+            throw new IOException("Invalid status " + status + " or direction " + direction);
+        }
+        currentStatus = Status.values()[status];
+        currentDirection = Direction.values()[direction];
+        actionStartTime = in.readDouble();
+        actionEndTime = in.readDouble();
+        actionStartHeight = in.readDouble();
+        actionStartSpeed = in.readDouble();
+        actionAcceleration = in.readDouble();
+        actionMaxSpeed = in.readDouble();
+        queuedActionTime = in.readDouble();
+        requestTimeTotal = in.readDouble();
+        requestTimeDone = in.readDouble();
+        boardingTimeDone = in.readDouble();
+        actionQueue.readFrom(in);
+        requestQueue.readFrom(in);
+        emptyRuns.readFrom(in);
+        if (stopPlan != null) {
+            stopPlan.readFrom(in);
         }
+        statusTextDirty = true;
+    }
+
+    /**
+     * @return if the elevator is in collective control (picks up and drops off several Requests on the way)
+     */
+    public boolean isCollective() {
+        return stopPlan != null;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of passengers riding in the car right now
+     */
+    public int getNumberOfPassengers() {
+        return numberOfPassengers;
+    }
+
+    /**
+     * @param floor the floor
+     * @return if the elevator stops at the floor
+     */
+    public boolean serves(int floor) {
+        return servedFloors == null || servedFloors.get(floor);
+    }
+
+    /**
+     * @param request a Request
+     * @return if the elevator stops at its origin and destination floor
+     */
+    public boolean canServe(Request request) {
+        return serves(request.getOriginFloor()) && serves(request.getDestinationFloor());
+    }
+
+    /**
+     * @return the floor, which is nearest to the elevator right now
+     */
+    public int getCurrentFloor() {
+        return (int) Math.round(getHeight() / profile.getFloorHeight());
+    }
+
+    /**
+     * @return current height of the elevator in m
+     */
+    public double getHeight() {
+        return getHeight(clock.getTime());
+    }
+
+    /**
+     * @return current velocity of the elevator in m/s (negative if going down)
+     */
+    public double getVelocity() {
+        double speed = getSpeed(clock.getTime());
+        return currentDirection == Direction.DOWN ? -speed : speed;
+    }
+
+    public Status getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public Direction getCurrentDirection() {
+        return currentDirection;
+    }
+
+    /**
+     * Tells the discrete event Simulation, when this elevator has to be updated next.
+     * @return the end of the running Action, now if the elevator has something to evaluate,
+     * or POSITIVE_INFINITY if it is idle without Requests
+     */
+    public double getNextUpdateTime() {
+        double currentTime = clock.getTime();
+        if (currentTime < actionEndTime) return actionEndTime;
+        boolean nothingToDo = currentStatus == Status.IDLE && numberOfPassengers == 0 && actionQueue.isEmpty() && requestQueue.isEmpty()
+                && (stopPlan == null || stopPlan.isEmpty());
+        return nothingToDo ? Double.POSITIVE_INFINITY : currentTime;
+    }
+
+    /**
+     * @return if the elevator has nothing to do (no running or queued Actions and no Requests)
+     */
+    public boolean isIdle() {
+        return currentStatus == Status.IDLE && actionQueue.isEmpty() && requestQueue.isEmpty() && (stopPlan == null || stopPlan.isEmpty());
     }
 
     /**
-     * Updates status, depending on different things like currentAction, actionEndTime and ActionQueue.
+     * @return if the elevator has Requests or passengers (a parking trip is no work)
+     */
+    public boolean hasWork() {
+        return numberOfPassengers > 0 || !requestQueue.isEmpty() || (stopPlan != null && !stopPlan.isEmpty());
+    }
+
+    /**
+     * @return the floor, where the elevator stops next (or stopped last)
+     */
+    public int getNextDestinationFloor() {
+        return nextDestinationFloor;
+    }
+
+    /**
+     * Updates status, depending on different things like currentAction, actionEndTime and ActionQueue.<br>
+     * Does nothing while an Action is running, only starts the next Action (or evaluates new ones) when it ended.
      * @param deltaTime time since last call in seconds
      */
     private void updateStatus(double deltaTime) {
-        currentFloor = (int) Math.round(position.y / TowerConstants.FLOOR_HEIGHT);
-
-        double currentTime = Simulation.getTick() / 1000d;
-        if (currentTime >= actionEndTime) {  // action end or no action running
-            double difference = currentTime - actionEndTime;
-            difference = difference <= deltaTime ? difference : 0d;
-            updateVelocity(deltaTime - difference);
-
-            if (!actionQueue.isEmpty()) { // get next action from queue
-                Action action = actionQueue.remove();
-                currentStatus = action.getStatus();
-                currentDirection = action.getDirection();
-                actionEndTime = currentTime - difference + action.getDuration();
-                updateVelocity(difference);
-            } else {
+        double currentTime = clock.getTime();
+        if (currentTime < actionEndTime) return; // action running
+        statusTextDirty = true;
+
+        double difference = currentTime - actionEndTime;
+        double startTime = difference <= deltaTime ? actionEndTime : currentTime; // the next action starts, where the last one ended
+        double height = getHeight(startTime), speed = getSpeed(startTime);
+        currentFloor = (int) Math.round(height / profile.getFloorHeight());
+
+        if (!actionQueue.isEmpty()) { // get next action from queue
+            double duration = actionQueue.getFirstDuration();
+            currentStatus = actionQueue.getFirstStatus();
+            currentDirection = actionQueue.getFirstDirection();
+            actionQueue.removeFirst();
+            queuedActionTime = actionQueue.isEmpty() ? 0d : queuedActionTime - duration;
+            if (currentStatus == Status.WAITING) { // the elevator stopped, so it has to be exactly at a floor
+                height = currentFloor * profile.getFloorHeight();
                 speed = 0d;
-                velocity = speed;
-                currentStatus = Status.IDLE;
-                evaluateActions();
             }
-        } else { // action running
-            updateVelocity(deltaTime);
+            startAction(startTime, height, speed);
+            actionEndTime = startTime + duration;
+            metrics.addBusyTime(duration);
+            if (traceRecorder != null) {
+                traceRecorder.recordAction(startTime, index, currentStatus, currentDirection, duration);
+            }
+        } else {
+            currentStatus = Status.IDLE;
+            startAction(currentTime, currentFloor * profile.getFloorHeight(), 0d);
+            evaluateActions();
         }
     }
 
     /**
-     * Updates only the velocity (depending on currentStatus and currentDirection).
-     * @param deltaTime time since last call in seconds
+     * Sets the start of the motion of the current Action.
+     * @param startTime simulation time in seconds
+     * @param height in m
+     * @param speed in m/s
+     */
+    private void startAction(double startTime, double height, double speed) {
+        actionStartTime = startTime;
+        actionStartHeight = height;
+        actionStartSpeed = speed;
+        actionAcceleration = profile.getAcceleration();
+        actionMaxSpeed = profile.getMaxSpeed();
+    }
+
+    /**
+     * @param time simulation time in seconds
+     * @return time since the start of the current Action (between 0 and its duration)
+     */
+    private double getActionTime(double time) {
+        return Math.max(Math.min(time, actionEndTime) - actionStartTime, 0d);
+    }
+
+    /**
+     * Calculates the speed during the current Action (depending on currentStatus).
+     * @param time simulation time in seconds
+     * @return speed in m/s
      */
-    private void updateVelocity(double deltaTime) {
-        switch (currentStatus) {
+    private double getSpeed(double time) {
+        double t = getActionTime(time);
+        return switch (currentStatus) {
+            case ACCELERATING -> Math.min(actionStartSpeed + actionAcceleration * t, actionMaxSpeed);
+            case MOVING -> actionStartSpeed;
+            case DECELERATING, WAITING -> Math.max(actionStartSpeed - actionAcceleration * t, 0d);
+            default -> 0d;
+        };
+    }
+
+    /**
+     * Calculates the height during the current Action (depending on currentStatus and currentDirection).
+     * @param time simulation time in seconds
+     * @return height in m
+     */
+    private double getHeight(double time) {
+        double t = getActionTime(time), v0 = actionStartSpeed, a = actionAcceleration;
+        double distance = switch (currentStatus) {
             case ACCELERATING -> {
-                speed += ACCELERATION * deltaTime;
-                speed = Math.min(speed, MAX_SPEED);
+                double timeToMaxSpeed = (actionMaxSpeed - v0) / a;
+                yield t <= timeToMaxSpeed ? v0 * t + a * t * t / 2
+                        : v0 * timeToMaxSpeed + a * timeToMaxSpeed * timeToMaxSpeed / 2 + actionMaxSpeed * (t - timeToMaxSpeed);
             }
+            case MOVING -> v0 * t;
             case DECELERATING, WAITING -> {
-                speed -= ACCELERATION * deltaTime;
-                speed = Math.max(speed, 0d);
+                double timeToStop = v0 / a;
+                yield t <= timeToStop ? v0 * t - a * t * t / 2 : v0 * timeToStop / 2;
             }
-        }
-        switch (currentDirection) {
-            case UP, NONE -> velocity = speed;
-            case DOWN -> velocity = -speed;
-        }
+            default -> 0d;
+        };
+        return actionStartHeight + (currentDirection == Direction.DOWN ? -distance : distance);
     }
 
     /**
-     * Evaluates the following actions, depending on the requestQueue.
+     * Evaluates the following actions, depending on the requestQueue (or the StopPlan).
      */
     private void evaluateActions() {
-        if (requestQueue.peek() != null) {
-            if (requestQueue.peek().getOriginFloor() == currentFloor && currentStatus == Status.IDLE) {
-                Request request = requestQueue.remove();
-                nextDestinationFloor = request.getDestinationFloor();
-                numberOfPassengers = request.getNumberOfPassengers();
-            } else {
-                nextDestinationFloor = requestQueue.peek().getOriginFloor(); // here IntelliJ does not get, that it is within a null check
-                numberOfPassengers = 0;
-            }
-            double displacement = nextDestinationFloor * TowerConstants.FLOOR_HEIGHT - position.y;
-            double distance = Math.abs(displacement);
-
-            Direction direction = Direction.NONE;
-            if (distance < MAX_DELTA) { // ???
+        if (stopPlan != null) {
+            evaluateStops();
+            return;
+        }
+        double currentTime = clock.getTime();
+        for (int i = 0; i < numberOfPassengers; i++) { // all Actions are done, so the passengers arrived
+            metrics.recordDropOff(ridingArrivalTimes[i], currentTime);
+        }
+        if (!requestQueue.isEmpty()) {
+            int originFloor = requestQueue.getOriginFloor(0);
+            int stopPassengers; // getting in or out at the next stop
+            if (originFloor == currentFloor && currentStatus == Status.IDLE && boardingTimeDone == 0d && profile.getBoardingTime() > 0d) {
+                numberOfPassengers = 0; // boarding where the last passengers got out, so it was not queued yet: the pickup follows after it
+                boardingTimeDone = profile.getBoardingTime() * requestQueue.getNumberOfPassengers(0);
+                requestTimeDone += boardingTimeDone;
+                queueBoarding(requestQueue.getNumberOfPassengers(0));
                 return;
-            } else if (displacement < 0) {
-                direction = Direction.DOWN;
-            } else if (displacement > 0) {
-                direction = Direction.UP;
             }
-
-            if (distance > DISTANCE_TO_ACCELERATE * 2) {
-                actionQueue.add(new Action(TIME_TO_ACCELERATE, Status.ACCELERATING, direction));
-                actionQueue.add(new Action((distance - DISTANCE_TO_ACCELERATE * 2) / MAX_SPEED, Status.MOVING, direction));
-                actionQueue.add(new Action(TIME_TO_ACCELERATE, Status.DECELERATING, direction)); // evt. static Methods für die Actions?! Action.brake(timeToAccelerate, direction)
+            if (originFloor == currentFloor && currentStatus == Status.IDLE) {
+                int destinationFloor = requestQueue.getDestinationFloor(0);
+                numberOfPassengers = requestQueue.getNumberOfPassengers(0);
+                for (int i = 0; i < numberOfPassengers; i++) {
+                    ridingArrivalTimes[i] = requestQueue.getArrivalTime(0, i);
+                    metrics.recordPickup(ridingArrivalTimes[i], currentTime);
+                }
+                requestQueue.removeFirst();
+                setNextDestinationFloor(originFloor);
+                double boardingTime = profile.getBoardingTime() * numberOfPassengers;
+                requestTimeDone += profile.getTravelAndWaitingTime(originFloor, destinationFloor) + boardingTime * 2 - boardingTimeDone;
+                boardingTimeDone = 0d;
+                nextDestinationFloor = destinationFloor;
+                stopPassengers = numberOfPassengers;
+                if (requestQueue.isEmpty()) { // start the running totals from 0 again
+                    requestTimeTotal = 0d;
+                    requestTimeDone = 0d;
+                }
             } else {
-                double halfTime = Math.sqrt(distance / ACCELERATION);
-                actionQueue.add(new Action(halfTime, Status.ACCELERATING, direction));
-                actionQueue.add(new Action(halfTime, Status.DECELERATING, direction));
+                setNextDestinationFloor(originFloor);
+                numberOfPassengers = 0;
+                stopPassengers = requestQueue.getNumberOfPassengers(0);
+                boardingTimeDone = profile.getBoardingTime() * stopPassengers; // is queued now
+                requestTimeDone += boardingTimeDone;
             }
-            actionQueue.add(new Action(WAITING_TIME, Status.WAITING, Direction.NONE));
+            if (nextDestinationFloor == currentFloor) return; // already there
+            double displacement = (nextDestinationFloor - currentFloor) * profile.getFloorHeight();
+            double distance = Math.abs(displacement);
+            queueTravel(0d, distance, displacement < 0 ? Direction.DOWN : Direction.UP);
+            queueAction(profile.getDwellTime(stopPassengers), Status.WAITING, Direction.NONE);
         } else {
             currentStatus = Status.IDLE;
             numberOfPassengers = 0;
         }
     }
 
+    /**
+     * Evaluates the following actions in collective control: serves the stops at the current floor
+     * and queues the travel to the next stop of the StopPlan.
+     */
+    private void evaluateStops() {
+        double currentTime = clock.getTime();
+        while (!stopPlan.isEmpty() && stopPlan.getFloor(0) == currentFloor) {
+            stopPlan.processFirstStop(metrics, currentTime);
+        }
+        numberOfPassengers = stopPlan.getRidingPassengers();
+        if (stopPlan.isEmpty()) return;
+        nextDestinationFloor = stopPlan.getFloor(0);
+        double displacement = (nextDestinationFloor - currentFloor) * profile.getFloorHeight();
+        queueTravel(0d, Math.abs(displacement), displacement < 0 ? Direction.DOWN : Direction.UP);
+        queueAction(profile.getDwellTime(stopPlan.getPassengersAt(0)), Status.WAITING, Direction.NONE);
+    }
+
     @Override
     public void fixedUpdate(double deltaTime) {
         updateStatus(deltaTime);
-        position.y += velocity * deltaTime;
     }
 
     @Override
-    public void render(Graphics2D g, float interpolation) {
-        double displayElevation = position.y + velocity * interpolation * SimulationConstants.FIXED_DELTA_TIME;
-        Point pixelPos = new Point((int) position.x, View.HEIGHT - (int) Math.round(displayElevation / TowerConstants.FLOOR_HEIGHT * SimulationConstants.FLOOR_HEIGHT_PIXEL) - SimulationConstants.FLOOR_HEIGHT_PIXEL + (SimulationConstants.FLOOR_HEIGHT_PIXEL - PIXEL_HEIGHT));
-        g.setColor(Color.BLACK);
-        g.fillRect(pixelPos.x, pixelPos.y, PIXEL_WIDTH, PIXEL_HEIGHT);
-        g.setColor(Color.ORANGE);
-        String elevationString = String.format("%.2fm", Math.abs(position.y));
-        g.drawString(elevationString, pixelPos.x, pixelPos.y + PIXEL_HEIGHT - 2);
+    public double getDisplayHeight(float interpolation) {
+        return getHeight(clock.getTime() + interpolation * clock.getFixedDeltaTime());
+    }
+
+    /**
+     * The text is cached and only built again, when the displayed height changed by at least 1cm.
+     * @param interpolation between fixedUpdates (0.0 - 1.0)
+     * @return the height like '12.34m'
+     */
+    @Override
+    public String getDisplayText(float interpolation) {
+        long centimeters = Math.round(Math.abs(getDisplayHeight(interpolation)) * 100d);
+        if (centimeters != elevationCentimeters) {
+            elevationCentimeters = centimeters;
+            elevationText = appendMeters(new StringBuilder(8), centimeters).toString();
+        }
+        return elevationText;
     }
 
+    /**
+     * The text is cached: the part after the height only gets built again, when the state changed
+     * (new Action or Request), and the whole text only, when the height changed as well.
+     * @return floor, height, status, direction, next destination, passengers and requestQueue
+     */
     @Override
     public String getStatusText() {
-        String status = String.valueOf(currentStatus);
-        String direction = String.valueOf(currentDirection);
-        try {
-            return String.format("%d - %.2fm " + status.toLowerCase() + " " + direction.toLowerCase() + " -> " + nextDestinationFloor + " (" + numberOfPassengers + ") " + requestQueue, currentFloor, Math.abs(position.y));
-        } catch (NullPointerException ignored) {
-            return String.format("%d - %.2fm " + status.toLowerCase() + " " + direction.toLowerCase() + " -> " + nextDestinationFloor + " (" + numberOfPassengers + ") ", currentFloor, Math.abs(position.y));
+        double height = getHeight();
+        long centimeters = Math.round(Math.abs(height) * 100d);
+        if (statusTextDirty) {
+            statusTail = " " + currentStatus.name().toLowerCase() + " " + currentDirection.name().toLowerCase()
+                    + " -> " + nextDestinationFloor + " (" + numberOfPassengers + ") " + (stopPlan != null ? stopPlan : requestQueue);
+        } else if (centimeters == statusCentimeters) {
+            return statusText;
         }
+        statusTextDirty = false;
+        statusCentimeters = centimeters;
+        StringBuilder text = new StringBuilder(24 + statusTail.length());
+        text.append(Math.round(height / profile.getFloorHeight())).append(" - ");
+        statusText = appendMeters(text, centimeters).append(statusTail).toString();
+        return statusText;
+    }
+
+    /**
+     * Appends a height like String.format("%.2fm"), without parsing a format each time.
+     * @param text the StringBuilder
+     * @param centimeters the height in cm (not negative)
+     * @return the StringBuilder
+     */
+    private static StringBuilder appendMeters(StringBuilder text, long centimeters) {
+        long fraction = centimeters % 100;
+        return text.append(centimeters / 100).append(fraction < 10 ? ".0" : ".").append(fraction).append('m');
     }
 }
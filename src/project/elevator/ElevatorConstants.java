@@ -4,13 +4,12 @@ package project.elevator;
  * Constants for ALL elevators
  */
 public class ElevatorConstants {
-    static final double MAX_SPEED = 8.0;    // m/s
-    static final double ACCELERATION = 1.5; // m/s^2
-    static final int CAPACITY = 3;
-    static final double MAX_DELTA = 0.01;
-    static final double WAITING_TIME = 10;
-    static final int PIXEL_WIDTH = 10;
-    static final int PIXEL_HEIGHT = 10;
+    public static final double MAX_SPEED = 8.0;    // m/s
+    public static final double ACCELERATION = 1.5; // m/s^2
+    public static final int CAPACITY = 3;
+    public static final double WAITING_TIME = 10;
+    public static final double BOARDING_TIME = 0d; // s per passenger getting in or out, on top of the WAITING_TIME of a stop
+    static final double FLOOR_TOLERANCE = 1e-6; // m, closer counts as at the floor
 
     // Calculated
     static final double DISTANCE_TO_ACCELERATE = (MAX_SPEED * MAX_SPEED) / (ACCELERATION * 2);
@@ -0,0 +1,189 @@
+package project.elevator;
+
+import project.tower.TowerConstants;
+
+import static project.elevator.ElevatorConstants.*;
+
+/**
+ * Kinematic profile of an elevator car (max. speed, acceleration and waiting time at each stop, for a floor height),
+ * and the boarding time per passenger, which makes stops with more passengers longer.<br>
+ * Precalculates the travel time for every floor distance of the Tower once,
+ * so time estimations are just array reads. Profiles are immutable: a car gets a new profile (and so a new table),
+ * if its kinematics change.
+ */
+public class ElevatorProfile {
+    public static final ElevatorProfile DEFAULT = new ElevatorProfile(MAX_SPEED, ACCELERATION, WAITING_TIME);
+
+    private final double maxSpeed;     // m/s
+    private final double acceleration; // m/s^2
+    private final double waitingTime;  // s
+    private final double boardingTime; // s per passenger getting in or out
+    private final double floorHeight;  // m
+    private final double distanceToAccelerate, timeToAccelerate;
+    private final double[] travelTimes;           // index is the floor distance
+    private final double[] travelAndWaitingTimes; // index is the floor distance
+
+    /**
+     * Creates a profile with a table for NUMBER_OF_FLOORS.
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2 (also used for decelerating)
+     * @param waitingTime at each stop in seconds
+     */
+    public ElevatorProfile(double maxSpeed, double acceleration, double waitingTime) {
+        this(maxSpeed, acceleration, waitingTime, TowerConstants.NUMBER_OF_FLOORS);
+    }
+
+    /**
+     * Creates a profile with the FLOOR_HEIGHT of the TowerConstants.
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2 (also used for decelerating)
+     * @param waitingTime at each stop in seconds
+     * @param numberOfFloors highest floor, larger distances are calculated on demand
+     */
+    public ElevatorProfile(double maxSpeed, double acceleration, double waitingTime, int numberOfFloors) {
+        this(maxSpeed, acceleration, waitingTime, numberOfFloors, TowerConstants.FLOOR_HEIGHT);
+    }
+
+    /**
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2 (also used for decelerating)
+     * @param waitingTime at each stop in seconds
+     * @param numberOfFloors highest floor, larger distances are calculated on demand
+     * @param floorHeight in m
+     */
+    public ElevatorProfile(double maxSpeed, double acceleration, double waitingTime, int numberOfFloors, double floorHeight) {
+        this(maxSpeed, acceleration, waitingTime, BOARDING_TIME, numberOfFloors, floorHeight);
+    }
+
+    /**
+     * @param maxSpeed in m/s
+     * @param acceleration in m/s^2 (also used for decelerating)
+     * @param waitingTime at each stop in seconds
+     * @param boardingTime in seconds per passenger getting in or out, on top of the waiting time
+     * @param numberOfFloors highest floor, larger distances are calculated on demand
+     * @param floorHeight in m
+     */
+    public ElevatorProfile(double maxSpeed, double acceleration, double waitingTime, double boardingTime, int numberOfFloors, double floorHeight) {
+        if (maxSpeed <= 0d || acceleration <= 0d || waitingTime < 0d || boardingTime < 0d || floorHeight <= 0d) {
+            throw new IllegalArgumentException("Speed, acceleration and floor height have to be positive, waiting and boarding time must not be negative!");
+        }
+        this.maxSpeed = maxSpeed;
+        this.acceleration = acceleration;
+        this.waitingTime = waitingTime;
+        this.boardingTime = boardingTime;
+        this.floorHeight = floorHeight;
+        distanceToAccelerate = (maxSpeed * maxSpeed) / (acceleration * 2);
+        timeToAccelerate = maxSpeed / acceleration;
+        travelTimes = new double[numberOfFloors + 1];
+        travelAndWaitingTimes = new double[numberOfFloors + 1];
+        for (int distance = 1; distance <= numberOfFloors; distance++) {
+            travelTimes[distance] = calculateTravelTime(distance);
+            travelAndWaitingTimes[distance] = travelTimes[distance] + waitingTime;
+        }
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public double getAcceleration() {
+        return acceleration;
+    }
+
+    public double getWaitingTime() {
+        return waitingTime;
+    }
+
+    /**
+     * @return seconds per passenger getting in or out
+     */
+    public double getBoardingTime() {
+        return boardingTime;
+    }
+
+    /**
+     * @param passengers number of passengers getting in or out
+     * @return how long the elevator stays at a stop in seconds
+     */
+    public double getDwellTime(int passengers) {
+        return waitingTime + boardingTime * passengers;
+    }
+
+    /**
+     * @return height of one floor in m
+     */
+    public double getFloorHeight() {
+        return floorHeight;
+    }
+
+    public double getDistanceToAccelerate() {
+        return distanceToAccelerate;
+    }
+
+    public double getTimeToAccelerate() {
+        return timeToAccelerate;
+    }
+
+    /**
+     * @param floor1 origin floor
+     * @param floor2 destination floor
+     * @return pure travel time between the floors in seconds
+     */
+    public double getTravelTime(int floor1, int floor2) {
+        int distance = Math.abs(floor2 - floor1);
+        return distance < travelTimes.length ? travelTimes[distance] : calculateTravelTime(distance);
+    }
+
+    /**
+     * @param floor1 origin floor
+     * @param floor2 destination floor
+     * @return travel time plus waiting time in seconds, or 0 if the floors are the same
+     */
+    public double getTravelAndWaitingTime(int floor1, int floor2) {
+        int distance = Math.abs(floor2 - floor1);
+        return distance < travelAndWaitingTimes.length ? travelAndWaitingTimes[distance] : calculateTravelTime(distance) + waitingTime;
+    }
+
+    /**
+     * @param startSpeed current speed in m/s
+     * @param distance in m until the stop (at least the stopping distance)
+     * @return highest speed on the way in m/s: accelerating from the start speed and decelerating just in time, at most max. speed
+     */
+    public double getPeakSpeed(double startSpeed, double distance) {
+        return Math.min(Math.sqrt(acceleration * distance + startSpeed * startSpeed / 2), maxSpeed);
+    }
+
+    /**
+     * @param speed current speed in m/s
+     * @return distance in m, which the car needs to stop
+     */
+    public double getStoppingDistance(double speed) {
+        return speed * speed / (acceleration * 2);
+    }
+
+    /**
+     * Calculates the pure travel time until a stop for a car, which is already moving (e.g. to stop on the way).
+     * @param startSpeed current speed in m/s
+     * @param distance in m until the stop (at least the stopping distance)
+     * @return time as double in seconds
+     */
+    public double getTravelTime(double startSpeed, double distance) {
+        double peakSpeed = getPeakSpeed(startSpeed, distance);
+        double movingDistance = distance - (peakSpeed * peakSpeed * 2 - startSpeed * startSpeed) / (acceleration * 2);
+        return (peakSpeed - startSpeed) / acceleration + Math.max(movingDistance, 0d) / peakSpeed + peakSpeed / acceleration;
+    }
+
+    /**
+     * Calculates the pure travel time for a floor distance:
+     * accelerate, move at max. speed and decelerate, or only accelerate and decelerate if the distance is too short.
+     * @param floorDistance number of floors
+     * @return time as double in seconds
+     */
+    private double calculateTravelTime(int floorDistance) {
+        double distance = floorDistance * floorHeight;
+        if (distance > distanceToAccelerate * 2) {
+            return (distance - distanceToAccelerate * 2) / maxSpeed + timeToAccelerate * 2;
+        }
+        return Math.sqrt(distance / acceleration) * 2;
+    }
+}
@@ -4,12 +4,24 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import project.enums.Direction;
+import project.enums.Status;
+import project.simulation.SimulationClock;
 import project.tower.TowerConstants;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static project.elevator.ElevatorConstants.*;
 
 /**
@@ -40,6 +52,22 @@ public class ElevatorTest {
         assertEquals(expectedTime, result, 0.0001d); // lower delta as very little time has passed
     }
 
+    @ParameterizedTest
+    @MethodSource("timeToFloorParameters_requestQueue")
+    void calculateTimeToFloor_afterSetProfile(int startingFloor, List<Request> requests, Request mewRequest, double ignored) {
+        ElevatorProfile fastProfile = new ElevatorProfile(10.0, 2.0, 5);
+        Elevator elevator = new Elevator(0, startingFloor);
+        Elevator expectedElevator = new Elevator(0, startingFloor, new SimulationClock(), fastProfile);
+        for (var request : requests) {
+            elevator.addRequest(request);
+            expectedElevator.addRequest(request);
+        }
+        elevator.setProfile(fastProfile);
+        boolean waitingQueued = !requests.isEmpty() && requests.get(0).getOriginFloor() == startingFloor; // queued Actions keep their duration
+        double expectedTime = expectedElevator.calculateTimeToRequest(mewRequest) + (waitingQueued ? WAITING_TIME - fastProfile.getWaitingTime() : 0d);
+        assertEquals(expectedTime, elevator.calculateTimeToRequest(mewRequest), 0.00001d);
+    }
+
     private static Stream<Arguments> timeToFloorParameters_requestQueue() {
         return Stream.of(
                 Arguments.of( // 1
@@ -70,9 +98,190 @@ public class ElevatorTest {
                 ), Arguments.of( // 9
                         0, List.of(new Request(0, 20), new Request(0, 30)), new Request(20, 0),
                         WAITING_TIME + Elevator.calculateTravelTime(0, 20) + WAITING_TIME
+                ), Arguments.of( // 10
+                        0, List.of(new Request(0, 20), new Request(30, 0), new Request(0, 10)), new Request(20, 30),
+                        WAITING_TIME + Elevator.calculateTravelTime(0, 20) + WAITING_TIME
+                ), Arguments.of( // 11
+                        0, List.of(new Request(0, 20), new Request(20, 0), new Request(0, 10), new Request(30, 0)), new Request(10, 30),
+                        WAITING_TIME + Elevator.calculateTravelTime(0, 20) + WAITING_TIME + Elevator.calculateTravelTime(20, 0) + WAITING_TIME
+                                + Elevator.calculateTravelTime(0, 10) + WAITING_TIME
+                ));
+    }
+
+    @ParameterizedTest
+    @MethodSource("collectiveParameters")
+    void collective_timeToRequestMatchesPickup(List<Request> requests, double secondsBefore, Request newRequest, double expectedTime) {
+        SimulationClock clock = new SimulationClock();
+        Elevator elevator = createCollectiveElevator(clock);
+        for (var request : requests) {
+            elevator.addRequest(request);
+        }
+        runUntil(elevator, clock, secondsBefore);
+        double earlierArrival = 1000d; // so its wait time is the max.
+        var arrivingRequest = new Request(newRequest.getOriginFloor(), newRequest.getDestinationFloor(), clock.getTime() - earlierArrival);
+        assertEquals(expectedTime, elevator.calculateTimeToRequest(arrivingRequest), 0.00001d);
+
+        elevator.addRequest(arrivingRequest);
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        assertTrue(elevator.isIdle());
+        assertEquals(requests.size() + 1, elevator.getMetrics().getJourneyTimes().getCount(), "everybody arrived");
+        assertEquals(expectedTime + earlierArrival, elevator.getMetrics().getWaitTimes().getMax(), 0.00001d);
+    }
+
+    private static Stream<Arguments> collectiveParameters() {
+        double travelTo20 = Elevator.calculateTravelTime(0, 20);
+        return Stream.of(
+                Arguments.of( // pickup on the way up, drop-off before the stop at 20
+                        List.of(new Request(0, 20)), 0d, new Request(5, 15),
+                        WAITING_TIME + Elevator.calculateTravelTime(0, 5) + WAITING_TIME
+                ), Arguments.of( // moving at 6 m/s after 4s of accelerating, can still stop at floor 10
+                        List.of(new Request(0, 20)), WAITING_TIME + 4d, new Request(10, 20),
+                        ElevatorProfile.DEFAULT.getTravelTime(6d, 10 * TowerConstants.FLOOR_HEIGHT - 12d) + WAITING_TIME
+                ), Arguments.of( // floor 2 is already behind, so it is appended after the stop at 20
+                        List.of(new Request(0, 20)), WAITING_TIME + 4d, new Request(2, 15),
+                        travelTo20 + WAITING_TIME - 4d + Elevator.calculateTravelTime(20, 2) + WAITING_TIME
+                ), Arguments.of( // too fast to stop at floor 4, also appended
+                        List.of(new Request(0, 20)), WAITING_TIME + 4d, new Request(4, 15),
+                        travelTo20 + WAITING_TIME - 4d + Elevator.calculateTravelTime(20, 4) + WAITING_TIME
+                ), Arguments.of( // pickup on the way down from 20 to 5
+                        List.of(new Request(0, 20), new Request(20, 5)), 0d, new Request(10, 2),
+                        WAITING_TIME + travelTo20 + WAITING_TIME + Elevator.calculateTravelTime(20, 10) + WAITING_TIME
+                ), Arguments.of( // joins the stop at 20
+                        List.of(new Request(0, 20), new Request(30, 0)), 0d, new Request(20, 25),
+                        WAITING_TIME + travelTo20 + WAITING_TIME
                 ));
     }
 
+    @ParameterizedTest
+    @CsvSource({"1, 5", "2, 5", "3, 20"})
+    void collective_respectsCapacity(int passengers, int expectedStop) {
+        SimulationClock clock = new SimulationClock();
+        Elevator elevator = createCollectiveElevator(clock);
+        elevator.addRequest(new Request(0, 20));
+        for (int i = 1; i < passengers; i++) {
+            assertTrue(elevator.tryAddPassenger(new Request(0, 20)));
+        }
+        double expectedTime = WAITING_TIME + (expectedStop == 5 ? Elevator.calculateTravelTime(0, 5)
+                : Elevator.calculateTravelTime(0, 20) + WAITING_TIME + Elevator.calculateTravelTime(20, 5)) + WAITING_TIME;
+        assertEquals(expectedTime, elevator.calculateTimeToRequest(new Request(5, 15)), 0.00001d);
+        assertEquals(passengers < CAPACITY, elevator.tryAddPassenger(new Request(0, 20)));
+
+        elevator.addRequest(new Request(5, 15));
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        assertEquals(Math.min(passengers + 1, CAPACITY) + 1, elevator.getMetrics().getJourneyTimes().getCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false", "true"})
+    void collective_fewerStopsThanSequential(boolean collective) {
+        SimulationClock clock = new SimulationClock();
+        Elevator elevator = collective ? createCollectiveElevator(clock) : new Elevator(0, 0, clock);
+        for (var request : List.of(new Request(0, 30), new Request(5, 20), new Request(10, 30), new Request(20, 25))) {
+            elevator.addRequest(request);
+        }
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        assertEquals(4, elevator.getMetrics().getJourneyTimes().getCount());
+        double collectiveTime = WAITING_TIME + Elevator.calculateTravelTime(0, 5) + WAITING_TIME + Elevator.calculateTravelTime(5, 10)
+                + WAITING_TIME + Elevator.calculateTravelTime(10, 20) + WAITING_TIME + Elevator.calculateTravelTime(20, 25)
+                + WAITING_TIME + Elevator.calculateTravelTime(25, 30) + WAITING_TIME;
+        assertEquals(collective, Math.abs(clock.getTime() - collectiveTime) < 0.00001d, "finished at " + clock.getTime());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false, 0", "false, 15", "false, 40", "true, 0", "true, 15", "true, 40"})
+    void boardingTime_timeToRequestMatchesPickup(boolean collective, double secondsBefore) {
+        SimulationClock clock = new SimulationClock();
+        var profile = new ElevatorProfile(MAX_SPEED, ACCELERATION, WAITING_TIME, 2d, TowerConstants.NUMBER_OF_FLOORS, TowerConstants.FLOOR_HEIGHT);
+        Elevator elevator = new Elevator(0, 0, clock, profile, 4, null, collective);
+        elevator.addRequest(new Request(0, 20, 0d, 2));
+        elevator.addRequest(new Request(10, 30, 0d, 1));
+        assertTrue(elevator.tryAddPassenger(new Request(10, 30, 0d, 1))); // 4 riding between floor 10 and 20 in collective control
+        runUntil(elevator, clock, secondsBefore);
+        double earlierArrival = 1000d; // so its wait time is the max.
+        var arrivingRequest = new Request(30, 5, clock.getTime() - earlierArrival, 3);
+        double expectedTime = elevator.calculateTimeToRequest(arrivingRequest);
+
+        elevator.addRequest(arrivingRequest);
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        assertTrue(elevator.isIdle());
+        assertEquals(7, elevator.getMetrics().getJourneyTimes().getCount(), "everybody arrived");
+        assertEquals(expectedTime + earlierArrival, elevator.getMetrics().getWaitTimes().getMax(), 0.00001d);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false", "true"})
+    void boardingTime_makesStopsLonger(boolean collective) {
+        SimulationClock clock = new SimulationClock();
+        var profile = new ElevatorProfile(MAX_SPEED, ACCELERATION, WAITING_TIME, 2d, TowerConstants.NUMBER_OF_FLOORS, TowerConstants.FLOOR_HEIGHT);
+        Elevator elevator = new Elevator(0, 0, clock, profile, 4, null, collective);
+        elevator.addRequest(new Request(0, 20, 0d, 3));
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        double expectedTime = WAITING_TIME + 2d * 3 + Elevator.calculateTravelTime(0, 20) + WAITING_TIME + 2d * 3;
+        assertEquals(expectedTime, clock.getTime(), 0.00001d);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false", "true"})
+    void addRequest_rejectsMorePassengersThanCapacity(boolean collective) {
+        Elevator elevator = new Elevator(0, 0, new SimulationClock(), ElevatorProfile.DEFAULT, CAPACITY, null, collective);
+        assertThrows(IllegalArgumentException.class, () -> elevator.addRequest(new Request(0, 20, 0d, CAPACITY + 1)));
+        elevator.addRequest(new Request(0, 20, 0d, CAPACITY - 1));
+        assertFalse(elevator.tryAddPassenger(new Request(0, 20, 0d, 2)));
+        assertTrue(elevator.tryAddPassenger(new Request(0, 20, 0d, 1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false, 20", "false, 10", "false, 35", "true, 20", "true, 10", "true, 35"})
+    void park_timeToRequestMatchesPickup(boolean collective, int originFloor) {
+        SimulationClock clock = new SimulationClock();
+        Elevator elevator = new Elevator(0, 0, clock, ElevatorProfile.DEFAULT, CAPACITY, null, collective);
+        elevator.park(20);
+        runUntil(elevator, clock, 3d);
+        assertFalse(elevator.hasWork());
+        double earlierArrival = 1000d; // so its wait time is the max.
+        var request = new Request(originFloor, 0, clock.getTime() - earlierArrival);
+        double expectedTime = elevator.calculateTimeToRequest(request);
+
+        elevator.addRequest(request);
+        runUntil(elevator, clock, Double.POSITIVE_INFINITY);
+        assertTrue(elevator.isIdle());
+        assertEquals(1, elevator.getMetrics().getJourneyTimes().getCount());
+        assertEquals(expectedTime + earlierArrival, elevator.getMetrics().getWaitTimes().getMax(), 0.00001d);
+    }
+
+    private static Elevator createCollectiveElevator(SimulationClock clock) {
+        return new Elevator(0, 0, clock, ElevatorProfile.DEFAULT, CAPACITY, null, true);
+    }
+
+    /**
+     * Updates the elevator at its events (like the event driven Simulation), until it is idle or the end time is reached.
+     */
+    private static void runUntil(Elevator elevator, SimulationClock clock, double endTime) {
+        double time;
+        while ((time = elevator.getNextUpdateTime()) <= endTime && time != Double.POSITIVE_INFINITY) {
+            clock.advanceTo(time);
+            elevator.fixedUpdate(0d);
+        }
+        if (endTime != Double.POSITIVE_INFINITY) clock.advanceTo(endTime);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0.0", "1.5", "3.7", "12.0", "25.0", "40.0"})
+    void getStatusText_cachedUntilStateOrHeightChanges(double seconds) {
+        SimulationClock clock = new SimulationClock();
+        Elevator elevator = new Elevator(0, 0, clock);
+        elevator.addRequest(new Request(0, 15));
+        elevator.addRequest(new Request(15, 3));
+        for (double time = 0d; time < seconds; time += 0.04d) {
+            elevator.fixedUpdate(0.04d);
+            clock.advance(0.04d);
+        }
+        String text = elevator.getStatusText();
+        assertTrue(text.startsWith(String.format(Locale.ROOT, "%d - %.2fm ", elevator.getCurrentFloor(), Math.abs(elevator.getHeight()))), text);
+        assertTrue(text.endsWith("[15-3 (1)]") || text.endsWith("[0-15 (1), 15-3 (1)]") || text.endsWith("[]"), text);
+        assertTrue(text == elevator.getStatusText(), "nothing changed, so the text is not built again");
+    }
+
     @ParameterizedTest
     @CsvSource({
             "0, 0, 0d",
@@ -106,6 +315,30 @@ public class ElevatorTest {
         assertEquals(expectedTime, result, 0.0000000001d);
     }
 
+    @ParameterizedTest
+    @CsvSource({"0, 1", "0, 10", "3, 30", "55, 0", "0, 100", "250, 0"})
+    void getTravelTime_tableMatchesCalculation(int originFloor, int destinationFloor) {
+        ElevatorProfile profile = ElevatorProfile.DEFAULT, smallTable = new ElevatorProfile(MAX_SPEED, ACCELERATION, WAITING_TIME, 0);
+        assertEquals(smallTable.getTravelTime(originFloor, destinationFloor), profile.getTravelTime(originFloor, destinationFloor));
+        assertEquals(smallTable.getTravelAndWaitingTime(originFloor, destinationFloor), profile.getTravelAndWaitingTime(originFloor, destinationFloor));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"12, 5", "12, -1", "13, 3", "13, 127"})
+    void actionQueue_readFromRejectsUnknownStatusOrDirection(int offset, int value) throws IOException {
+        ActionQueue queue = new ActionQueue(2);
+        queue.add(1.5, Status.MOVING, Direction.UP);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        queue.writeTo(new DataOutputStream(bytes));
+        byte[] written = bytes.toByteArray(); // number of Actions, duration, status, direction
+        new ActionQueue(2).readFrom(new DataInputStream(new ByteArrayInputStream(written)));
+
+        written[offset] = (byte) value;
+        IOException e = assertThrows(IOException.class,
+                () -> new ActionQueue(2).readFrom(new DataInputStream(new ByteArrayInputStream(written))));
+        assertTrue(e.getMessage().startsWith("Invalid status"), e.getMessage());
+    }
+
     private static Stream<Arguments> travelTimeParameters() {
         return Stream.of(
                 Arguments.of(0, 1, Math.sqrt(TowerConstants.FLOOR_HEIGHT / ACCELERATION) * 2),
@@ -0,0 +1,220 @@
+package project.elevator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Index of the empty runs in a requestQueue, with the cumulative request time at the start of each run.<br>
+ * Maps (fromFloor, toFloor) to the start times of all empty runs between these floors in queue order.
+ * Uses an open addressing hash table and a node pool of primitive arrays, so it does not allocate any objects
+ * (unless it has to grow).
+ */
+class EmptyRunIndex {
+    private static final int NONE = -1;
+
+    // hash table (linear probing): key -> first and last node of its runs
+    private long[] keys;
+    private int[] firstNodes;
+    private int[] lastNodes;
+    private int numberOfKeys;
+
+    // node pool: one node per empty run
+    private double[] startTimes;
+    private int[] nextNodes;
+    private int freeNode, usedNodes;
+
+    EmptyRunIndex(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+        keys = new long[capacity * 2];
+        firstNodes = new int[capacity * 2];
+        lastNodes = new int[capacity * 2];
+        Arrays.fill(firstNodes, NONE);
+        startTimes = new double[capacity];
+        nextNodes = new int[capacity];
+        freeNode = NONE;
+    }
+
+    /**
+     * Adds an empty run behind all other runs between the same floors.
+     * @param fromFloor floor where the empty run starts
+     * @param toFloor floor where the empty run ends
+     * @param startTime cumulative request time at the start of the run
+     */
+    void add(int fromFloor, int toFloor, double startTime) {
+        int node = newNode(startTime);
+        long key = key(fromFloor, toFloor);
+        int slot = indexOf(key);
+        if (slot == NONE) {
+            if ((numberOfKeys + 1) * 2 > keys.length) rehash(keys.length * 2);
+            slot = hash(key) & (keys.length - 1);
+            while (firstNodes[slot] != NONE) slot = (slot + 1) & (keys.length - 1);
+            keys[slot] = key;
+            firstNodes[slot] = node;
+            numberOfKeys++;
+        } else {
+            nextNodes[lastNodes[slot]] = node;
+        }
+        lastNodes[slot] = node;
+    }
+
+    boolean contains(int fromFloor, int toFloor) {
+        return indexOf(key(fromFloor, toFloor)) != NONE;
+    }
+
+    /**
+     * @param fromFloor floor where the empty run starts
+     * @param toFloor floor where the empty run ends
+     * @return start time of the first run between the floors, or NaN if there is none
+     */
+    double getFirstStartTime(int fromFloor, int toFloor) {
+        int slot = indexOf(key(fromFloor, toFloor));
+        return slot == NONE ? Double.NaN : startTimes[firstNodes[slot]];
+    }
+
+    /**
+     * Removes the first run between the floors (if there is one).
+     * @param fromFloor floor where the empty run starts
+     * @param toFloor floor where the empty run ends
+     */
+    void removeFirst(int fromFloor, int toFloor) {
+        int slot = indexOf(key(fromFloor, toFloor));
+        if (slot == NONE) return;
+        int node = firstNodes[slot];
+        int next = nextNodes[node];
+        nextNodes[node] = freeNode;
+        freeNode = node;
+        usedNodes--;
+        if (next == NONE) {
+            removeSlot(slot);
+        } else {
+            firstNodes[slot] = next;
+        }
+    }
+
+    /**
+     * Removes all runs.
+     */
+    void clear() {
+        Arrays.fill(firstNodes, NONE);
+        numberOfKeys = 0;
+        freeNode = NONE;
+        usedNodes = 0;
+    }
+
+    boolean isEmpty() {
+        return numberOfKeys == 0;
+    }
+
+    /**
+     * Writes the runs between each pair of floors in queue order (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(numberOfKeys);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (firstNodes[slot] == NONE) continue;
+            out.writeLong(keys[slot]);
+            int numberOfRuns = 0;
+            for (int node = firstNodes[slot]; node != NONE; node = nextNodes[node]) {
+                numberOfRuns++;
+            }
+            out.writeInt(numberOfRuns);
+            for (int node = firstNodes[slot]; node != NONE; node = nextNodes[node]) {
+                out.writeDouble(startTimes[node]);
+            }
+        }
+    }
+
+    /**
+     * Replaces all runs with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails
+     */
+    void readFrom(DataInput in) throws IOException {
+        clear();
+        int numberOfPairs = in.readInt();
+        for (int i = 0; i < numberOfPairs; i++) {
+            long key = in.readLong();
+            int numberOfRuns = in.readInt();
+            for (int run = 0; run < numberOfRuns; run++) {
+                add((int) (key >> 32), (int) key, in.readDouble());
+            }
+        }
+    }
+
+    private int newNode(double startTime) {
+        if (freeNode == NONE) {
+            if (usedNodes == startTimes.length) {
+                startTimes = Arrays.copyOf(startTimes, startTimes.length * 2);
+                nextNodes = Arrays.copyOf(nextNodes, nextNodes.length * 2);
+            }
+            freeNode = usedNodes; // all nodes below usedNodes are in use, if there is no free node
+            nextNodes[freeNode] = NONE;
+        }
+        int node = freeNode;
+        freeNode = nextNodes[node];
+        startTimes[node] = startTime;
+        nextNodes[node] = NONE;
+        usedNodes++;
+        return node;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; firstNodes[slot] != NONE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return NONE;
+    }
+
+    /**
+     * Removes the key at the slot and moves following keys back, so no key gets unreachable.
+     * @param slot the slot to be emptied
+     */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (firstNodes[next] == NONE) break;
+            int ideal = hash(keys[next]) & mask;
+            boolean reachable = slot <= next ? (slot < ideal && ideal <= next) : (slot < ideal || ideal <= next);
+            if (reachable) continue; // can stay where it is
+            keys[slot] = keys[next];
+            firstNodes[slot] = firstNodes[next];
+            lastNodes[slot] = lastNodes[next];
+            slot = next;
+        }
+        firstNodes[slot] = NONE;
+        numberOfKeys--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldFirstNodes = firstNodes, oldLastNodes = lastNodes;
+        keys = new long[capacity];
+        firstNodes = new int[capacity];
+        lastNodes = new int[capacity];
+        Arrays.fill(firstNodes, NONE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldFirstNodes[i] == NONE) continue;
+            int slot = hash(oldKeys[i]) & (capacity - 1);
+            while (firstNodes[slot] != NONE) slot = (slot + 1) & (capacity - 1);
+            keys[slot] = oldKeys[i];
+            firstNodes[slot] = oldFirstNodes[i];
+            lastNodes[slot] = oldLastNodes[i];
+        }
+    }
+
+    private static long key(int fromFloor, int toFloor) {
+        return ((long) fromFloor << 32) | (toFloor & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
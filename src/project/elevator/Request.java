@@ -8,17 +8,42 @@ import java.util.Objects;
 public class Request {
     private final int originFloor;
     private final int destinationFloor;
+    private final double arrivalTime;
     private int numberOfPassengers;
 
     /**
-     * Constructor always takes 2 parameters.
+     * Creates a Request, which arrived at simulation time 0.
      * @param originFloor from floor
      * @param destinationFloor to floor
      */
     public Request(int originFloor, int destinationFloor) {
+        this(originFloor, destinationFloor, 0d);
+    }
+
+    /**
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param arrivalTime simulation time in seconds, when the Request was made
+     */
+    public Request(int originFloor, int destinationFloor, double arrivalTime) {
+        this(originFloor, destinationFloor, arrivalTime, 1);
+    }
+
+    /**
+     * Creates a Request for a group of passengers.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param arrivalTime simulation time in seconds, when the Request was made
+     * @param numberOfPassengers at least 1
+     */
+    public Request(int originFloor, int destinationFloor, double arrivalTime, int numberOfPassengers) {
+        if (numberOfPassengers < 1) {
+            throw new IllegalArgumentException("A Request needs at least 1 passenger: " + numberOfPassengers);
+        }
         this.originFloor = originFloor;
         this.destinationFloor = destinationFloor;
-        numberOfPassengers = 1;
+        this.arrivalTime = arrivalTime;
+        this.numberOfPassengers = numberOfPassengers;
     }
 
     public int getOriginFloor() {
@@ -29,6 +54,10 @@ public class Request {
         return destinationFloor;
     }
 
+    public double getArrivalTime() {
+        return arrivalTime;
+    }
+
     public int getNumberOfPassengers() {
         return numberOfPassengers;
     }
@@ -40,9 +69,22 @@ public class Request {
         numberOfPassengers++;
     }
 
+    /**
+     * Moves some of the passengers into a new Request (e.g. if they do not fit into one car).
+     * @param passengers number of passengers for the new Request (less than numberOfPassengers)
+     * @return the new Request with the same floors and arrival time
+     */
+    public Request split(int passengers) {
+        if (passengers < 1 || passengers >= numberOfPassengers) {
+            throw new IllegalArgumentException("Cannot split " + passengers + " of " + numberOfPassengers + " passengers!");
+        }
+        numberOfPassengers -= passengers;
+        return new Request(originFloor, destinationFloor, arrivalTime, passengers);
+    }
+
     /**
      * Only checks the other object for origin and destination. <br>
-     * Does <b>not</b> compare numberOfPassengers, as Requests should be considered as equal from just the floors.
+     * Does <b>not</b> compare numberOfPassengers (and arrivalTime), as Requests should be considered as equal from just the floors.
      * (independent of passenger count)
      * @param o other Object
      * @return boolean
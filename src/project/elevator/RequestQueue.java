@@ -0,0 +1,202 @@
+package project.elevator;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Ring buffer for the queued Requests of an Elevator.<br>
+ * Stores origin, destination and passenger count in parallel int arrays
+ * (and the arrival time of each passenger in a double array with maxPassengers slots per Request),
+ * so queueing and dispatching does not allocate any objects (unless the buffer has to grow).
+ */
+class RequestQueue {
+    private final int maxPassengers;
+    private int[] originFloors;
+    private int[] destinationFloors;
+    private int[] passengers;
+    private double[] arrivalTimes;
+    private int head, size;
+
+    /**
+     * @param initialCapacity gets rounded up to a power of 2
+     * @param maxPassengers max. number of passengers per Request
+     */
+    RequestQueue(int initialCapacity, int maxPassengers) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+        this.maxPassengers = maxPassengers;
+        originFloors = new int[capacity];
+        destinationFloors = new int[capacity];
+        passengers = new int[capacity];
+        arrivalTimes = new double[capacity * maxPassengers];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int getOriginFloor(int index) {
+        return originFloors[slot(index)];
+    }
+
+    int getDestinationFloor(int index) {
+        return destinationFloors[slot(index)];
+    }
+
+    int getNumberOfPassengers(int index) {
+        return passengers[slot(index)];
+    }
+
+    /**
+     * @param index position in the queue (0 is the head)
+     * @param passenger number of the passenger (0 - numberOfPassengers - 1)
+     * @return simulation time, when the passenger made the Request
+     */
+    double getArrivalTime(int index, int passenger) {
+        return arrivalTimes[slot(index) * maxPassengers + passenger];
+    }
+
+    /**
+     * Adds a passenger to the Request at the given position (must have less than maxPassengers).
+     * @param index position in the queue (0 is the head)
+     * @param arrivalTime simulation time, when the passenger made the Request
+     */
+    void addPassenger(int index, double arrivalTime) {
+        int slot = slot(index);
+        arrivalTimes[slot * maxPassengers + passengers[slot]] = arrivalTime;
+        passengers[slot]++;
+    }
+
+    /**
+     * Adds a Request at the end of the queue.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param numberOfPassengers passenger count
+     * @param arrivalTime simulation time, when the passengers made the Request
+     */
+    void add(int originFloor, int destinationFloor, int numberOfPassengers, double arrivalTime) {
+        insert(size, originFloor, destinationFloor, numberOfPassengers, arrivalTime);
+    }
+
+    /**
+     * Inserts a Request at the given position and moves all following Requests back by one.
+     * @param index position in the queue (0 is the head)
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param numberOfPassengers passenger count (up to maxPassengers)
+     * @param arrivalTime simulation time, when the passengers made the Request
+     */
+    void insert(int index, int originFloor, int destinationFloor, int numberOfPassengers, double arrivalTime) {
+        if (size == originFloors.length) grow();
+        for (int i = size; i > index; i--) {
+            int to = slot(i), from = slot(i - 1);
+            originFloors[to] = originFloors[from];
+            destinationFloors[to] = destinationFloors[from];
+            passengers[to] = passengers[from];
+            System.arraycopy(arrivalTimes, from * maxPassengers, arrivalTimes, to * maxPassengers, passengers[from]);
+        }
+        int slot = slot(index);
+        originFloors[slot] = originFloor;
+        destinationFloors[slot] = destinationFloor;
+        passengers[slot] = numberOfPassengers;
+        Arrays.fill(arrivalTimes, slot * maxPassengers, slot * maxPassengers + numberOfPassengers, arrivalTime);
+        size++;
+    }
+
+    /**
+     * Removes the head of the queue.
+     */
+    void removeFirst() {
+        if (size == 0) throw new IllegalStateException("RequestQueue is empty");
+        head = slot(1);
+        size--;
+    }
+
+    /**
+     * Writes the queued Requests with the arrival time of each passenger (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            out.writeInt(originFloors[slot]);
+            out.writeInt(destinationFloors[slot]);
+            out.writeInt(passengers[slot]);
+            for (int p = 0; p < passengers[slot]; p++) {
+                out.writeDouble(arrivalTimes[slot * maxPassengers + p]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the queued Requests with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails
+     */
+    void readFrom(DataInput in) throws IOException {
+        head = 0;
+        size = 0;
+        int numberOfRequests = in.readInt();
+        for (int i = 0; i < numberOfRequests; i++) {
+            int originFloor = in.readInt(), destinationFloor = in.readInt(), numberOfPassengers = in.readInt();
+            if (numberOfPassengers < 1 || numberOfPassengers > maxPassengers) {
+                throw new IOException("Invalid number of passengers: " + numberOfPassengers);
+            }
+            add(originFloor, destinationFloor, numberOfPassengers, 0d);
+            int slot = slot(i);
+            for (int p = 0; p < numberOfPassengers; p++) {
+                arrivalTimes[slot * maxPassengers + p] = in.readDouble();
+            }
+        }
+    }
+
+    private int slot(int index) {
+        return (head + index) & (originFloors.length - 1);
+    }
+
+    /**
+     * Doubles the capacity and moves the head to index 0.
+     */
+    private void grow() {
+        int capacity = originFloors.length * 2;
+        double[] newArrivalTimes = new double[capacity * maxPassengers];
+        for (int i = 0; i < size; i++) { // before the other arrays, as slot() depends on the old capacity
+            System.arraycopy(arrivalTimes, slot(i) * maxPassengers, newArrivalTimes, i * maxPassengers, maxPassengers);
+        }
+        arrivalTimes = newArrivalTimes;
+        originFloors = copy(originFloors, capacity);
+        destinationFloors = copy(destinationFloors, capacity);
+        passengers = copy(passengers, capacity);
+        head = 0;
+    }
+
+    private int[] copy(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        int firstPart = Math.min(size, array.length - head);
+        System.arraycopy(array, head, copy, 0, firstPart);
+        System.arraycopy(array, 0, copy, firstPart, size - firstPart);
+        return copy;
+    }
+
+    /**
+     * toString method has the same formatting as a List of Requests
+     * @return a String like: "[0-15 (1), 20-0 (2)]"
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(getOriginFloor(i)).append('-').append(getDestinationFloor(i))
+                    .append(" (").append(getNumberOfPassengers(i)).append(')');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,456 @@
+package project.elevator;
+
+import project.metrics.PassengerMetrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Route of an Elevator in collective control: the floors, where it stops, in order,
+ * and the Requests, which get picked up and dropped off at these stops.<br>
+ * A new Request joins the route, where the elevator passes anyway: its origin becomes a stop on a run
+ * in its direction (or joins a stop at the same floor), and its destination a later stop of the same run
+ * (which gets extended, if it turns before), as long as the car does not get too full on the way.
+ * If there is no such place, it is appended at the end.
+ * Stop 0 is the stop the elevator is heading to or waiting at.
+ * Stores everything in parallel primitive arrays like the RequestQueue, so it does not allocate (unless it has to grow).
+ */
+class StopPlan {
+    private final int maxPassengers;
+
+    // route
+    private int[] stopFloors, stopIds;
+    private int[] stopPickups, stopDropOffs; // number of passengers
+    private int numberOfStops, nextStopId;
+
+    // Requests, waiting for their pickup stop or riding to their drop-off stop
+    private int[] originFloors, destinationFloors, passengers, pickupStopIds, dropOffStopIds;
+    private boolean[] riding;
+    private double[] arrivalTimes; // maxPassengers slots per Request
+    private int numberOfRequests, ridingPassengers;
+
+    // load arriving at each stop and time from the end of stop 0 to the end of each stop (with the dwell time
+    // for its passengers), only calculated after changes
+    private int[] loads;
+    private double[] stopTimes;
+    private boolean loadsValid;
+    private ElevatorProfile timesProfile; // null if the stopTimes are not valid
+
+    // place of the last findInsertion: index of the stop, or index where a new stop is inserted
+    private int pickupIndex, dropOffIndex; // dropOffIndex before the pickup stop is inserted
+    private boolean newPickupStop, newDropOffStop;
+
+    /**
+     * @param initialCapacity number of stops and Requests before the arrays have to grow
+     * @param maxPassengers max. number of passengers per Request
+     */
+    StopPlan(int initialCapacity, int maxPassengers) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.maxPassengers = maxPassengers;
+        stopFloors = new int[capacity];
+        stopIds = new int[capacity];
+        stopPickups = new int[capacity];
+        stopDropOffs = new int[capacity];
+        loads = new int[capacity];
+        stopTimes = new double[capacity];
+        originFloors = new int[capacity];
+        destinationFloors = new int[capacity];
+        passengers = new int[capacity];
+        pickupStopIds = new int[capacity];
+        dropOffStopIds = new int[capacity];
+        riding = new boolean[capacity];
+        arrivalTimes = new double[capacity * maxPassengers];
+    }
+
+    boolean isEmpty() {
+        return numberOfStops == 0;
+    }
+
+    int getNumberOfStops() {
+        return numberOfStops;
+    }
+
+    /**
+     * @param index position in the route (0 is the next stop)
+     * @return floor of the stop
+     */
+    int getFloor(int index) {
+        return stopFloors[index];
+    }
+
+    /**
+     * @param index position in the route (0 is the next stop)
+     * @return number of passengers getting in or out at the stop
+     */
+    int getPassengersAt(int index) {
+        return stopPickups[index] + stopDropOffs[index];
+    }
+
+    /**
+     * @return position of the pickup stop of the last insert
+     */
+    int getPickupIndex() {
+        return pickupIndex;
+    }
+
+    /**
+     * @return if the pickup of the last insert is a new stop (else the passengers join a stop)
+     */
+    boolean isNewPickupStop() {
+        return newPickupStop;
+    }
+
+    /**
+     * @return number of passengers in the car
+     */
+    int getRidingPassengers() {
+        return ridingPassengers;
+    }
+
+    /**
+     * Finds the place for a new Request, where its passengers get picked up the earliest.<br>
+     * The place is kept for insert, which has to follow with the same Request.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param numberOfPassengers passenger count
+     * @param capacity max. number of passengers in the car
+     * @param profile for the travel times between the stops
+     * @param firstStopTime time until stop 0 is done (incl. waiting), or until the elevator is free without stops
+     * @param currentFloor floor, where the elevator is free (only used without stops)
+     * @param onTheWayTime time until the elevator could stop at the origin floor before stop 0
+     *                     (incl. waiting, without boarding), NaN if it cannot
+     * @return time until the passengers got in (incl. waiting and their boarding) in seconds
+     */
+    double findInsertion(int originFloor, int destinationFloor, int numberOfPassengers, int capacity,
+                         ElevatorProfile profile, double firstStopTime, int currentFloor, double onTheWayTime) {
+        newDropOffStop = true;
+        dropOffIndex = numberOfStops;
+        double boardingTime = profile.getBoardingTime() * numberOfPassengers; // the same at every place
+        if (numberOfStops == 0) {
+            pickupIndex = 0;
+            newPickupStop = true;
+            return firstStopTime + profile.getTravelAndWaitingTime(currentFloor, originFloor) + boardingTime;
+        }
+        updateLoads();
+        updateStopTimes(profile);
+        int direction = Integer.signum(destinationFloor - originFloor);
+
+        int last = numberOfStops - 1; // appending always works
+        newPickupStop = stopFloors[last] != originFloor;
+        pickupIndex = newPickupStop ? numberOfStops : last;
+        double bestTime = firstStopTime + stopTimes[last] + profile.getTravelAndWaitingTime(stopFloors[last], originFloor);
+
+        if (!Double.isNaN(onTheWayTime) && onTheWayTime < bestTime && Integer.signum(stopFloors[0] - originFloor) == direction) {
+            int place = findDropOff(0, originFloor, destinationFloor, direction, numberOfPassengers, capacity);
+            if (place >= 0) {
+                bestTime = onTheWayTime;
+                setPlace(0, true, place);
+            }
+        }
+        for (int k = 0; k < numberOfStops; k++) {
+            if (k > 0 && firstStopTime + stopTimes[k - 1] >= bestTime) break; // the stop times only get longer
+            double time;
+            int dropOffFrom;
+            boolean newStop = stopFloors[k] != originFloor;
+            if (!newStop) { // join the stop
+                time = firstStopTime + stopTimes[k];
+                dropOffFrom = k + 1;
+            } else if (k > 0 && Integer.signum(originFloor - stopFloors[k - 1]) == direction
+                    && Integer.signum(stopFloors[k] - originFloor) == direction) { // new stop on a run in the same direction
+                time = firstStopTime + stopTimes[k - 1] + profile.getTravelAndWaitingTime(stopFloors[k - 1], originFloor);
+                dropOffFrom = k;
+            } else {
+                continue;
+            }
+            if (time >= bestTime) continue;
+            int place = findDropOff(dropOffFrom, originFloor, destinationFloor, direction, numberOfPassengers, capacity);
+            if (place >= 0) {
+                bestTime = time;
+                setPlace(k, newStop, place);
+            }
+        }
+        return bestTime + boardingTime;
+    }
+
+    /**
+     * Walks the route from a pickup in the direction of the passengers, until their destination
+     * (or until the car turns, then the run gets extended to the destination).
+     * @return place of the drop-off as index * 2 (+ 1 for a new stop before the index), -1 if the car would get too full
+     */
+    private int findDropOff(int from, int originFloor, int destinationFloor, int direction, int numberOfPassengers, int capacity) {
+        int previousFloor = originFloor;
+        for (int j = from; j < numberOfStops; j++) {
+            if (loads[j] + numberOfPassengers > capacity) return -1;
+            int floor = stopFloors[j];
+            if (floor == destinationFloor) return j * 2;
+            if (Integer.signum(floor - previousFloor) != direction // turns before the destination
+                    || Integer.signum(destinationFloor - floor) != direction) { // passes the destination
+                return j * 2 + 1;
+            }
+            previousFloor = floor;
+        }
+        return numberOfStops * 2 + 1;
+    }
+
+    private void setPlace(int pickupIndex, boolean newPickupStop, int dropOffPlace) {
+        this.pickupIndex = pickupIndex;
+        this.newPickupStop = newPickupStop;
+        dropOffIndex = dropOffPlace / 2;
+        newDropOffStop = dropOffPlace % 2 == 1;
+    }
+
+    /**
+     * Inserts the Request at the place of the last findInsertion.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param numberOfPassengers passenger count (up to maxPassengers)
+     * @param arrivalTime simulation time, when the passengers made the Request
+     */
+    void insert(int originFloor, int destinationFloor, int numberOfPassengers, double arrivalTime) {
+        int pickupStopId = newPickupStop ? insertStop(pickupIndex, originFloor) : stopIds[pickupIndex];
+        int dropOffAt = newPickupStop ? dropOffIndex + 1 : dropOffIndex;
+        int dropOffStopId = newDropOffStop ? insertStop(dropOffAt, destinationFloor) : stopIds[dropOffAt];
+        stopPickups[pickupIndex] += numberOfPassengers;
+        stopDropOffs[dropOffAt] += numberOfPassengers;
+
+        if (numberOfRequests == originFloors.length) growRequests();
+        int r = numberOfRequests++;
+        originFloors[r] = originFloor;
+        destinationFloors[r] = destinationFloor;
+        passengers[r] = numberOfPassengers;
+        pickupStopIds[r] = pickupStopId;
+        dropOffStopIds[r] = dropOffStopId;
+        riding[r] = false;
+        Arrays.fill(arrivalTimes, r * maxPassengers, r * maxPassengers + numberOfPassengers, arrivalTime);
+        invalidate();
+    }
+
+    /**
+     * Adds passengers to a waiting Request with the same floors, if the car has room for them on its way.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param numberOfPassengers passenger count
+     * @param arrivalTime simulation time, when the passengers made the Request
+     * @param capacity max. number of passengers in the car
+     * @return position of the stop, where they get picked up, -1 if they could not be added
+     */
+    int tryAddPassengers(int originFloor, int destinationFloor, int numberOfPassengers, double arrivalTime, int capacity) {
+        for (int r = 0; r < numberOfRequests; r++) {
+            if (riding[r] || originFloors[r] != originFloor || destinationFloors[r] != destinationFloor
+                    || passengers[r] + numberOfPassengers > maxPassengers) continue;
+            updateLoads();
+            int pickup = indexOfStop(pickupStopIds[r]), dropOff = indexOfStop(dropOffStopIds[r]);
+            boolean room = true;
+            for (int j = pickup + 1; j <= dropOff && room; j++) {
+                room = loads[j] + numberOfPassengers <= capacity;
+            }
+            if (!room) continue;
+            int first = r * maxPassengers + passengers[r];
+            Arrays.fill(arrivalTimes, first, first + numberOfPassengers, arrivalTime);
+            passengers[r] += numberOfPassengers;
+            stopPickups[pickup] += numberOfPassengers;
+            stopDropOffs[dropOff] += numberOfPassengers;
+            invalidate();
+            return pickup;
+        }
+        return -1;
+    }
+
+    /**
+     * Drops off and picks up the passengers of stop 0 and removes it from the route.
+     * @param metrics gets the drop-offs and pickups
+     * @param time simulation time in seconds
+     */
+    void processFirstStop(PassengerMetrics metrics, double time) {
+        int stopId = stopIds[0];
+        int kept = 0;
+        for (int r = 0; r < numberOfRequests; r++) {
+            if (riding[r] && dropOffStopIds[r] == stopId) {
+                for (int i = 0; i < passengers[r]; i++) {
+                    metrics.recordDropOff(arrivalTimes[r * maxPassengers + i], time);
+                }
+                ridingPassengers -= passengers[r];
+                continue;
+            }
+            if (!riding[r] && pickupStopIds[r] == stopId) {
+                for (int i = 0; i < passengers[r]; i++) {
+                    metrics.recordPickup(arrivalTimes[r * maxPassengers + i], time);
+                }
+                riding[r] = true;
+                ridingPassengers += passengers[r];
+            }
+            if (kept != r) moveRequest(r, kept);
+            kept++;
+        }
+        numberOfRequests = kept;
+        numberOfStops--;
+        System.arraycopy(stopFloors, 1, stopFloors, 0, numberOfStops);
+        System.arraycopy(stopIds, 1, stopIds, 0, numberOfStops);
+        System.arraycopy(stopPickups, 1, stopPickups, 0, numberOfStops);
+        System.arraycopy(stopDropOffs, 1, stopDropOffs, 0, numberOfStops);
+        invalidate();
+    }
+
+    /**
+     * Writes the route and its Requests with the arrival time of each passenger (for a snapshot).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(numberOfStops);
+        out.writeInt(nextStopId);
+        for (int i = 0; i < numberOfStops; i++) {
+            out.writeInt(stopFloors[i]);
+            out.writeInt(stopIds[i]);
+            out.writeInt(stopPickups[i]);
+            out.writeInt(stopDropOffs[i]);
+        }
+        out.writeInt(numberOfRequests);
+        out.writeInt(ridingPassengers);
+        for (int r = 0; r < numberOfRequests; r++) {
+            out.writeInt(originFloors[r]);
+            out.writeInt(destinationFloors[r]);
+            out.writeInt(passengers[r]);
+            out.writeInt(pickupStopIds[r]);
+            out.writeInt(dropOffStopIds[r]);
+            out.writeBoolean(riding[r]);
+            for (int i = 0; i < passengers[r]; i++) {
+                out.writeDouble(arrivalTimes[r * maxPassengers + i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the route and its Requests with the ones written by writeTo.
+     * @param in the input
+     * @throws IOException if reading fails
+     */
+    void readFrom(DataInput in) throws IOException {
+        int stops = in.readInt();
+        nextStopId = in.readInt();
+        while (stopFloors.length < stops) growStops();
+        for (int i = 0; i < stops; i++) {
+            stopFloors[i] = in.readInt();
+            stopIds[i] = in.readInt();
+            stopPickups[i] = in.readInt();
+            stopDropOffs[i] = in.readInt();
+        }
+        numberOfStops = stops;
+        int requests = in.readInt();
+        ridingPassengers = in.readInt();
+        while (originFloors.length < requests) growRequests();
+        for (int r = 0; r < requests; r++) {
+            originFloors[r] = in.readInt();
+            destinationFloors[r] = in.readInt();
+            passengers[r] = in.readInt();
+            if (passengers[r] < 1 || passengers[r] > maxPassengers) {
+                throw new IOException("Invalid number of passengers: " + passengers[r]);
+            }
+            pickupStopIds[r] = in.readInt();
+            dropOffStopIds[r] = in.readInt();
+            riding[r] = in.readBoolean();
+            for (int i = 0; i < passengers[r]; i++) {
+                arrivalTimes[r * maxPassengers + i] = in.readDouble();
+            }
+        }
+        numberOfRequests = requests;
+        invalidate();
+    }
+
+    private int insertStop(int index, int floor) {
+        if (numberOfStops == stopFloors.length) growStops();
+        int length = numberOfStops - index;
+        System.arraycopy(stopFloors, index, stopFloors, index + 1, length);
+        System.arraycopy(stopIds, index, stopIds, index + 1, length);
+        System.arraycopy(stopPickups, index, stopPickups, index + 1, length);
+        System.arraycopy(stopDropOffs, index, stopDropOffs, index + 1, length);
+        stopFloors[index] = floor;
+        stopIds[index] = nextStopId++;
+        stopPickups[index] = 0;
+        stopDropOffs[index] = 0;
+        numberOfStops++;
+        return stopIds[index];
+    }
+
+    private int indexOfStop(int stopId) {
+        for (int i = 0; i < numberOfStops; i++) {
+            if (stopIds[i] == stopId) return i;
+        }
+        throw new IllegalStateException("No stop " + stopId);
+    }
+
+    private void moveRequest(int from, int to) {
+        originFloors[to] = originFloors[from];
+        destinationFloors[to] = destinationFloors[from];
+        passengers[to] = passengers[from];
+        pickupStopIds[to] = pickupStopIds[from];
+        dropOffStopIds[to] = dropOffStopIds[from];
+        riding[to] = riding[from];
+        System.arraycopy(arrivalTimes, from * maxPassengers, arrivalTimes, to * maxPassengers, passengers[from]);
+    }
+
+    private void invalidate() {
+        loadsValid = false;
+        timesProfile = null;
+    }
+
+    private void updateLoads() {
+        if (loadsValid) return;
+        int load = ridingPassengers;
+        for (int i = 0; i < numberOfStops; i++) {
+            loads[i] = load;
+            load += stopPickups[i] - stopDropOffs[i];
+        }
+        loadsValid = true;
+    }
+
+    private void updateStopTimes(ElevatorProfile profile) {
+        if (timesProfile == profile) return;
+        stopTimes[0] = 0d;
+        for (int i = 1; i < numberOfStops; i++) {
+            stopTimes[i] = stopTimes[i - 1] + profile.getTravelTime(stopFloors[i - 1], stopFloors[i]) + profile.getDwellTime(getPassengersAt(i));
+        }
+        timesProfile = profile;
+    }
+
+    private void growStops() {
+        int capacity = stopFloors.length * 2;
+        stopFloors = Arrays.copyOf(stopFloors, capacity);
+        stopIds = Arrays.copyOf(stopIds, capacity);
+        stopPickups = Arrays.copyOf(stopPickups, capacity);
+        stopDropOffs = Arrays.copyOf(stopDropOffs, capacity);
+        loads = Arrays.copyOf(loads, capacity);
+        stopTimes = Arrays.copyOf(stopTimes, capacity);
+    }
+
+    private void growRequests() {
+        int capacity = originFloors.length * 2;
+        originFloors = Arrays.copyOf(originFloors, capacity);
+        destinationFloors = Arrays.copyOf(destinationFloors, capacity);
+        passengers = Arrays.copyOf(passengers, capacity);
+        pickupStopIds = Arrays.copyOf(pickupStopIds, capacity);
+        dropOffStopIds = Arrays.copyOf(dropOffStopIds, capacity);
+        riding = Arrays.copyOf(riding, capacity);
+        arrivalTimes = Arrays.copyOf(arrivalTimes, capacity * maxPassengers);
+    }
+
+    /**
+     * toString method has the same formatting as the RequestQueue, with the waiting Requests
+     * @return a String like: "[0-15 (1), 20-0 (2)]"
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        boolean first = true;
+        for (int r = 0; r < numberOfRequests; r++) {
+            if (riding[r]) continue;
+            if (!first) builder.append(", ");
+            first = false;
+            builder.append(originFloors[r]).append('-').append(destinationFloors[r])
+                    .append(" (").append(passengers[r]).append(')');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,10 @@
+package project.enums;
+
+/**
+ * What happens to a new Request, if the request intake of the Tower is full.
+ */
+public enum OverflowPolicy {
+    BLOCK,  // the caller waits until there is space again
+    DROP,   // the Request gets dropped and counted
+    REJECT  // an IllegalStateException is thrown
+}
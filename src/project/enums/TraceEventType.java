@@ -0,0 +1,10 @@
+package project.enums;
+
+/**
+ * Types of the events in a trace.
+ */
+public enum TraceEventType {
+    REQUEST,    // a Request was taken from the intake of the Tower
+    DISPATCH,   // a Request was given to an elevator
+    ACTION      // an elevator started an Action
+}
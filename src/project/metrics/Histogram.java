@@ -0,0 +1,110 @@
+package project.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Histogram for times in seconds with a fixed relative precision (like an HDR histogram).<br>
+ * Values are counted in milliseconds: below 64 ms in exact buckets, above in 32 buckets per power of 2
+ * (so every value is within about 3% of its bucket). Recording is O(1) and does not allocate anything.
+ * Not thread-safe: each elevator records into its own histograms, which are merged for a MetricsSnapshot.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // per power of 2
+    private static final long MAX_VALUE = (1L << 31) - 1; // ms, about 24 days, larger values are counted as max.
+    private static final int NUMBER_OF_BUCKETS = index(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[NUMBER_OF_BUCKETS];
+    private long totalCount;
+    private double sum, max;
+
+    /**
+     * Records one value.
+     * @param seconds the value (negative values are counted as 0)
+     */
+    public void record(double seconds) {
+        double value = Math.max(seconds, 0d);
+        counts[index(Math.min(Math.round(value * 1000d), MAX_VALUE))]++;
+        totalCount++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return exact mean of all values in seconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0d : sum / totalCount;
+    }
+
+    /**
+     * @return exact maximum in seconds
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value in seconds, below or equal which the given percentage of all values are
+     * (within the precision of the buckets, but never higher than the max), or 0 if nothing was recorded
+     */
+    public double getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0d;
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100d) / 100d * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= rank) return Math.min(highestValue(i) / 1000d, max);
+        }
+        return max;
+    }
+
+    /**
+     * Adds all values of another Histogram to this one.
+     * @param other the other Histogram
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        totalCount = 0;
+        sum = 0d;
+        max = 0d;
+    }
+
+    /**
+     * @param value in ms
+     * @return index of the bucket for the value
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS * 2) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // value >> shift is between SUB_BUCKETS and 2 * SUB_BUCKETS - 1
+        return shift * SUB_BUCKETS + (int) (value >> shift);
+    }
+
+    /**
+     * @param index index of a bucket
+     * @return highest value in ms, which gets counted in the bucket
+     */
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS * 2) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package project.metrics;
+
+import java.util.List;
+
+/**
+ * Copy of the metrics of all elevators at one point in simulation time.<br>
+ * Wait and journey times of all elevators are merged, the utilisation is per elevator.
+ */
+public class MetricsSnapshot {
+    private final double time, duration;
+    private final Histogram waitTimes = new Histogram();
+    private final Histogram journeyTimes = new Histogram();
+    private final double[] utilisations;
+
+    /**
+     * Merges the metrics of the elevators.<br>
+     * Should be created on the Simulation thread, from other threads the values can be slightly inconsistent.
+     * @param time current simulation time in seconds
+     * @param startTime simulation time, since when the metrics are recorded
+     * @param elevatorMetrics the metrics of each elevator
+     */
+    public MetricsSnapshot(double time, double startTime, List<PassengerMetrics> elevatorMetrics) {
+        this.time = time;
+        duration = time - startTime;
+        utilisations = new double[elevatorMetrics.size()];
+        for (int i = 0; i < utilisations.length; i++) {
+            PassengerMetrics metrics = elevatorMetrics.get(i);
+            waitTimes.add(metrics.getWaitTimes());
+            journeyTimes.add(metrics.getJourneyTimes());
+            utilisations[i] = duration > 0d ? Math.min(metrics.getBusyTime() / duration, 1d) : 0d;
+        }
+    }
+
+    /**
+     * @return simulation time of the snapshot in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return simulation time in seconds, over which the metrics were recorded
+     */
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return wait times (from the Request until the pickup) of all picked up passengers
+     */
+    public Histogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * @return journey times (from the Request until the drop-off) of all transported passengers
+     */
+    public Histogram getJourneyTimes() {
+        return journeyTimes;
+    }
+
+    /**
+     * @param elevator index of the elevator
+     * @return share of the time, in which the elevator was not idle (0.0 - 1.0)
+     */
+    public double getUtilisation(int elevator) {
+        return utilisations[elevator];
+    }
+
+    public double getAverageUtilisation() {
+        double sum = 0d;
+        for (double utilisation : utilisations) {
+            sum += utilisation;
+        }
+        return utilisations.length == 0 ? 0d : sum / utilisations.length;
+    }
+
+    /**
+     * toString method has a custom formatting
+     * @return a String like: "600.0s: 120 waited 35.2s (p95 80.1s, p99 95.3s), 118 transported 70.2s (p95 150.0s, p99 180.3s), utilisation 61.3%"
+     */
+    @Override
+    public String toString() {
+        return String.format("%.1fs: %d waited %.1fs (p95 %.1fs, p99 %.1fs), %d transported %.1fs (p95 %.1fs, p99 %.1fs), utilisation %.1f%%",
+                time, waitTimes.getCount(), waitTimes.getMean(), waitTimes.getValueAtPercentile(95), waitTimes.getValueAtPercentile(99),
+                journeyTimes.getCount(), journeyTimes.getMean(), journeyTimes.getValueAtPercentile(95), journeyTimes.getValueAtPercentile(99),
+                getAverageUtilisation() * 100d);
+    }
+}
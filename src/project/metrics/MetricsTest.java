@@ -0,0 +1,84 @@
+package project.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import project.elevator.Elevator;
+import project.simulation.Simulation;
+import project.tower.Tower;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the Histogram and the passenger metrics
+ */
+public class MetricsTest {
+    private static final double WAITING_TIME = 10; // same as ElevatorConstants
+
+    @ParameterizedTest
+    @CsvSource({"50, 0.05", "95, 0.05", "99, 0.05", "100, 0.0"})
+    void histogram_percentilesWithinPrecision(double percentile, double relativeError) {
+        Histogram histogram = new Histogram();
+        double[] values = new double[100_000];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Math.log(1d - random.nextDouble()) * 30d; // exponential distribution, mean 30s
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        double expected = values[(int) Math.ceil(percentile / 100d * values.length) - 1];
+        assertEquals(expected, histogram.getValueAtPercentile(percentile), expected * relativeError + 0.001);
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    void histogram_addMergesCounts() {
+        Histogram first = new Histogram(), second = new Histogram();
+        first.record(1);
+        first.record(3);
+        second.record(1000);
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(1004d / 3, first.getMean(), 0.000001d);
+        assertEquals(1000d, first.getMax());
+        assertEquals(3d, first.getValueAtPercentile(50), 0.1d); // within the precision of the buckets
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0d, first.getValueAtPercentile(99));
+    }
+
+    @Test
+    void snapshot_waitAndJourneyTime() {
+        Tower tower = new Tower(1);
+        Simulation simulation = Simulation.createHeadless(tower);
+        simulation.runFor(5);
+        tower.addRequest(0, 15);
+        simulation.runFor(100);
+        MetricsSnapshot snapshot = tower.getMetricsSnapshot();
+        assertEquals(1, snapshot.getWaitTimes().getCount());
+        assertEquals(WAITING_TIME, snapshot.getWaitTimes().getMean(), 0.1d); // doors open and close at floor 0
+        assertEquals(1, snapshot.getJourneyTimes().getCount());
+        assertEquals(WAITING_TIME + Elevator.calculateTravelTime(0, 15) + WAITING_TIME, snapshot.getJourneyTimes().getMean(), 0.1d);
+        assertEquals((WAITING_TIME + Elevator.calculateTravelTime(0, 15) + WAITING_TIME) / 105d, snapshot.getUtilisation(0), 0.001d);
+
+        tower.resetMetrics();
+        assertEquals(0, tower.getMetricsSnapshot().getWaitTimes().getCount());
+    }
+
+    @Test
+    void setMetricsListener_periodicSnapshots() {
+        Tower tower = new Tower(2);
+        Simulation simulation = Simulation.createHeadless(tower);
+        int[] snapshots = new int[1];
+        simulation.setMetricsListener(60, snapshot -> {
+            snapshots[0]++;
+            assertTrue(snapshot.getTime() >= snapshots[0] * 60d);
+        });
+        simulation.runFor(600);
+        assertEquals(10, snapshots[0]);
+    }
+}
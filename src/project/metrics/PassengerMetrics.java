@@ -0,0 +1,55 @@
+package project.metrics;
+
+/**
+ * The metrics of one elevator: wait and journey times of its passengers and the time it was busy.<br>
+ * Only written by the thread updating the elevator, so recording needs no synchronization.
+ */
+public class PassengerMetrics {
+    private final Histogram waitTimes = new Histogram();    // from the Request until the pickup
+    private final Histogram journeyTimes = new Histogram(); // from the Request until the drop-off
+    private double busyTime; // s, total duration of all started Actions
+
+    /**
+     * @param arrivalTime simulation time of the Request in seconds
+     * @param pickupTime simulation time, when the passenger got into the elevator
+     */
+    public void recordPickup(double arrivalTime, double pickupTime) {
+        waitTimes.record(pickupTime - arrivalTime);
+    }
+
+    /**
+     * @param arrivalTime simulation time of the Request in seconds
+     * @param dropOffTime simulation time, when the passenger left the elevator
+     */
+    public void recordDropOff(double arrivalTime, double dropOffTime) {
+        journeyTimes.record(dropOffTime - arrivalTime);
+    }
+
+    /**
+     * @param duration duration of a started Action in seconds
+     */
+    public void addBusyTime(double duration) {
+        busyTime += duration;
+    }
+
+    public Histogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public Histogram getJourneyTimes() {
+        return journeyTimes;
+    }
+
+    public double getBusyTime() {
+        return busyTime;
+    }
+
+    /**
+     * Removes all recorded values.
+     */
+    public void reset() {
+        waitTimes.reset();
+        journeyTimes.reset();
+        busyTime = 0d;
+    }
+}
@@ -0,0 +1,95 @@
+package project.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Time ordered priority queue for the discrete event Simulation.<br>
+ * Each event source (e.g. an elevator) has a fixed id and at most one scheduled event,
+ * so the queue is an indexed binary min-heap: rescheduling moves the id up or down in O(log n),
+ * and nothing gets allocated. Ids without an event are scheduled at POSITIVE_INFINITY.
+ */
+public class EventQueue {
+    private final int[] heap;      // ids, ordered by time
+    private final int[] positions; // id -> index in the heap
+    private final double[] times;  // id -> time of its event
+
+    /**
+     * @param numberOfIds ids are 0 - numberOfIds - 1, none of them has an event at first
+     */
+    public EventQueue(int numberOfIds) {
+        heap = new int[numberOfIds];
+        positions = new int[numberOfIds];
+        times = new double[numberOfIds];
+        Arrays.fill(times, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < numberOfIds; i++) {
+            heap[i] = i;
+            positions[i] = i;
+        }
+    }
+
+    /**
+     * Schedules (or reschedules) the event of the id.
+     * @param id the id of the event source
+     * @param time simulation time in seconds, POSITIVE_INFINITY for no event
+     */
+    public void schedule(int id, double time) {
+        double oldTime = times[id];
+        times[id] = time;
+        if (time < oldTime) {
+            siftUp(positions[id]);
+        } else if (time > oldTime) {
+            siftDown(positions[id]);
+        }
+    }
+
+    /**
+     * @return id with the earliest event
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return time of the earliest event, POSITIVE_INFINITY if there is none
+     */
+    public double peekTime() {
+        return heap.length == 0 ? Double.POSITIVE_INFINITY : times[heap[0]];
+    }
+
+    /**
+     * @param id the id of the event source
+     * @return time of its event, POSITIVE_INFINITY if there is none
+     */
+    public double getTime(int id) {
+        return times[id];
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (times[heap[parent]] <= times[id]) break;
+            move(heap[parent], index);
+            index = parent;
+        }
+        move(id, index);
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        int half = heap.length >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < heap.length && times[heap[child + 1]] < times[heap[child]]) child++;
+            if (times[id] <= times[heap[child]]) break;
+            move(heap[child], index);
+            index = child;
+        }
+        move(id, index);
+    }
+
+    private void move(int id, int index) {
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
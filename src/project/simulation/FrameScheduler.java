@@ -0,0 +1,126 @@
+package project.simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static project.simulation.SimulationConstants.*;
+
+/**
+ * Waits for the deadlines of the real time Simulation (next fixedUpdate or next frame).<br>
+ * When parking, the thread is parked for most of the wait and only spins for the last part,
+ * so it does not take a core away, but still wakes up precisely. The spin time adapts to how much
+ * parking oversleeps on this system. Without parking it busy-spins like a classic game loop.<br>
+ * Also keeps statistics about the jitter (how late the fixedUpdates are)
+ * and the overruns (fixedUpdates dropped, because the Simulation could not keep up).
+ */
+public class FrameScheduler {
+    private final boolean parking;
+    private long spinNanos = MAX_SPIN_NANOS;
+    private long startNanos, parkedNanos;
+    private long updates, overruns, droppedUpdates;
+    private double totalJitter, maxJitter; // ms
+
+    /**
+     * @param parking true for parking until shortly before the deadline, false for busy-spinning
+     */
+    public FrameScheduler(boolean parking) {
+        this.parking = parking;
+        reset();
+    }
+
+    /**
+     * Returns when the tick is reached.
+     * @param tick deadline like Simulation.getTick() in ms
+     */
+    public void waitUntil(double tick) {
+        long deadline = (long) (tick * 1000000d);
+        long remaining;
+        while (parking && (remaining = deadline - System.nanoTime()) > spinNanos) {
+            long parkNanos = remaining - spinNanos;
+            long parkStart = System.nanoTime();
+            LockSupport.parkNanos(parkNanos);
+            long parked = System.nanoTime() - parkStart;
+            parkedNanos += parked;
+            // twice the average oversleep as margin (parking may also return early, then it is just parked again)
+            long overslept = Math.max(0L, parked - parkNanos);
+            spinNanos = Math.max(MIN_SPIN_NANOS, Math.min(MAX_SPIN_NANOS, (spinNanos * 7 + overslept * 2) / 8));
+        }
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @param jitter how late the fixedUpdate is in ms
+     */
+    public void recordUpdate(double jitter) {
+        updates++;
+        totalJitter += jitter;
+        maxJitter = Math.max(maxJitter, jitter);
+    }
+
+    /**
+     * @param dropped number of fixedUpdates, which are skipped
+     */
+    public void recordOverrun(long dropped) {
+        overruns++;
+        droppedUpdates += dropped;
+    }
+
+    public boolean isParking() {
+        return parking;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * @return average jitter of the fixedUpdates in ms
+     */
+    public double getAverageJitter() {
+        return updates == 0 ? 0d : totalJitter / updates;
+    }
+
+    /**
+     * @return maximum jitter of the fixedUpdates in ms
+     */
+    public double getMaxJitter() {
+        return maxJitter;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getDroppedUpdates() {
+        return droppedUpdates;
+    }
+
+    /**
+     * @return share of the time (since creation or reset) the thread was parked (0.0 - 1.0)
+     */
+    public double getParkedRatio() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0L ? 0d : (double) parkedNanos / elapsed;
+    }
+
+    /**
+     * @return current time spinning before a deadline in ns
+     */
+    public long getSpinNanos() {
+        return spinNanos;
+    }
+
+    public void reset() {
+        startNanos = System.nanoTime();
+        parkedNanos = 0L;
+        updates = overruns = droppedUpdates = 0L;
+        totalJitter = maxJitter = 0d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("updates: %d, jitter: %.3fms (max %.3fms), overruns: %d (%d updates dropped), parked: %.1f%%, spin: %dus",
+                updates, getAverageJitter(), maxJitter, overruns, droppedUpdates, getParkedRatio() * 100d, spinNanos / 1000L);
+    }
+}
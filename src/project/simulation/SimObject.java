@@ -1,7 +1,5 @@
 package project.simulation;
 
-import java.awt.*;
-
 /**
  * Interface for all objects that should be part of the Simulation
  */
@@ -14,11 +12,19 @@ public interface SimObject {
     void fixedUpdate(double deltaTime);
 
     /**
-     * render() tries to achieve a specified framerate.
-     * @param g the graphics context, where the object will be rendered.
+     * Called by the View for every visible object on each frame (which tries to achieve a specified framerate),
+     * the View draws all objects in one pass.
+     * @param interpolation is a float that gives the interpolation percentage between fixedUpdates between 0 and 1.
+     * @return the height in m, where the object is drawn
+     */
+    double getDisplayHeight(float interpolation);
+
+    /**
+     * Only called, if the View is zoomed in enough to show a text next to the object.
      * @param interpolation is a float that gives the interpolation percentage between fixedUpdates between 0 and 1.
+     * @return short text, drawn on the object
      */
-    void render(Graphics2D g, float interpolation);
+    String getDisplayText(float interpolation);
 
     /**
      * Every SimObject needs to provide a Status Text.
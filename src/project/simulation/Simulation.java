@@ -1,26 +1,85 @@
 package project.simulation;
 
+import project.elevator.Elevator;
+import project.metrics.MetricsSnapshot;
 import project.tower.Tower;
+import project.traffic.TrafficSource;
 import project.View;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static project.simulation.SimulationConstants.*;
 
 /**
- * The Simulation implementing a Runnable to be executed as Thread.
+ * The Simulation implementing a Runnable to be executed as Thread.<br>
+ * A headless Simulation has no View and steps as fast as possible instead of real time.
+ * An event driven Simulation is headless too, but jumps from one event to the next (instead of fixed steps),
+ * using an EventQueue with the next update time of each elevator, the next traffic arrival, dispatch, metrics and state.
  */
 public class Simulation implements Runnable {
     private final Tower tower;
     private final View view;
+    private final List<SimObject> simObjects = new ArrayList<>();
     private final AtomicBoolean isRunning = new AtomicBoolean();
+    private ForkJoinPool pool; // only used if the SimObjects are updated in parallel
+    private volatile TrafficSource trafficSource;
+    private volatile Consumer<MetricsSnapshot> metricsListener;
+    private double metricsInterval, nextMetricsTime;
+    private volatile Consumer<Tower> stateListener;
+    private double stateInterval, nextStateTime;
+    private final EventQueue events; // null if the Simulation uses fixed steps
+    private final int trafficEvent, dispatchEvent, metricsEvent, stateEvent; // ids in the EventQueue after the elevators
 
+    private final double fixedDeltaTime; // of the Tower's clock (as configured)
+
+    private volatile FrameScheduler frameScheduler = new FrameScheduler(true);
     private double averageFPS, tickLastFrame;
 
+    /**
+     * Creates a Simulation with a View, which runs in real time.
+     * @param tower the Tower to simulate
+     */
     public Simulation(Tower tower) {
+        this(tower, new View(tower.getElevators(), tower.getConfig()), false);
+    }
+
+    private Simulation(Tower tower, View view, boolean eventDriven) {
         this.tower = tower;
-        view = new View();
-        view.getSimObjects().addAll(tower.getElevators());
+        this.view = view;
+        fixedDeltaTime = tower.getClock().getFixedDeltaTime();
+        int numberOfElevators = tower.getElevators().size();
+        trafficEvent = numberOfElevators;
+        dispatchEvent = numberOfElevators + 1;
+        metricsEvent = numberOfElevators + 2;
+        stateEvent = numberOfElevators + 3;
+        events = eventDriven ? new EventQueue(numberOfElevators + 4) : null;
+        simObjects.addAll(tower.getElevators());
+    }
+
+    /**
+     * Creates a Simulation without View (and without Swing),
+     * which only advances the SimulationClock of the Tower with each fixedUpdate.
+     * @param tower the Tower to simulate
+     * @return the headless Simulation
+     */
+    public static Simulation createHeadless(Tower tower) {
+        return new Simulation(tower, null, false);
+    }
+
+    /**
+     * Creates a headless Simulation, which jumps directly from one event to the next
+     * (Request arrival, end of an Action, dispatch of held back Requests, metrics snapshot, state),
+     * so idle elevators and times without events cost nothing.
+     * @param tower the Tower to simulate
+     * @return the event driven Simulation
+     */
+    public static Simulation createEventDriven(Tower tower) {
+        return new Simulation(tower, null, true);
     }
 
     public Tower getTower() {
@@ -31,27 +90,42 @@ public class Simulation implements Runnable {
      * Holds the main loop
      * Does the fixedUpdate at a certain rate, even if it can not hold the FPS.<br>
      * Also calculates an interpolation between fixedUpdates (0.0 - 1.0), so
-     * the rendering can be smooth, even if the fixedUpdate rate is much lower than FPS.
+     * the rendering can be smooth, even if the fixedUpdate rate is much lower than FPS.<br>
+     * In between, the FrameScheduler waits for the next fixedUpdate or frame.
+     * If more than MAX_FRAME_SKIP fixedUpdates are due at once, the rest of them is dropped as overrun.
      */
     @Override
     public void run() {
-        averageFPS = FRAMES_PER_SECOND;
+        if (isHeadless()) {
+            runHeadless();
+            return;
+        }
+        int framesPerSecond = tower.getConfig().getFramesPerSecond();
+        averageFPS = framesPerSecond;
         double startTime = getTick();
         tickLastFrame = startTime;
-        double skipUpdateTicks = 1000d / FIXED_UPDATES_PER_SECOND;
+        double skipUpdateTicks = 1000d * fixedDeltaTime;
         double nextGameTick = startTime + skipUpdateTicks;
-        double skipFrameTicks = 1000d / FRAMES_PER_SECOND;
+        double skipFrameTicks = 1000d / framesPerSecond;
         double nextFrameTick = startTime + skipFrameTicks;
         isRunning.set(true);
 
+        frameScheduler.reset();
         while (isRunning.get()) {
             int loops = 0;
-            int MAX_FRAME_SKIP = 5;
-            while (getTick() > nextGameTick && loops < MAX_FRAME_SKIP) {
+            double currentTick;
+            while ((currentTick = getTick()) > nextGameTick && loops < MAX_FRAME_SKIP) {
+                frameScheduler.recordUpdate(currentTick - nextGameTick);
                 fixedUpdate();
                 nextGameTick += skipUpdateTicks;
                 loops++;
             }
+            if (loops == MAX_FRAME_SKIP && (currentTick = getTick()) > nextGameTick) {
+                // can not keep up: drop the backlog, so the Simulation runs slower than real time instead of never rendering again
+                long dropped = (long) ((currentTick - nextGameTick) / skipUpdateTicks) + 1;
+                frameScheduler.recordOverrun(dropped);
+                nextGameTick += dropped * skipUpdateTicks;
+            }
 
             double currentFrameTick = getTick();
             if (currentFrameTick >= nextFrameTick) {
@@ -59,13 +133,114 @@ public class Simulation implements Runnable {
                 float interpolation = (float) (currentFrameTick + skipUpdateTicks - nextGameTick) / (float) skipUpdateTicks;
                 render(interpolation);
             }
+            frameScheduler.waitUntil(Math.min(nextGameTick, nextFrameTick));
         }
 
         System.out.println();
         System.out.println("averageFPS: " + averageFPS);
+        System.out.println(frameScheduler);
+        setParallelism(1);
         view.close();
     }
 
+    /**
+     * Main loop of a headless Simulation: does fixedUpdates as fast as possible until stopped.
+     */
+    private void runHeadless() {
+        isRunning.set(true);
+        while (isRunning.get()) {
+            if (isEventDriven()) {
+                runEvents(Double.POSITIVE_INFINITY);
+                tower.awaitRequest(IDLE_WAIT_NANOS); // no events left, so the simulation time stands still until the next Request
+            } else {
+                fixedUpdate();
+            }
+        }
+        setParallelism(1);
+    }
+
+    /**
+     * Does as many fixedUpdates as fit into the given simulation time (or all events within it),
+     * without waiting for real time.
+     * @param duration simulation time to run in seconds
+     */
+    public void runFor(double duration) {
+        if (isEventDriven()) {
+            double endTime = tower.getClock().getTime() + duration;
+            runEvents(endTime);
+            tower.getClock().advanceTo(endTime);
+            return;
+        }
+        long updates = Math.round(duration / fixedDeltaTime);
+        for (long i = 0; i < updates; i++) {
+            fixedUpdate();
+        }
+    }
+
+    /**
+     * Main loop of the event driven Simulation: advances the clock to the next event and
+     * does everything, which is due at that time, in the same order as a fixedUpdate
+     * (traffic, Tower update, elevators), until the next event is after the end time (or stop is called).
+     * Without any event left it returns, so the clock never jumps to infinity.
+     * @param endTime simulation time in seconds
+     */
+    private void runEvents(double endTime) {
+        List<Elevator> elevators = tower.getElevators();
+        scheduleAll();
+        double time;
+        while ((time = events.peekTime()) != Double.POSITIVE_INFINITY && time <= endTime
+                && (isRunning.get() || endTime != Double.POSITIVE_INFINITY)) {
+            tower.getClock().advanceTo(time);
+            var source = trafficSource;
+            if (source != null) {
+                source.generateUntil(time, tower);
+            }
+            boolean dispatchDue = tower.getNextDispatchTime() <= time;
+            tower.update();
+            if (dispatchDue) { // the elevators may have new Requests
+                for (int i = 0; i < elevators.size(); i++) {
+                    events.schedule(i, elevators.get(i).getNextUpdateTime());
+                }
+            }
+            while (events.peekTime() <= time) {
+                int id = events.peek();
+                if (id < elevators.size()) {
+                    Elevator elevator = elevators.get(id);
+                    elevator.fixedUpdate(0d);
+                    events.schedule(id, elevator.getNextUpdateTime());
+                } else if (id == metricsEvent) {
+                    passMetrics();
+                    events.schedule(metricsEvent, nextMetricsTime);
+                } else if (id == stateEvent) {
+                    passState();
+                    events.schedule(stateEvent, nextStateTime);
+                } else {
+                    events.schedule(id, Double.POSITIVE_INFINITY); // rescheduled below
+                }
+            }
+            scheduleTowerEvents();
+        }
+    }
+
+    /**
+     * Schedules the events of all elevators, the traffic, dispatch, metrics and state.
+     */
+    private void scheduleAll() {
+        List<Elevator> elevators = tower.getElevators();
+        for (int i = 0; i < elevators.size(); i++) {
+            events.schedule(i, elevators.get(i).getNextUpdateTime());
+        }
+        scheduleTowerEvents();
+        events.schedule(metricsEvent, metricsListener != null ? nextMetricsTime : Double.POSITIVE_INFINITY);
+        events.schedule(stateEvent, stateListener != null ? nextStateTime : Double.POSITIVE_INFINITY);
+    }
+
+    private void scheduleTowerEvents() {
+        var source = trafficSource;
+        events.schedule(trafficEvent, source != null ? source.getNextArrivalTime() : Double.POSITIVE_INFINITY);
+        events.schedule(dispatchEvent, tower.getNextDispatchTime());
+    }
+
     /**
      * Calculates currentFPS and averageFPS and
      * calls the render method for the view.
@@ -89,12 +264,156 @@ public class Simulation implements Runnable {
     }
 
     /**
-     * Updates the tower and calls fixedUpdate for each SimObject.<br>
-     * Passes deltaTime to all objects.
+     * Generates the traffic, updates the tower and calls fixedUpdate for each SimObject.<br>
+     * Passes deltaTime to all objects and advances the SimulationClock afterwards (and maybe passes on the metrics and state).
+     * If a parallelism is set, the SimObjects are updated on a ForkJoinPool,
+     * but tower update and clock are only touched before and after all of them are done.
      */
     public void fixedUpdate() {
+        var source = trafficSource;
+        if (source != null) {
+            source.generateUntil(tower.getClock().getTime(), tower);
+        }
         tower.update();
-        view.getSimObjects().forEach(simObject -> simObject.fixedUpdate(FIXED_DELTA_TIME));
+        if (pool != null && simObjects.size() > PARALLEL_CHUNK_SIZE) {
+            pool.invoke(new FixedUpdateTask(simObjects, fixedDeltaTime, 0, simObjects.size()));
+        } else {
+            simObjects.forEach(simObject -> simObject.fixedUpdate(fixedDeltaTime));
+        }
+        tower.getClock().advance(fixedDeltaTime);
+        if (metricsListener != null && tower.getClock().getTime() >= nextMetricsTime) {
+            passMetrics();
+        }
+        if (stateListener != null && tower.getClock().getTime() >= nextStateTime) {
+            passState();
+        }
+    }
+
+    /**
+     * Passes the Tower to the stateListener and sets the time of the next call.
+     */
+    private void passState() {
+        var listener = stateListener;
+        nextStateTime += stateInterval;
+        if (listener != null) {
+            listener.accept(tower);
+        }
+    }
+
+    /**
+     * Passes a MetricsSnapshot to the metricsListener and sets the time of the next one.
+     */
+    private void passMetrics() {
+        var listener = metricsListener;
+        nextMetricsTime += metricsInterval;
+        if (listener != null) {
+            listener.accept(tower.getMetricsSnapshot());
+        }
+    }
+
+    /**
+     * Passes a MetricsSnapshot of the Tower to the listener periodically (in simulation time).<br>
+     * The snapshot is taken on the Simulation thread, in between two fixedUpdates.
+     * @param interval simulation time between two snapshots in seconds
+     * @param metricsListener e.g. prints the snapshot, or null for no snapshots
+     */
+    public void setMetricsListener(double interval, Consumer<MetricsSnapshot> metricsListener) {
+        metricsInterval = interval;
+        nextMetricsTime = tower.getClock().getTime() + interval;
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Passes the Tower to the listener periodically (in simulation time), e.g. for copying the elevator states.<br>
+     * It is called on the Simulation thread, in between two fixedUpdates, so it can read the elevators safely,
+     * but should hand the copy over to its own thread instead of doing slow work.
+     * @param interval simulation time between two calls in seconds
+     * @param stateListener e.g. a ControlServer publishing the state, or null for none
+     */
+    public void setStateListener(double interval, Consumer<Tower> stateListener) {
+        stateInterval = interval;
+        nextStateTime = tower.getClock().getTime() + interval;
+        this.stateListener = stateListener;
+    }
+
+    /**
+     * Sets a TrafficSource, which adds Requests to the Tower on every fixedUpdate,
+     * starting from the current simulation time.
+     * @param trafficSource e.g. a TrafficGenerator, or null for no traffic
+     */
+    public void setTrafficSource(TrafficSource trafficSource) {
+        if (trafficSource != null) {
+            trafficSource.start(tower.getClock().getTime());
+        }
+        this.trafficSource = trafficSource;
+    }
+
+    /**
+     * Sets the number of threads for updating the SimObjects.<br>
+     * As the elevators do not depend on each other, they can be updated in parallel
+     * (an event driven Simulation always updates them on its own thread).
+     * @param parallelism number of threads, 1 for updating them on the Simulation thread
+     */
+    public void setParallelism(int parallelism) {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Splits the SimObjects into chunks of PARALLEL_CHUNK_SIZE and calls fixedUpdate for them.
+     */
+    private static class FixedUpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<SimObject> simObjects;
+        private final double fixedDeltaTime;
+        private final int from, to;
+
+        private FixedUpdateTask(List<SimObject> simObjects, double fixedDeltaTime, int from, int to) {
+            this.simObjects = simObjects;
+            this.fixedDeltaTime = fixedDeltaTime;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    simObjects.get(i).fixedUpdate(fixedDeltaTime);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FixedUpdateTask(simObjects, fixedDeltaTime, from, middle),
+                        new FixedUpdateTask(simObjects, fixedDeltaTime, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Selects how the real time Simulation waits between fixedUpdates and frames
+     * (the statistics start again).
+     * @param parking true for parking the thread, false for busy-spinning
+     */
+    public void setParking(boolean parking) {
+        frameScheduler = new FrameScheduler(parking);
+    }
+
+    /**
+     * @return the FrameScheduler with jitter and overrun statistics of the real time Simulation
+     */
+    public FrameScheduler getFrameScheduler() {
+        return frameScheduler;
+    }
+
+    public boolean isHeadless() {
+        return view == null;
+    }
+
+    public boolean isEventDriven() {
+        return events != null;
     }
 
     /**
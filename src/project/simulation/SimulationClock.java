@@ -0,0 +1,80 @@
+package project.simulation;
+
+/**
+ * The clock of the Simulation.<br>
+ * It only advances with each fixedUpdate, so the Simulation does not depend on wall-clock time
+ * and can also run faster than real time.
+ */
+public class SimulationClock {
+    private final double fixedDeltaTime; // s
+    private double baseTime; // s, where counting fixed steps started (0, unless advanced to a time between them)
+    private long ticks; // fixed steps since the base time
+    private volatile double time; // s, volatile as Requests read it from other threads
+
+    public SimulationClock() {
+        this(SimulationConstants.FIXED_DELTA_TIME);
+    }
+
+    /**
+     * @param fixedDeltaTime time of one fixedUpdate in seconds
+     */
+    public SimulationClock(double fixedDeltaTime) {
+        if (fixedDeltaTime <= 0d) throw new IllegalArgumentException("The fixed delta time has to be positive!");
+        this.fixedDeltaTime = fixedDeltaTime;
+    }
+
+    /**
+     * @return time of one fixedUpdate in seconds (e.g. for interpolating between them)
+     */
+    public double getFixedDeltaTime() {
+        return fixedDeltaTime;
+    }
+
+    /**
+     * @return current simulation time in seconds
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Advances the clock.<br>
+     * Fixed steps are counted and multiplied instead of added up,
+     * so the time does not drift from the exact multiple of the fixed delta time over millions of steps.
+     * @param deltaTime time to advance in seconds
+     */
+    public void advance(double deltaTime) {
+        if (deltaTime == fixedDeltaTime) { // only the Simulation thread advances the clock
+            ticks++;
+            time = baseTime + ticks * fixedDeltaTime;
+        } else {
+            setTime(time + deltaTime);
+        }
+    }
+
+    /**
+     * Advances the clock to the given time (e.g. to the next event).
+     * @param time simulation time in seconds, must not be before the current time
+     */
+    public void advanceTo(double time) {
+        if (time < this.time) throw new IllegalArgumentException("The clock cannot go back in time!");
+        setTime(time);
+    }
+
+    /**
+     * Sets the time and goes on counting fixed steps from it.
+     * A time, which is a whole number of fixed steps (like the one of a snapshot of a fixed step Simulation),
+     * goes on exactly like counting from 0 would.
+     */
+    private void setTime(double time) {
+        long wholeTicks = Math.round(time / fixedDeltaTime);
+        if (wholeTicks * fixedDeltaTime == time) {
+            baseTime = 0d;
+            ticks = wholeTicks;
+        } else {
+            baseTime = time;
+            ticks = 0;
+        }
+        this.time = time;
+    }
+}
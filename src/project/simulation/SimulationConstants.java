@@ -6,8 +6,25 @@ package project.simulation;
 public class SimulationConstants {
     public static final int FIXED_UPDATES_PER_SECOND = 25;
     public static final int FRAMES_PER_SECOND = 60;
+    public static final int STATUS_UPDATES_PER_SECOND = 10; // of the status table
     public static final int FLOOR_HEIGHT_PIXEL = 12;
     public static final int ELEVATOR_SPACING_PIXEL = 12;
+    public static final int CAR_PIXEL_WIDTH = 10;
+    public static final int CAR_PIXEL_HEIGHT = 10;
+    public static final int GUTTER_PIXEL = 24; // left of the elevators, for the floor numbers
+    public static final int MAX_VIEW_WIDTH = 1200; // initial size of the window, larger towers are scrolled or zoomed out
+    public static final int MAX_VIEW_HEIGHT = 800;
+    public static final double DEFAULT_ZOOM = 3.0;
+    public static final double MIN_ZOOM = 0.1;
+    public static final double MAX_ZOOM = 8.0;
+    public static final double ZOOM_STEP = 1.1; // per mouse wheel notch
+    public static final int TEXT_MIN_COLUMN_PIXEL = 30; // the height is only drawn, if a column is at least this wide
+    public static final int STATUS_TABLE_ROWS = 20; // visible rows of the status table
+    public static final int PARALLEL_CHUNK_SIZE = 32; // SimObjects updated by one task
+    public static final int MAX_FRAME_SKIP = 5; // fixedUpdates caught up before the next frame, the rest is dropped
+    public static final long MIN_SPIN_NANOS = 50_000L; // spinning before a deadline instead of parking (adapts in between)
+    public static final long MAX_SPIN_NANOS = 2_000_000L;
+    public static final long IDLE_WAIT_NANOS = 100_000_000L; // how long an event driven Simulation waits for Requests at once
 
     // Calculated
     public static final double FIXED_DELTA_TIME = 1d / FIXED_UPDATES_PER_SECOND;
@@ -0,0 +1,155 @@
+package project.simulation;
+
+import org.junit.jupiter.api.Test;
+import project.enums.Status;
+import project.tower.Tower;
+import project.tower.TowerConstants;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the headless Simulation
+ */
+public class SimulationTest {
+
+    @Test
+    void runFor_advancesClock() {
+        Simulation simulation = Simulation.createHeadless(new Tower());
+        assertTrue(simulation.isHeadless());
+        simulation.runFor(3600);
+        assertEquals(3600d, simulation.getTower().getClock().getTime(), 0.000001d);
+    }
+
+    @Test
+    void runFor_executesRequest() {
+        Tower tower = new Tower();
+        Simulation simulation = Simulation.createHeadless(tower);
+        tower.addRequest(0, 15);
+        simulation.runFor(60);
+        var elevator = tower.getElevators().get(0);
+        assertEquals(15, elevator.getCurrentFloor());
+        assertEquals(Status.IDLE, elevator.getCurrentStatus());
+    }
+
+    @Test
+    void runFor_eventDrivenExecutesRequest() {
+        Tower tower = new Tower();
+        Simulation simulation = Simulation.createEventDriven(tower);
+        assertTrue(simulation.isEventDriven());
+        tower.addRequest(0, 15);
+        simulation.runFor(60);
+        var elevator = tower.getElevators().get(0);
+        assertEquals(15, elevator.getCurrentFloor());
+        assertEquals(Status.IDLE, elevator.getCurrentStatus());
+        assertEquals(60d, tower.getClock().getTime());
+        simulation.runFor(7 * 24 * 3600); // a week without events
+        assertEquals(60d + 7 * 24 * 3600, tower.getClock().getTime());
+    }
+
+    @Test
+    void runFor_eventDrivenMatchesFixedSteps() {
+        Tower fixedTower = new Tower(), eventTower = new Tower();
+        Simulation fixed = Simulation.createHeadless(fixedTower);
+        Simulation events = Simulation.createEventDriven(eventTower);
+        fixed.setTrafficSource(new TrafficGenerator(5, TrafficProfile.UNIFORM, 4, TowerConstants.NUMBER_OF_FLOORS));
+        events.setTrafficSource(new TrafficGenerator(5, TrafficProfile.UNIFORM, 4, TowerConstants.NUMBER_OF_FLOORS));
+        fixed.runFor(3600);
+        events.runFor(3600);
+        fixed.setTrafficSource(null);
+        events.setTrafficSource(null);
+        fixed.runFor(600); // deliver everyone
+        events.runFor(600);
+        var fixedMetrics = fixedTower.getMetricsSnapshot();
+        var eventMetrics = eventTower.getMetricsSnapshot();
+        assertTrue(fixedMetrics.getJourneyTimes().getCount() > 100);
+        assertEquals(fixedMetrics.getJourneyTimes().getCount(), eventMetrics.getJourneyTimes().getCount());
+        // fixed steps start each trip up to one step later
+        assertEquals(fixedMetrics.getJourneyTimes().getMean(), eventMetrics.getJourneyTimes().getMean(), 0.5d);
+        assertEquals(fixedMetrics.getWaitTimes().getMean(), eventMetrics.getWaitTimes().getMean(), 0.5d);
+    }
+
+    @Test
+    void clock_doesNotDriftOverManyFixedSteps() {
+        SimulationClock clock = new SimulationClock(0.01);
+        for (int i = 0; i < 1_000_000; i++) {
+            clock.advance(0.01);
+        }
+        assertEquals(10_000d, clock.getTime());
+        clock.advanceTo(10_000.005);
+        clock.advance(0.01);
+        assertEquals(10_000.015, clock.getTime(), 1e-9);
+        clock.advanceTo(20_000d); // a whole number of steps again
+        clock.advance(0.01);
+        assertEquals(2_000_001 * 0.01, clock.getTime());
+    }
+
+    @Test
+    void run_eventDrivenServesRequestAfterIdling() throws InterruptedException {
+        Tower tower = new Tower();
+        Simulation simulation = Simulation.createEventDriven(tower);
+        Thread thread = new Thread(simulation);
+        thread.setDaemon(true);
+        thread.start();
+        Thread.sleep(50); // nothing to do, so the Simulation waits for a Request
+        assertEquals(0d, tower.getClock().getTime());
+        tower.addRequest(0, 15);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (tower.getClock().getTime() == 0d && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(100); // all events of the Request are done in no time
+        simulation.stop();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        double time = tower.getClock().getTime();
+        assertTrue(time > 0d && time < 60d, "time " + time);
+        var elevator = tower.getElevators().get(0);
+        assertEquals(15, elevator.getCurrentFloor());
+        assertEquals(1, tower.getMetricsSnapshot().getJourneyTimes().getCount());
+    }
+
+    @Test
+    void runFor_parallelMatchesSequential() {
+        Tower sequentialTower = new Tower(100), parallelTower = new Tower(100);
+        Simulation sequential = Simulation.createHeadless(sequentialTower);
+        Simulation parallel = Simulation.createHeadless(parallelTower);
+        parallel.setParallelism(4);
+        for (int floor = 1; floor <= TowerConstants.NUMBER_OF_FLOORS; floor++) {
+            sequentialTower.addRequest(0, floor);
+            sequentialTower.addRequest(floor, 0);
+            parallelTower.addRequest(0, floor);
+            parallelTower.addRequest(floor, 0);
+        }
+        sequential.runFor(120);
+        parallel.runFor(120);
+        parallel.setParallelism(1);
+        for (int i = 0; i < sequentialTower.getElevators().size(); i++) {
+            assertEquals(sequentialTower.getElevators().get(i).getStatusText(), parallelTower.getElevators().get(i).getStatusText());
+        }
+    }
+
+    @Test
+    void frameScheduler_parksUntilDeadline() {
+        FrameScheduler scheduler = new FrameScheduler(true);
+        for (int i = 0; i < 10; i++) {
+            double deadline = Simulation.getTick() + 5d;
+            scheduler.waitUntil(deadline);
+            assertTrue(Simulation.getTick() >= deadline);
+        }
+        assertTrue(scheduler.getParkedRatio() > 0d);
+        assertTrue(scheduler.getSpinNanos() >= SimulationConstants.MIN_SPIN_NANOS);
+        assertTrue(scheduler.getSpinNanos() <= SimulationConstants.MAX_SPIN_NANOS);
+
+        scheduler.recordUpdate(1d);
+        scheduler.recordUpdate(3d);
+        scheduler.recordOverrun(4);
+        assertEquals(2d, scheduler.getAverageJitter(), 0.000001d);
+        assertEquals(3d, scheduler.getMaxJitter());
+        assertEquals(1, scheduler.getOverruns());
+        assertEquals(4, scheduler.getDroppedUpdates());
+    }
+}
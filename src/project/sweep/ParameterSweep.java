@@ -0,0 +1,244 @@
+package project.sweep;
+
+import project.config.Config;
+import project.config.ConfigConstants;
+import project.dispatch.DispatchStrategy;
+import project.simulation.Simulation;
+import project.tower.Tower;
+import project.tower.TowerSnapshot;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static project.sweep.SweepConstants.*;
+
+/**
+ * Runs one headless Tower + Simulation for each point of a grid of parameters, on all cores,
+ * so sizing a building does not need one Application start per scenario.<br>
+ * The grid holds alternatives for Config keys ('elevators', 'car.capacity', 'car.2.maxSpeed', ...)
+ * and for the traffic ('dispatch', 'profile', 'rate', 'peak', 'seed'). Every combination is simulated
+ * event driven for the same duration, and the results are streamed to CSV as the runs complete.
+ * The runs share nothing, so the results do not depend on the number of threads.
+ */
+public class ParameterSweep {
+    private final Config baseConfig;
+    private final Map<String, List<String>> grid;
+    private final double duration, warmup;
+    private final List<SweepCase> cases = new ArrayList<>();
+    private byte[] snapshot; // null if the runs start with an empty Tower
+
+    /**
+     * @param baseConfig Config for all values, which are not in the grid
+     * @param grid alternatives for each key (in the order of the CSV columns, the last key changes fastest)
+     * @param duration simulation time of each run in seconds (after the warmup)
+     * @param warmup simulation time before the metrics start in seconds
+     * @throws IllegalArgumentException if a key or value of the grid is invalid
+     */
+    public ParameterSweep(Config baseConfig, Map<String, List<String>> grid, double duration, double warmup) {
+        if (duration <= 0d || warmup < 0d) {
+            throw new IllegalArgumentException("Duration has to be positive and warmup must not be negative!");
+        }
+        this.baseConfig = baseConfig;
+        this.grid = new LinkedHashMap<>(grid);
+        this.duration = duration;
+        this.warmup = warmup;
+        createCases();
+    }
+
+    /**
+     * Parameter sweep entry point.
+     * @param args alternatives as 'key=value1,value2' (values of 'car.floors' and 'zones' separated by ';'),
+     *             'duration=#SECONDS', 'warmup=#SECONDS', 'threads=#THREADS', 'config=FILE' for the values not in the grid,
+     *             'out=FILE' writes the CSV into a file instead of the console,
+     *             'snapshot=FILE' starts every run from a snapshot (see TowerSnapshot) instead of an empty Tower
+     * @throws IOException if the config cannot be read or the CSV cannot be written
+     * @throws InterruptedException if interrupted while waiting for the runs
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        Map<String, List<String>> grid = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                System.out.println("Expected key=value: " + arg);
+                return;
+            }
+            switch (keyValue[0]) {
+                case "duration", "warmup", "threads", "config", "out", "snapshot" -> options.put(keyValue[0], keyValue[1]);
+                default -> grid.put(keyValue[0], parseValues(keyValue[0], keyValue[1]));
+            }
+        }
+        Config config = options.containsKey("config") ? Config.load(Path.of(options.get("config"))) : Config.DEFAULT;
+        var sweep = new ParameterSweep(config, grid,
+                Double.parseDouble(options.getOrDefault("duration", String.valueOf(DEFAULT_DURATION))),
+                Double.parseDouble(options.getOrDefault("warmup", String.valueOf(DEFAULT_WARMUP))));
+        if (options.containsKey("snapshot")) {
+            sweep.setSnapshot(Files.readAllBytes(Path.of(options.get("snapshot"))));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        String out = options.get("out");
+        try (Writer writer = out != null ? Files.newBufferedWriter(Path.of(out)) : new BufferedWriter(new OutputStreamWriter(System.out))) {
+            long startTime = System.nanoTime();
+            writer.write(sweep.getCsvHeader());
+            writer.write(System.lineSeparator());
+            writer.flush();
+            int[] finished = {0};
+            sweep.run(threads, result -> {
+                try {
+                    writer.write(result.toCsvRow());
+                    writer.write(System.lineSeparator());
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                System.err.printf("%d/%d runs finished%n", ++finished[0], sweep.getCases().size());
+            });
+            System.err.printf("Swept %d runs on %d threads in %.1fs%n", sweep.getCases().size(), threads, (System.nanoTime() - startTime) / 1e9);
+        }
+    }
+
+    /**
+     * @param key key of the grid
+     * @param values like '4,7,10', or '0-20;0,21-55' for served floors
+     * @return the alternatives
+     */
+    static List<String> parseValues(String key, String values) {
+        String separator = key.endsWith(".floors") || key.equals(ConfigConstants.KEY_ZONES) ? FLOORS_VALUE_SEPARATOR : VALUE_SEPARATOR;
+        List<String> alternatives = new ArrayList<>();
+        for (String value : values.split(separator)) {
+            if (!value.isBlank()) alternatives.add(value.trim());
+        }
+        return alternatives;
+    }
+
+    /**
+     * Creates a SweepCase for every combination of the alternatives (like an odometer, the last key changes fastest).
+     * Invalid values throw here, before anything runs.
+     */
+    private void createCases() {
+        List<String> keys = new ArrayList<>(grid.keySet());
+        int[] positions = new int[keys.size()];
+        for (String key : keys) {
+            if (grid.get(key).isEmpty()) {
+                throw new IllegalArgumentException("No values for " + key);
+            }
+        }
+        while (true) {
+            List<String> values = new ArrayList<>(keys.size());
+            for (int k = 0; k < keys.size(); k++) {
+                values.add(grid.get(keys.get(k)).get(positions[k]));
+            }
+            cases.add(createCase(cases.size(), keys, values));
+            int k = keys.size() - 1;
+            while (k >= 0 && ++positions[k] == grid.get(keys.get(k)).size()) {
+                positions[k--] = 0;
+            }
+            if (k < 0) break;
+        }
+    }
+
+    private SweepCase createCase(int index, List<String> keys, List<String> values) {
+        Config config = baseConfig;
+        Map<String, String> traffic = new HashMap<>();
+        for (int k = 0; k < keys.size(); k++) {
+            switch (keys.get(k)) {
+                case KEY_DISPATCH, KEY_PROFILE, KEY_RATE, KEY_PEAK, KEY_SEED -> traffic.put(keys.get(k), values.get(k));
+                default -> config = config.with(keys.get(k), values.get(k));
+            }
+        }
+        String dispatch = traffic.getOrDefault(KEY_DISPATCH, DEFAULT_DISPATCH);
+        DispatchStrategy.forName(dispatch); // fails now for unknown names
+        try {
+            return new SweepCase(index, values, config, dispatch,
+                    TrafficProfile.valueOf(traffic.getOrDefault(KEY_PROFILE, DEFAULT_PROFILE).toUpperCase()),
+                    Double.parseDouble(traffic.getOrDefault(KEY_RATE, DEFAULT_RATE)),
+                    Double.parseDouble(traffic.getOrDefault(KEY_PEAK, DEFAULT_PEAK)),
+                    Long.parseLong(traffic.getOrDefault(KEY_SEED, DEFAULT_SEED)));
+        } catch (IllegalArgumentException e) { // also NumberFormatException
+            throw new IllegalArgumentException("Invalid traffic parameters " + traffic + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts every run from the snapshot instead of an empty Tower (e.g. from the steady state of a peak),
+     * so a warmup is not needed. The Config of each SweepCase needs the same floors and cars (capacity and control).
+     * @param snapshot a snapshot of TowerSnapshot.capture, or null for an empty Tower
+     */
+    public void setSnapshot(byte[] snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public List<SweepCase> getCases() {
+        return Collections.unmodifiableList(cases);
+    }
+
+    /**
+     * @return the header: index, the keys of the grid and the metrics
+     */
+    public String getCsvHeader() {
+        StringJoiner header = new StringJoiner(",");
+        header.add("case");
+        grid.keySet().forEach(key -> header.add(SweepResult.escape(key)));
+        return header.add(SweepResult.CSV_COLUMNS).toString();
+    }
+
+    /**
+     * Simulates one SweepCase (on the calling thread), starting from the snapshot, if one is set.
+     * @param sweepCase the SweepCase
+     * @return its result
+     */
+    public SweepResult run(SweepCase sweepCase) {
+        long startTime = System.nanoTime();
+        Tower tower = new Tower(sweepCase.getConfig());
+        tower.setInterFloorRequestsAllowed(true); // the TrafficProfile decides
+        tower.setDispatchStrategy(DispatchStrategy.forName(sweepCase.getDispatch()));
+        if (snapshot != null) {
+            TowerSnapshot.restore(tower, snapshot);
+        }
+        Simulation simulation = Simulation.createEventDriven(tower);
+        simulation.setTrafficSource(new TrafficGenerator(sweepCase.getSeed(), sweepCase.getProfile(),
+                sweepCase.getRequestsPerMinute(), tower.getNumberOfFloors(), sweepCase.getPeakDuration()));
+        if (warmup > 0d) {
+            simulation.runFor(warmup);
+            tower.resetMetrics();
+        }
+        simulation.runFor(duration);
+        return new SweepResult(sweepCase, tower.getMetricsSnapshot(), tower.getDroppedRequests(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Simulates all SweepCases on a pool of threads.
+     * @param threads number of runs at the same time
+     * @param resultConsumer gets each result as soon as its run completes, always on the calling thread
+     * @throws InterruptedException if interrupted while waiting (the remaining runs are cancelled)
+     */
+    public void run(int threads, Consumer<SweepResult> resultConsumer) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            CompletionService<SweepResult> completionService = new ExecutorCompletionService<>(executor);
+            for (SweepCase sweepCase : cases) {
+                completionService.submit(() -> run(sweepCase));
+            }
+            for (int i = 0; i < cases.size(); i++) {
+                try {
+                    resultConsumer.accept(completionService.take().get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A run of the sweep failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
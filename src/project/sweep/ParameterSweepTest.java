@@ -0,0 +1,80 @@
+package project.sweep;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.traffic.TrafficProfile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the ParameterSweep
+ */
+public class ParameterSweepTest {
+
+    @Test
+    void grid_createsEveryCombination() {
+        Map<String, List<String>> grid = new LinkedHashMap<>();
+        grid.put("elevators", List.of("3", "5"));
+        grid.put("dispatch", List.of("greedy", "batch"));
+        grid.put("seed", List.of("1", "2", "3"));
+        ParameterSweep sweep = new ParameterSweep(Config.DEFAULT, grid, 60, 0);
+
+        List<SweepCase> cases = sweep.getCases();
+        assertEquals(12, cases.size());
+        assertEquals(List.of("3", "greedy", "1"), cases.get(0).getValues());
+        assertEquals(List.of("3", "greedy", "2"), cases.get(1).getValues()); // last key changes fastest
+        assertEquals(List.of("5", "batch", "3"), cases.get(11).getValues());
+        assertEquals(5, cases.get(11).getConfig().getNumberOfElevators());
+        assertEquals(3L, cases.get(11).getSeed());
+        assertEquals(TrafficProfile.UNIFORM, cases.get(11).getProfile());
+        assertEquals("case,elevators,dispatch,seed," + SweepResult.CSV_COLUMNS, sweep.getCsvHeader());
+    }
+
+    @Test
+    void parseValues_floorsAreSeparatedBySemicolon() {
+        assertEquals(List.of("4", "7"), ParameterSweep.parseValues("elevators", "4, 7"));
+        assertEquals(List.of("all", "0,30-55"), ParameterSweep.parseValues("car.2.floors", "all;0,30-55"));
+        assertEquals("\"0,30-55\"", SweepResult.escape("0,30-55"));
+    }
+
+    @Test
+    void invalidGrid_throwsBeforeRunning() {
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(Config.DEFAULT, Map.of("speed", List.of("3")), 60, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(Config.DEFAULT, Map.of("dispatch", List.of("fastest")), 60, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(Config.DEFAULT, Map.of("profile", List.of("rush")), 60, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ParameterSweep(Config.DEFAULT, Map.of("elevators", List.of()), 60, 0));
+    }
+
+    @Test
+    void run_parallelResultsEqualSequentialResults() throws InterruptedException {
+        Map<String, List<String>> grid = new LinkedHashMap<>();
+        grid.put("elevators", List.of("2", "4"));
+        grid.put("profile", List.of("up_peak", "lunch"));
+        grid.put("rate", List.of("20"));
+        ParameterSweep sweep = new ParameterSweep(Config.DEFAULT, grid, 1800, 300);
+
+        String[] sequential = new String[sweep.getCases().size()];
+        for (SweepCase sweepCase : sweep.getCases()) {
+            sequential[sweepCase.getIndex()] = withoutRuntime(sweep.run(sweepCase).toCsvRow());
+        }
+        List<SweepResult> results = new ArrayList<>();
+        sweep.run(4, results::add);
+        assertEquals(4, results.size());
+        for (SweepResult result : results) {
+            assertEquals(sequential[result.getSweepCase().getIndex()], withoutRuntime(result.toCsvRow()));
+            assertTrue(result.getMetrics().getWaitTimes().getCount() > 0);
+            assertEquals(1800d, result.getMetrics().getDuration(), 1e-6); // without the warmup
+        }
+    }
+
+    private static String withoutRuntime(String row) {
+        return row.substring(0, row.lastIndexOf(','));
+    }
+}
@@ -0,0 +1,73 @@
+package project.sweep;
+
+import project.config.Config;
+import project.traffic.TrafficProfile;
+
+import java.util.List;
+
+/**
+ * One point of the grid of a ParameterSweep: the Config of the Tower and the traffic, which is simulated with it.
+ */
+public class SweepCase {
+    private final int index;
+    private final List<String> values;
+    private final Config config;
+    private final String dispatch;
+    private final TrafficProfile profile;
+    private final double requestsPerMinute, peakDuration;
+    private final long seed;
+
+    /**
+     * @param index position in the grid (results can come in a different order)
+     * @param values the value of each key of the grid, as given
+     * @param config the Config of the Tower
+     * @param dispatch name of the DispatchStrategy
+     * @param profile the TrafficProfile
+     * @param requestsPerMinute (peak) arrival rate
+     * @param peakDuration duration of the peak in seconds, 0 for a constant rate
+     * @param seed seed of the TrafficGenerator
+     */
+    public SweepCase(int index, List<String> values, Config config, String dispatch, TrafficProfile profile,
+                     double requestsPerMinute, double peakDuration, long seed) {
+        this.index = index;
+        this.values = List.copyOf(values);
+        this.config = config;
+        this.dispatch = dispatch;
+        this.profile = profile;
+        this.requestsPerMinute = requestsPerMinute;
+        this.peakDuration = peakDuration;
+        this.seed = seed;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    public String getDispatch() {
+        return dispatch;
+    }
+
+    public TrafficProfile getProfile() {
+        return profile;
+    }
+
+    public double getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public double getPeakDuration() {
+        return peakDuration;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
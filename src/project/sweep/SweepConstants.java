@@ -0,0 +1,24 @@
+package project.sweep;
+
+/**
+ * Constants for the ParameterSweep
+ */
+public class SweepConstants {
+    // keys of the grid, which are not part of the Config
+    public static final String KEY_DISPATCH = "dispatch";
+    public static final String KEY_PROFILE = "profile";
+    public static final String KEY_RATE = "rate"; // requests per minute
+    public static final String KEY_PEAK = "peak"; // s, peak duration of the traffic, 0 for a constant rate
+    public static final String KEY_SEED = "seed";
+
+    public static final String DEFAULT_DISPATCH = "greedy";
+    public static final String DEFAULT_PROFILE = "uniform";
+    public static final String DEFAULT_RATE = "30";
+    public static final String DEFAULT_PEAK = "0";
+    public static final String DEFAULT_SEED = "1";
+    public static final double DEFAULT_DURATION = 3600d; // s of simulation time per run
+    public static final double DEFAULT_WARMUP = 0d; // s, simulated before the metrics start
+
+    public static final String VALUE_SEPARATOR = ",";
+    public static final String FLOORS_VALUE_SEPARATOR = ";"; // 'car.floors' and 'zones' values contain commas themselves
+}
@@ -0,0 +1,90 @@
+package project.sweep;
+
+import project.metrics.Histogram;
+import project.metrics.MetricsSnapshot;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Aggregated result of one SweepCase, as a row of the CSV.
+ */
+public class SweepResult {
+    static final String CSV_COLUMNS = "waited,wait_mean,wait_p95,wait_p99,wait_max,"
+            + "transported,journey_mean,journey_p95,journey_p99,transported_per_hour,utilisation,dropped,runtime_ms";
+
+    private final SweepCase sweepCase;
+    private final MetricsSnapshot metrics;
+    private final long droppedRequests;
+    private final long runNanos;
+
+    /**
+     * @param sweepCase the simulated SweepCase
+     * @param metrics metrics of the Tower at the end of the run
+     * @param droppedRequests number of Requests dropped, because the intake was full
+     * @param runNanos wall clock time of the run in nanoseconds
+     */
+    public SweepResult(SweepCase sweepCase, MetricsSnapshot metrics, long droppedRequests, long runNanos) {
+        this.sweepCase = sweepCase;
+        this.metrics = metrics;
+        this.droppedRequests = droppedRequests;
+        this.runNanos = runNanos;
+    }
+
+    public SweepCase getSweepCase() {
+        return sweepCase;
+    }
+
+    public MetricsSnapshot getMetrics() {
+        return metrics;
+    }
+
+    public long getDroppedRequests() {
+        return droppedRequests;
+    }
+
+    /**
+     * @return transported passengers per hour of simulation time (after the warmup)
+     */
+    public double getTransportedPerHour() {
+        double duration = metrics.getDuration();
+        return duration > 0d ? metrics.getJourneyTimes().getCount() / duration * 3600d : 0d;
+    }
+
+    /**
+     * @return the row: index, the values of the grid and the CSV_COLUMNS
+     */
+    public String toCsvRow() {
+        StringJoiner row = new StringJoiner(",");
+        row.add(String.valueOf(sweepCase.getIndex()));
+        sweepCase.getValues().forEach(value -> row.add(escape(value)));
+        Histogram waitTimes = metrics.getWaitTimes(), journeyTimes = metrics.getJourneyTimes();
+        row.add(String.valueOf(waitTimes.getCount()))
+                .add(format(waitTimes.getMean()))
+                .add(format(waitTimes.getValueAtPercentile(95)))
+                .add(format(waitTimes.getValueAtPercentile(99)))
+                .add(format(waitTimes.getMax()))
+                .add(String.valueOf(journeyTimes.getCount()))
+                .add(format(journeyTimes.getMean()))
+                .add(format(journeyTimes.getValueAtPercentile(95)))
+                .add(format(journeyTimes.getValueAtPercentile(99)))
+                .add(format(getTransportedPerHour()))
+                .add(String.format(Locale.ROOT, "%.4f", metrics.getAverageUtilisation()))
+                .add(String.valueOf(droppedRequests))
+                .add(String.valueOf(runNanos / 1_000_000));
+        return row.toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * @param value a value of the grid
+     * @return the value, quoted if it contains a comma or quote (like 'car.2.floors' values)
+     */
+    static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
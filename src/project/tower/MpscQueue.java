@@ -0,0 +1,98 @@
+package project.tower;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free queue for multiple producers and a single consumer.<br>
+ * Each slot has a sequence number, which tells producers and the consumer, if the slot is free or published
+ * (like Dmitry Vyukov's bounded queue), so neither adding nor removing copies or allocates anything.
+ * @param <E> type of the elements
+ */
+public class MpscQueue<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex; // only written by the consumer
+
+    /**
+     * @param capacity gets rounded up to a power of 2
+     */
+    public MpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        buffer = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Adds the element, if the queue is not full. Can be called from any thread.
+     * @param element the element to be added
+     * @return false if the queue is full
+     */
+    public boolean offer(E element) {
+        long index;
+        int slot;
+        while (true) {
+            index = producerIndex.get();
+            slot = (int) index & mask;
+            long difference = sequences.get(slot) - index;
+            if (difference == 0) { // slot is free
+                if (producerIndex.compareAndSet(index, index + 1)) break;
+            } else if (difference < 0) { // slot is still used by the previous round, so the queue is full
+                return false;
+            } // else another producer was faster, try again
+        }
+        buffer.lazySet(slot, element);
+        sequences.set(slot, index + 1); // publish
+        return true;
+    }
+
+    /**
+     * Removes the head of the queue. Must only be called from the consumer thread.
+     * @return the head, or null if the queue is empty
+     */
+    public E poll() {
+        long index = consumerIndex;
+        int slot = (int) index & mask;
+        if (sequences.get(slot) != index + 1) return null; // empty (or the producer did not publish yet)
+        E element = buffer.get(slot);
+        buffer.lazySet(slot, null);
+        sequences.set(slot, index + mask + 1); // free for the next round
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    /**
+     * Reads an element without removing it (e.g. for a snapshot). Must only be called from the consumer thread.
+     * @param offset position from the head
+     * @return the element, or null if there is none (or the producer did not publish it yet)
+     */
+    public E peek(int offset) {
+        if (offset < 0 || offset > mask) return null;
+        long index = consumerIndex + offset;
+        int slot = (int) index & mask;
+        if (sequences.get(slot) != index + 1) return null;
+        return buffer.get(slot);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return number of elements, only exact if no other thread adds or removes
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(producerIndex.get() - consumerIndex, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,78 @@
+package project.tower;
+
+import org.junit.jupiter.api.Test;
+import project.enums.OverflowPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Does some Tests for the MpscQueue and the request intake of the Tower
+ */
+public class MpscQueueTest {
+
+    @Test
+    void offer_failsWhenFull() {
+        MpscQueue<Integer> queue = new MpscQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(Integer.valueOf(i), queue.poll());
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void offer_multipleProducers() throws InterruptedException {
+        int producers = 4, elementsPerProducer = 100_000;
+        MpscQueue<long[]> queue = new MpscQueue<>(1024);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!queue.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        while (received < producers * elementsPerProducer) {
+            long[] element = queue.poll();
+            if (element == null) continue;
+            assertEquals(nextExpected[(int) element[0]]++, element[1]); // order of each producer is kept
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void addRequest_overflowPolicies() {
+        Tower dropping = new Tower(1, 2, OverflowPolicy.DROP);
+        assertTrue(dropping.addRequest(0, 1));
+        assertTrue(dropping.addRequest(0, 2));
+        assertFalse(dropping.addRequest(0, 3));
+        assertEquals(1, dropping.getDroppedRequests());
+        dropping.update();
+        assertEquals(0, dropping.getPendingRequests());
+
+        Tower rejecting = new Tower(1, 2, OverflowPolicy.REJECT);
+        rejecting.addRequest(0, 1);
+        rejecting.addRequest(0, 2);
+        assertThrows(IllegalStateException.class, () -> rejecting.addRequest(0, 3));
+    }
+}
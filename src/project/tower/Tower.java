@@ -1,85 +1,554 @@
 package project.tower;
 
+import project.config.CarConfig;
+import project.config.Config;
+import project.config.ConfigConstants;
+import project.dispatch.DispatchStrategy;
+import project.dispatch.GreedyDispatchStrategy;
+import project.dispatch.ParkingPolicy;
 import project.elevator.Elevator;
 import project.elevator.Request;
+import project.enums.OverflowPolicy;
+import project.metrics.MetricsSnapshot;
+import project.simulation.SimulationClock;
+import project.trace.TraceRecorder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
-import static project.tower.TowerConstants.NUMBER_OF_ELEVATORS;
+import static project.tower.TowerConstants.*;
 
 /**
  * The Tower object holds the List of elevators
  * and handles the Requests.
  */
 public class Tower {
+    private final Config config;
     private final List<Elevator> elevators;
-    private final List<Request> requests;
+    private final MpscQueue<Request> requests;
+    private final OverflowPolicy overflowPolicy;
+    private final AtomicLong droppedRequests = new AtomicLong();
+    private final AtomicLong invalidRequests = new AtomicLong();
+    private final SimulationClock clock;
+    private final List<Request> batch = new ArrayList<>(); // Requests of the current update (or restored, see readFrom)
+    private DispatchStrategy dispatchStrategy = new GreedyDispatchStrategy();
+    private ParkingPolicy parkingPolicy; // null if idle elevators stay where they stopped
+    private volatile boolean interFloorRequestsAllowed;
+    private TraceRecorder traceRecorder; // null if nothing is recorded
+    private double metricsStartTime;
+    private volatile Thread waitingThread; // the Simulation thread, while it waits for Requests
+    private final boolean zoned; // if some elevators only serve some floors
+    private final ZoneIndex zoneIndex;
 
     public Tower() {
-        elevators = new ArrayList<>(NUMBER_OF_ELEVATORS);
-        requests = new CopyOnWriteArrayList<>();
+        this(Config.DEFAULT);
+    }
+
+    /**
+     * Creates a Tower with a different number of elevators than NUMBER_OF_ELEVATORS (e.g. for benchmarks).
+     * @param numberOfElevators the number of elevators
+     */
+    public Tower(int numberOfElevators) {
+        this(Config.DEFAULT.with(ConfigConstants.KEY_ELEVATORS, String.valueOf(numberOfElevators)));
+    }
+
+    /**
+     * Creates a Tower with a custom request intake.
+     * @param numberOfElevators the number of elevators
+     * @param intakeCapacity maximum number of Requests waiting for the next update
+     * @param overflowPolicy what happens with new Requests, if the intake is full
+     */
+    public Tower(int numberOfElevators, int intakeCapacity, OverflowPolicy overflowPolicy) {
+        this(Config.DEFAULT.with(ConfigConstants.KEY_ELEVATORS, String.valueOf(numberOfElevators))
+                .with(ConfigConstants.KEY_INTAKE_CAPACITY, String.valueOf(intakeCapacity)), overflowPolicy);
+    }
+
+    /**
+     * Creates a Tower with floors, elevator cars and intake from the Config.
+     * @param config the Config
+     */
+    public Tower(Config config) {
+        this(config, OverflowPolicy.DROP);
+    }
+
+    /**
+     * @param config the Config
+     * @param overflowPolicy what happens with new Requests, if the intake is full
+     */
+    public Tower(Config config, OverflowPolicy overflowPolicy) {
+        this.config = config;
+        clock = new SimulationClock(config.getFixedDeltaTime());
+        elevators = new ArrayList<>(config.getNumberOfElevators());
+        requests = new MpscQueue<>(config.getIntakeCapacity());
+        this.overflowPolicy = overflowPolicy;
+        zoned = config.hasZones();
         initElevators();
+        zoneIndex = new ZoneIndex(elevators, config.getNumberOfFloors());
+        if (config.isParking()) {
+            parkingPolicy = new ParkingPolicy(config.getNumberOfFloors());
+        }
     }
 
     public List<Elevator> getElevators() {
         return elevators;
     }
 
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * @return highest floor
+     */
+    public int getNumberOfFloors() {
+        return config.getNumberOfFloors();
+    }
+
+    /**
+     * Adds the request to it's own lock-free queue.
+     * (as it can be called from any number of threads other than the simulation)<br>
+     * If the queue is full, the OverflowPolicy decides what happens.
+     * Invalid Requests are only counted (see getRequestError for the reason).
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @return if the Request was accepted
+     */
+    public boolean addRequest(int originFloor, int destinationFloor) {
+        return addRequest(originFloor, destinationFloor, clock.getTime());
+    }
+
+    /**
+     * Adds the request with the given arrival time (e.g. the exact time of a generated arrival between two updates).
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param arrivalTime simulation time in seconds, when the Request was made (not after the current time)
+     * @return if the Request was accepted
+     */
+    public boolean addRequest(int originFloor, int destinationFloor, double arrivalTime) {
+        return addRequest(originFloor, destinationFloor, arrivalTime, 1);
+    }
+
+    /**
+     * Adds a Request for a group of passengers (e.g. replayed from a trace).
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param arrivalTime simulation time in seconds, when the Request was made (not after the current time)
+     * @param numberOfPassengers 1 up to the capacity of the largest car serving both floors
+     * @return if the Request was accepted
+     */
+    public boolean addRequest(int originFloor, int destinationFloor, double arrivalTime, int numberOfPassengers) {
+        if (getRequestError(originFloor, destinationFloor, numberOfPassengers) != null) {
+            invalidRequests.incrementAndGet(); // not printed, as traffic sources call this on the Simulation thread
+            return false;
+        }
+        Request request = new Request(originFloor, destinationFloor, arrivalTime, numberOfPassengers);
+        if (requests.offer(request)) {
+            wakeUpWaitingThread();
+            return true;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                while (!requests.offer(request)) {
+                    LockSupport.parkNanos(10_000);
+                }
+                wakeUpWaitingThread();
+                return true;
+            }
+            case REJECT -> throw new IllegalStateException("Request intake is full!");
+            default -> {
+                droppedRequests.incrementAndGet();
+                return false;
+            }
+        }
+    }
+
     /**
-     * Adds the request to it's own queue.
-     * (as it is on another thread than the simulation)
+     * Checks a Request without adding it (e.g. to tell the user why it is invalid, addRequest only returns false).
      * @param originFloor from floor
      * @param destinationFloor to floor
+     * @return why the Request is invalid, null if it is valid
      */
-    public void addRequest(int originFloor, int destinationFloor) {
+    public String getRequestError(int originFloor, int destinationFloor) {
         if (originFloor == destinationFloor) {
-            System.out.println("Origin and destination floors have to be different!");
-            return;
-        } else if (originFloor != 0 && destinationFloor != 0) {
-            System.out.println("Only requests from or to floor 0 are valid!");
-            return;
+            return "Origin and destination floors have to be different!";
+        } else if (originFloor < 0 || destinationFloor < 0
+                || originFloor > config.getNumberOfFloors() || destinationFloor > config.getNumberOfFloors()) {
+            return "Floors have to be between 0 and " + config.getNumberOfFloors() + "!";
+        } else if (originFloor != 0 && destinationFloor != 0 && !interFloorRequestsAllowed) {
+            return "Only requests from or to floor 0 are valid!";
+        } else if (zoned && getCandidates(originFloor, destinationFloor).isEmpty()) {
+            return "No elevator serves floor " + originFloor + " and floor " + destinationFloor + "!";
         }
-        requests.add(new Request(originFloor, destinationFloor));
+        return null;
     }
 
     /**
-     * Finally adds the request to the elevator which can execute it as fastest.<br>
-     * This gets called from same thread as Simulation, so cannot cause a concurrent modification problem.
-     * @param request the Request to be added
-     */
-    private void executeRequest(Request request) {
-        Elevator fastestElevator = elevators.get(0);
-        double fastestTime = fastestElevator.calculateTimeToRequest(request);
-        for (var e : elevators) {
-            if (e.tryAddPassenger(request)) return; // if we can add passenger to existing queue it has to be faster, so nothing more needed
-            double time = e.calculateTimeToRequest(request);
-            if (time < fastestTime) {
-                fastestElevator = e;
-                fastestTime = time;
+     * Also checks, that the group fits into a car serving both floors.
+     * @return why the Request is invalid, null if it is valid
+     */
+    private String getRequestError(int originFloor, int destinationFloor, int numberOfPassengers) {
+        String error = getRequestError(originFloor, destinationFloor);
+        if (error != null) return error;
+        int maxCapacity = 0;
+        for (Elevator elevator : getCandidates(originFloor, destinationFloor)) {
+            maxCapacity = Math.max(maxCapacity, elevator.getCapacity());
+        }
+        if (numberOfPassengers < 1 || numberOfPassengers > maxCapacity) {
+            return "A Request needs 1 to " + maxCapacity + " passengers: " + numberOfPassengers;
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the elevators, which stop at both floors, in the ZoneIndex.
+     * Without zones these are all elevators.
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @return the candidates for a Request between the floors (must not be changed)
+     */
+    public List<Elevator> getCandidates(int originFloor, int destinationFloor) {
+        return zoneIndex.getCandidates(originFloor, destinationFloor);
+    }
+
+    /**
+     * @param request a Request
+     * @return the elevators, which stop at its origin and destination floor (must not be changed)
+     */
+    public List<Elevator> getCandidates(Request request) {
+        return zoneIndex.getCandidates(request.getOriginFloor(), request.getDestinationFloor());
+    }
+
+    /**
+     * @return if some elevators only serve some floors
+     */
+    public boolean isZoned() {
+        return zoned;
+    }
+
+    private void wakeUpWaitingThread() {
+        Thread thread = waitingThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Parks the calling thread until a Request arrives (or the timeout is over), without using any CPU.
+     * @param timeoutNanos max. time to wait in nanoseconds
+     */
+    public void awaitRequest(long timeoutNanos) {
+        waitingThread = Thread.currentThread();
+        if (requests.isEmpty()) {
+            LockSupport.parkNanos(this, timeoutNanos);
+        }
+        waitingThread = null;
+    }
+
+    /**
+     * @return simulation time, when the next update has to dispatch something
+     * (now if there are new or restored Requests or idle elevators to park, POSITIVE_INFINITY if there is nothing to dispatch)
+     */
+    public double getNextDispatchTime() {
+        if (!requests.isEmpty() || !batch.isEmpty() || (parkingPolicy != null && parkingPolicy.needsPlacement(elevators))) {
+            return clock.getTime();
+        }
+        return dispatchStrategy.getNextDispatchTime();
+    }
+
+    /**
+     * @return number of Requests dropped, because the intake was full
+     */
+    public long getDroppedRequests() {
+        return droppedRequests.get();
+    }
+
+    /**
+     * @return number of Requests rejected, because they were invalid (see getRequestError)
+     */
+    public long getInvalidRequests() {
+        return invalidRequests.get();
+    }
+
+    /**
+     * @return number of Requests waiting for the next update
+     */
+    public int getPendingRequests() {
+        return requests.size();
+    }
+
+    public boolean isInterFloorRequestsAllowed() {
+        return interFloorRequestsAllowed;
+    }
+
+    /**
+     * Allows Requests, which are neither from nor to floor 0 (which are invalid by default).
+     * @param interFloorRequestsAllowed if Requests between two upper floors are valid
+     */
+    public void setInterFloorRequestsAllowed(boolean interFloorRequestsAllowed) {
+        this.interFloorRequestsAllowed = interFloorRequestsAllowed;
+    }
+
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    /**
+     * Sets the strategy, which decides which elevator gets a Request (greedy by default).<br>
+     * Should be set before the Simulation starts.
+     * @param dispatchStrategy the DispatchStrategy
+     */
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    public ParkingPolicy getParkingPolicy() {
+        return parkingPolicy;
+    }
+
+    /**
+     * Sets the policy, which moves idle elevators to the floors where calls are expected (none by default,
+     * or a new one, if the Config says so). Should be set before the Simulation starts.
+     * @param parkingPolicy the ParkingPolicy, or null if idle elevators stay where they stopped
+     */
+    public void setParkingPolicy(ParkingPolicy parkingPolicy) {
+        this.parkingPolicy = parkingPolicy;
+    }
+
+    /**
+     * Merges the wait and journey times and the utilisation of all elevators.
+     * @return a MetricsSnapshot of the current simulation time
+     */
+    public MetricsSnapshot getMetricsSnapshot() {
+        return new MetricsSnapshot(clock.getTime(), metricsStartTime,
+                elevators.stream().map(Elevator::getMetrics).toList());
+    }
+
+    /**
+     * Starts the metrics from 0 again (e.g. after a warmup). Should only be called while the Simulation is not updating.
+     */
+    public void resetMetrics() {
+        metricsStartTime = clock.getTime();
+        elevators.forEach(elevator -> elevator.getMetrics().reset());
+    }
+
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    /**
+     * Records all Requests, dispatch decisions and Actions of this Tower and its elevators from now on.<br>
+     * Should be set while the Simulation is not updating.
+     * @param traceRecorder the TraceRecorder, or null to stop recording
+     */
+    public void setTraceRecorder(TraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+        elevators.forEach(elevator -> elevator.setTraceRecorder(traceRecorder));
+    }
+
+    /**
+     * Writes the state of the Tower and its elevators (see TowerSnapshot).
+     * Has to be called on the Simulation thread (or while it is not updating).
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(clock.getTime());
+        out.writeInt(config.getNumberOfFloors());
+        out.writeInt(elevators.size());
+        for (Elevator elevator : elevators) {
+            elevator.writeTo(out);
+        }
+        List<Request> heldBack = dispatchStrategy.getPendingRequests();
+        out.writeInt(heldBack.size());
+        for (Request request : heldBack) {
+            writeRequest(out, request);
+        }
+        out.writeDouble(dispatchStrategy.getNextDispatchTime());
+        int pending = 0;
+        while (requests.peek(pending) != null) pending++;
+        out.writeInt(pending);
+        for (int i = 0; i < pending; i++) {
+            writeRequest(out, requests.peek(i));
+        }
+        out.writeLong(droppedRequests.get());
+        out.writeBoolean(parkingPolicy != null);
+        if (parkingPolicy != null) {
+            parkingPolicy.writeTo(out);
+        }
+    }
+
+    /**
+     * Replaces the state of this new Tower with the one written by writeTo.<br>
+     * The Requests held back by the DispatchStrategy are held back by this Tower's DispatchStrategy again
+     * (or passed to it on the next update, without being recorded again), the metrics start at the time of the snapshot.
+     * The whole snapshot is read into new elevators and Lists and checked first, so an invalid one leaves this Tower as it is.
+     * The Requests have to be valid for this Tower (so inter-floor Requests have to be allowed before, if there are any).
+     * @param in the input
+     * @throws IOException if reading fails, or the snapshot holds invalid Requests or elevator states
+     * @throws IllegalStateException if the Tower is not new (time passed, Requests or elevators not idle)
+     * @throws IllegalArgumentException if the snapshot is of another number of floors or elevators (or other cars)
+     */
+    void readFrom(DataInput in) throws IOException {
+        if (clock.getTime() != 0d || !requests.isEmpty() || !batch.isEmpty() || !dispatchStrategy.getPendingRequests().isEmpty()
+                || !elevators.stream().allMatch(Elevator::isIdle)) {
+            throw new IllegalStateException("A snapshot can only be restored into a new Tower!");
+        }
+        double time = in.readDouble();
+        int numberOfFloors = in.readInt(), numberOfElevators = in.readInt();
+        if (numberOfFloors != config.getNumberOfFloors() || numberOfElevators != elevators.size()) {
+            throw new IllegalArgumentException("The snapshot has " + numberOfFloors + " floors and " + numberOfElevators
+                    + " elevators, the Tower " + config.getNumberOfFloors() + " and " + elevators.size());
+        }
+        if (!(time >= 0d) || time == Double.POSITIVE_INFINITY) {
+            throw new IOException("Invalid time: " + time);
+        }
+        SimulationClock restoredClock = new SimulationClock(clock.getFixedDeltaTime());
+        restoredClock.advanceTo(time);
+        List<Elevator> restoredElevators = new ArrayList<>(numberOfElevators);
+        for (int i = 0; i < numberOfElevators; i++) {
+            Elevator elevator = createElevator(i, restoredClock);
+            elevator.readFrom(in);
+            if (!isFloor(elevator.getCurrentFloor()) || !isFloor(elevator.getNextDestinationFloor())) {
+                throw new IOException("Invalid floors of elevator " + i + ": " + elevator.getCurrentFloor()
+                        + " -> " + elevator.getNextDestinationFloor());
+            }
+            restoredElevators.add(elevator);
+        }
+        List<Request> heldBack = readRequests(in);
+        double nextDispatchTime = in.readDouble();
+        List<Request> pending = readRequests(in);
+        long dropped = in.readLong();
+        ParkingPolicy restoredParkingPolicy = null;
+        if (in.readBoolean()) {
+            restoredParkingPolicy = new ParkingPolicy(config.getNumberOfFloors());
+            restoredParkingPolicy.readFrom(in);
+        }
+
+        clock.advanceTo(time);
+        for (int i = 0; i < numberOfElevators; i++) {
+            elevators.get(i).readFrom(copyOf(restoredElevators.get(i)::writeTo));
+        }
+        if (!heldBack.isEmpty() && !dispatchStrategy.restorePendingRequests(heldBack, nextDispatchTime)) {
+            batch.addAll(heldBack);
+        }
+        for (Request request : pending) {
+            if (!requests.offer(request)) {
+                droppedRequests.incrementAndGet(); // the intake of this Tower is smaller
             }
         }
-        fastestElevator.addRequest(request);
+        droppedRequests.addAndGet(dropped);
+        if (restoredParkingPolicy != null && parkingPolicy != null) { // the learned demand is skipped, if this Tower does not park
+            parkingPolicy.readFrom(copyOf(restoredParkingPolicy::writeTo));
+        }
+        metricsStartTime = time;
+    }
+
+    private boolean isFloor(int floor) {
+        return floor >= 0 && floor <= config.getNumberOfFloors();
     }
 
     /**
-     * Creates the elevators and add them to the List.
+     * Writes a state into a byte array, so it can be read again (copies a checked state into this Tower's objects).
+     */
+    private static DataInput copyOf(StateWriter state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        state.writeTo(new DataOutputStream(bytes));
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private interface StateWriter {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    private static void writeRequest(DataOutput out, Request request) throws IOException {
+        out.writeInt(request.getOriginFloor());
+        out.writeInt(request.getDestinationFloor());
+        out.writeDouble(request.getArrivalTime());
+        out.writeInt(request.getNumberOfPassengers());
+    }
+
+    private List<Request> readRequests(DataInput in) throws IOException {
+        int numberOfRequests = in.readInt();
+        if (numberOfRequests < 0) {
+            throw new IOException("Invalid number of Requests: " + numberOfRequests);
+        }
+        List<Request> restored = new ArrayList<>(Math.min(numberOfRequests, config.getIntakeCapacity()));
+        for (int i = 0; i < numberOfRequests; i++) {
+            restored.add(readRequest(in));
+        }
+        return restored;
+    }
+
+    /**
+     * @throws IOException if the Request would not be accepted by addRequest (floors or number of passengers)
+     */
+    private Request readRequest(DataInput in) throws IOException {
+        int originFloor = in.readInt(), destinationFloor = in.readInt();
+        double arrivalTime = in.readDouble();
+        int numberOfPassengers = in.readInt();
+        String error = getRequestError(originFloor, destinationFloor, numberOfPassengers);
+        if (error != null) {
+            throw new IOException("Invalid Request " + originFloor + "-" + destinationFloor + ": " + error);
+        }
+        return new Request(originFloor, destinationFloor, arrivalTime, numberOfPassengers);
+    }
+
+    /**
+     * Creates the elevators (as configured) and add them to the List.
      */
     private void initElevators() {
-        for (int i = 0; i < NUMBER_OF_ELEVATORS; i++) {
-            elevators.add(new Elevator(i, 0));
+        for (int i = 0; i < config.getNumberOfElevators(); i++) {
+            elevators.add(createElevator(i, clock));
         }
     }
 
+    /**
+     * @param index index of the elevator (and its CarConfig)
+     * @param clock the clock the elevator runs on
+     * @return a new elevator at floor 0, as configured
+     */
+    private Elevator createElevator(int index, SimulationClock clock) {
+        CarConfig car = config.getCars().get(index);
+        return new Elevator(index, 0, clock, car.createProfile(config.getNumberOfFloors(), config.getFloorHeight()),
+                car.getCapacity(), car.getServedFloors(), car.isCollective());
+    }
+
     /**
      * Called from the Simulation Thread:<br>
-     * Calls the executeRequest for each Request, which was stored in between 2 updates.
+     * Passes the Requests, which were stored in between 2 updates, to the DispatchStrategy
+     * (up to MAX_REQUESTS_PER_UPDATE, so one update cannot take forever), and parks the idle elevators afterwards (if a ParkingPolicy is set).
+     * The Requests are recorded here, so a replayed trace gets them in the same update.
+     * This gets called from same thread as Simulation, so cannot cause a concurrent modification problem.
      */
     public void update() {
-        while (!requests.isEmpty()) {
-            var request = requests.remove(0);
-            executeRequest(request);
+        Request request;
+        for (int i = 0; i < MAX_REQUESTS_PER_UPDATE && (request = requests.poll()) != null; i++) {
+            batch.add(request);
+            if (traceRecorder != null) {
+                traceRecorder.recordRequest(clock.getTime(), request.getOriginFloor(), request.getDestinationFloor(),
+                        request.getArrivalTime(), request.getNumberOfPassengers());
+            }
+            if (parkingPolicy != null) {
+                parkingPolicy.recordCall(request.getOriginFloor(), clock.getTime());
+            }
+        }
+        dispatchStrategy.dispatch(batch, this);
+        batch.clear();
+        if (parkingPolicy != null) {
+            parkingPolicy.parkIdleCars(elevators, clock.getTime());
         }
     }
 }
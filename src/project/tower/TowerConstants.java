@@ -7,4 +7,6 @@ public class TowerConstants {
     public static final int NUMBER_OF_ELEVATORS = 7;
     public static final int NUMBER_OF_FLOORS = 55;
     public static final double FLOOR_HEIGHT = 4.0; // m
+    public static final int REQUEST_INTAKE_CAPACITY = 1 << 16;
+    public static final int MAX_REQUESTS_PER_UPDATE = 1 << 14; // the rest waits for the next update
 }
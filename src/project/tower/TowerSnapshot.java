@@ -0,0 +1,115 @@
+package project.tower;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compact binary snapshot of the complete state of a Tower: the simulation time, every elevator
+ * (its running Action, so position and velocity follow, queued Actions, Requests or StopPlan and riding passengers),
+ * the Requests in the intake or held back by the DispatchStrategy, and the demand learned by the ParkingPolicy.<br>
+ * A snapshot is restored into a new Tower with the same Config, e.g. to warm-start long studies from a loaded steady state,
+ * or to fork one state into several what-if runs (other DispatchStrategies, traffic or kinematics).
+ * Configuration (Config, DispatchStrategy, TraceRecorder) is not part of it, and the metrics of the restored Tower
+ * start at the time of the snapshot.
+ */
+public class TowerSnapshot {
+    static final int MAGIC = 0x454C534E; // "ELSN"
+    static final short VERSION = 1;
+
+    /**
+     * Writes a snapshot. Has to be called on the Simulation thread (or while it is not updating).
+     * @param tower the Tower
+     * @param out the output (not closed)
+     * @throws IOException if writing fails
+     */
+    public static void write(Tower tower, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        tower.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * @param tower the Tower (see write)
+     * @return the snapshot
+     */
+    public static byte[] capture(Tower tower) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(tower, bytes);
+        } catch (IOException e) { // a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a snapshot into a file (see write).
+     * @param tower the Tower
+     * @param path the file (created or overwritten)
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Tower tower, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(tower, out);
+        }
+    }
+
+    /**
+     * Restores a snapshot into a new Tower (with the same Config), before a Simulation runs it.
+     * @param tower the new Tower
+     * @param in the input (not closed)
+     * @throws IOException if reading fails, or it is no snapshot
+     * @throws IllegalStateException if the Tower is not new
+     * @throws IllegalArgumentException if the snapshot is of another number of floors or elevators (or other cars)
+     */
+    public static void read(Tower tower, InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a snapshot!");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        tower.readFrom(data);
+    }
+
+    /**
+     * Restores a snapshot of capture (see read), so one state can be forked into many Towers.
+     * @param tower the new Tower
+     * @param snapshot the snapshot
+     * @throws IllegalArgumentException if it is no (complete) snapshot, or of another number of floors or elevators
+     * @throws IllegalStateException if the Tower is not new
+     */
+    public static void restore(Tower tower, byte[] snapshot) {
+        try {
+            read(tower, new ByteArrayInputStream(snapshot));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restores a snapshot from a file (see read).
+     * @param tower the new Tower
+     * @param path the file
+     * @throws IOException if the file cannot be read, or it is no snapshot
+     */
+    public static void load(Tower tower, Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            read(tower, in);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package project.tower;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.dispatch.DestinationDispatchStrategy;
+import project.elevator.Elevator;
+import project.simulation.Simulation;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Does some Tests for snapshots of a Tower: a restored Tower has to go on exactly like the original
+ */
+public class TowerSnapshotTest {
+
+    @Test
+    void restore_continuesLikeTheOriginal() {
+        assertForkMatches(Config.DEFAULT, false);
+    }
+
+    @Test
+    void restore_continuesLikeTheOriginalInCollectiveControlWithParking() {
+        Config config = Config.DEFAULT.with("car.collective", "true").with("car.boardingTime", "1.5").with("parking", "true");
+        assertForkMatches(config, false);
+    }
+
+    @Test
+    void restore_keepsHeldBackAndPendingRequests() {
+        assertForkMatches(Config.DEFAULT.with("car.collective", "true"), true);
+    }
+
+    @Test
+    void restore_onlyIntoANewTowerWithTheSameLayout() {
+        Tower tower = new Tower();
+        tower.addRequest(0, 20);
+        Simulation.createHeadless(tower).runFor(10d);
+        byte[] snapshot = TowerSnapshot.capture(tower);
+
+        assertThrows(IllegalStateException.class, () -> TowerSnapshot.restore(tower, snapshot));
+        assertThrows(IllegalArgumentException.class, () -> TowerSnapshot.restore(new Tower(4), snapshot));
+        assertThrows(IllegalArgumentException.class,
+                () -> TowerSnapshot.restore(new Tower(Config.DEFAULT.with("car.collective", "true")), snapshot));
+        assertThrows(IllegalArgumentException.class, () -> TowerSnapshot.restore(new Tower(), new byte[]{1, 2, 3, 4, 5, 6}));
+        byte[] truncated = Arrays.copyOf(snapshot, snapshot.length / 2);
+        assertThrows(IllegalArgumentException.class, () -> TowerSnapshot.restore(new Tower(), truncated));
+    }
+
+    @Test
+    void restore_rejectsInvalidRequestsAndLeavesTheTowerAsItIs() {
+        Tower tower = new Tower();
+        tower.addRequest(0, 20);
+        Simulation.createHeadless(tower).runFor(10d);
+        tower.addRequest(0, 30); // both wait in the intake
+        tower.addRequest(12, 0);
+        byte[] snapshot = TowerSnapshot.capture(tower);
+        int lastRequest = snapshot.length - 1 - 8 - 20; // before the dropped Requests and the parking flag
+        int[][] corruptions = {
+                {lastRequest, 999},                // origin floor
+                {lastRequest + 4, 12},             // same floors
+                {lastRequest + 16, 0},             // passengers
+                {lastRequest + 16, 99},
+                {lastRequest - 20 - 4, -1},        // number of Requests
+                {6 + 8, 1000},                     // floors of the Tower (after header and time): another layout
+        };
+        Tower restored = new Tower();
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = snapshot.clone();
+            ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+            assertThrows(IllegalArgumentException.class, () -> TowerSnapshot.restore(restored, corrupt));
+            assertEquals(0d, restored.getClock().getTime());
+            assertEquals(0, restored.getPendingRequests());
+            assertTrue(restored.getElevators().stream().allMatch(Elevator::isIdle));
+        }
+        assertThrows(IllegalArgumentException.class, () -> TowerSnapshot.restore(restored, Arrays.copyOf(snapshot, snapshot.length - 30)));
+        TowerSnapshot.restore(restored, snapshot); // still a new Tower
+        assertStateEquals(tower, restored);
+    }
+
+    @Test
+    void save_andLoad() throws IOException {
+        Tower tower = new Tower();
+        tower.addRequest(0, 30);
+        tower.addRequest(12, 0);
+        Simulation.createHeadless(tower).runFor(20d);
+        Path path = Files.createTempFile("tower", ".snapshot");
+        try {
+            TowerSnapshot.save(tower, path);
+            Tower restored = new Tower();
+            TowerSnapshot.load(restored, path);
+            assertStateEquals(tower, restored);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Runs a Tower with traffic, forks it and checks, that both go on the same way with the same traffic.
+     * @param config the Config of both Towers
+     * @param destinationDispatch if Requests are held back by a DestinationDispatchStrategy and waiting in the intake
+     */
+    private static void assertForkMatches(Config config, boolean destinationDispatch) {
+        Tower original = new Tower(config);
+        Simulation simulation = Simulation.createHeadless(original);
+        if (destinationDispatch) original.setDispatchStrategy(new DestinationDispatchStrategy());
+        simulation.setTrafficSource(new TrafficGenerator(3, TrafficProfile.UP_PEAK, 20, original.getNumberOfFloors()));
+        simulation.runFor(900d);
+        if (destinationDispatch) {
+            original.addRequest(0, 40); // waits in the intake
+            assertEquals(1, original.getPendingRequests());
+            assertFalse(original.getDispatchStrategy().getPendingRequests().isEmpty());
+        }
+
+        byte[] snapshot = TowerSnapshot.capture(original);
+        Tower fork = new Tower(config);
+        if (destinationDispatch) fork.setDispatchStrategy(new DestinationDispatchStrategy());
+        TowerSnapshot.restore(fork, snapshot);
+        assertStateEquals(original, fork);
+        assertArrayEquals(snapshot, TowerSnapshot.capture(fork));
+
+        original.resetMetrics();
+        Simulation forkSimulation = Simulation.createHeadless(fork);
+        simulation.setTrafficSource(new TrafficGenerator(4, TrafficProfile.LUNCH, 20, original.getNumberOfFloors()));
+        forkSimulation.setTrafficSource(new TrafficGenerator(4, TrafficProfile.LUNCH, 20, fork.getNumberOfFloors()));
+        simulation.runFor(900d);
+        forkSimulation.runFor(900d);
+        assertStateEquals(original, fork);
+        var originalMetrics = original.getMetricsSnapshot();
+        var forkMetrics = fork.getMetricsSnapshot();
+        assertTrue(originalMetrics.getWaitTimes().getCount() > 0);
+        assertEquals(originalMetrics.getWaitTimes().getCount(), forkMetrics.getWaitTimes().getCount());
+        assertEquals(originalMetrics.getWaitTimes().getMean(), forkMetrics.getWaitTimes().getMean(), 1e-9);
+        assertEquals(originalMetrics.getJourneyTimes().getMean(), forkMetrics.getJourneyTimes().getMean(), 1e-9);
+    }
+
+    private static void assertStateEquals(Tower expected, Tower actual) {
+        assertEquals(expected.getClock().getTime(), actual.getClock().getTime());
+        assertEquals(expected.getPendingRequests(), actual.getPendingRequests());
+        for (int i = 0; i < expected.getElevators().size(); i++) {
+            Elevator expectedElevator = expected.getElevators().get(i), actualElevator = actual.getElevators().get(i);
+            assertEquals(expectedElevator.getStatusText(), actualElevator.getStatusText());
+            assertEquals(expectedElevator.getHeight(), actualElevator.getHeight());
+            assertEquals(expectedElevator.getVelocity(), actualElevator.getVelocity());
+            assertEquals(expectedElevator.getNextUpdateTime(), actualElevator.getNextUpdateTime());
+        }
+    }
+}
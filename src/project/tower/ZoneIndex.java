@@ -0,0 +1,69 @@
+package project.tower;
+
+import project.elevator.Elevator;
+
+import java.util.*;
+
+/**
+ * Index from floors to the elevators, which can take a Request between them (zones, express cars),
+ * so dispatching only looks at the cars of a zone instead of all cars.<br>
+ * Floors, which are served by the same set of cars, share a floor class (e.g. lobby, low-rise, high-rise),
+ * and the candidates of every pair of floor classes are prepared once. Immutable, so any thread can use it.
+ */
+class ZoneIndex {
+    private final int[] floorClasses;          // floor class of each floor
+    private final int numberOfFloorClasses;
+    private final List<List<Elevator>> candidates; // by origin class * numberOfFloorClasses + destination class
+
+    /**
+     * @param elevators all elevators of the Tower (with their served floors)
+     * @param numberOfFloors highest floor
+     */
+    ZoneIndex(List<Elevator> elevators, int numberOfFloors) {
+        floorClasses = new int[numberOfFloors + 1];
+        Map<BitSet, Integer> classByCars = new HashMap<>();
+        List<BitSet> carsOfClass = new ArrayList<>();
+        for (int floor = 0; floor <= numberOfFloors; floor++) {
+            BitSet cars = new BitSet(elevators.size());
+            for (int i = 0; i < elevators.size(); i++) {
+                if (elevators.get(i).serves(floor)) cars.set(i);
+            }
+            Integer floorClass = classByCars.get(cars);
+            if (floorClass == null) {
+                floorClass = carsOfClass.size();
+                classByCars.put(cars, floorClass);
+                carsOfClass.add(cars);
+            }
+            floorClasses[floor] = floorClass;
+        }
+        numberOfFloorClasses = carsOfClass.size();
+        candidates = new ArrayList<>(numberOfFloorClasses * numberOfFloorClasses);
+        for (BitSet originCars : carsOfClass) {
+            for (BitSet destinationCars : carsOfClass) {
+                BitSet both = (BitSet) originCars.clone();
+                both.and(destinationCars);
+                List<Elevator> cars = new ArrayList<>(both.cardinality());
+                for (int i = both.nextSetBit(0); i >= 0; i = both.nextSetBit(i + 1)) {
+                    cars.add(elevators.get(i));
+                }
+                candidates.add(Collections.unmodifiableList(cars));
+            }
+        }
+    }
+
+    /**
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @return the elevators, which stop at both floors (in the order of the Tower, empty if there are none)
+     */
+    List<Elevator> getCandidates(int originFloor, int destinationFloor) {
+        return candidates.get(floorClasses[originFloor] * numberOfFloorClasses + floorClasses[destinationFloor]);
+    }
+
+    /**
+     * @return number of different sets of cars serving a floor (1 without zones)
+     */
+    int getNumberOfFloorClasses() {
+        return numberOfFloorClasses;
+    }
+}
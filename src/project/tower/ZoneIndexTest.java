@@ -0,0 +1,67 @@
+package project.tower;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.elevator.Elevator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Does some Tests for the ZoneIndex and the candidates of the Tower
+ */
+public class ZoneIndexTest {
+
+    @Test
+    void withoutZones_allElevatorsAreCandidates() {
+        Tower tower = new Tower(3);
+        assertFalse(tower.isZoned());
+        assertEquals(tower.getElevators(), tower.getCandidates(0, 55));
+        assertEquals(tower.getElevators(), tower.getCandidates(17, 3));
+        assertEquals(1, new ZoneIndex(tower.getElevators(), 55).getNumberOfFloorClasses());
+    }
+
+    @Test
+    void zones_candidatesAreTheCarsOfTheZone() {
+        Tower tower = new Tower(Config.DEFAULT.with("elevators=7").with("zones=18,36"));
+        List<Elevator> elevators = tower.getElevators();
+        assertTrue(tower.isZoned());
+        assertEquals(List.of(elevators.get(0), elevators.get(1), elevators.get(2)), tower.getCandidates(0, 10)); // 7 cars: 3, 2, 2
+        assertEquals(List.of(elevators.get(3), elevators.get(4)), tower.getCandidates(36, 0));
+        assertEquals(List.of(elevators.get(5), elevators.get(6)), tower.getCandidates(40, 55));
+        assertTrue(tower.getCandidates(10, 40).isEmpty());
+        assertEquals(4, new ZoneIndex(elevators, 55).getNumberOfFloorClasses()); // lobby, low, mid and high rise
+    }
+
+    @Test
+    void expressCar_isCandidateOnlyForItsFloors() {
+        Tower tower = new Tower(Config.DEFAULT.with("elevators=4").with("zones=30").with("car.4.floors=0,30"));
+        List<Elevator> elevators = tower.getElevators();
+        assertEquals(List.of(elevators.get(0), elevators.get(1)), tower.getCandidates(0, 12));
+        assertEquals(List.of(elevators.get(0), elevators.get(1), elevators.get(3)), tower.getCandidates(30, 0));
+        assertEquals(List.of(elevators.get(2)), tower.getCandidates(0, 31));
+        assertFalse(tower.addRequest(12, 31));
+    }
+
+    @Test
+    void addRequest_countsCrossZoneRequestsWithoutPrinting() {
+        Tower tower = new Tower(Config.DEFAULT.with("elevators=4").with("zones=30"));
+        tower.setInterFloorRequestsAllowed(true);
+        PrintStream systemOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+        try {
+            assertFalse(tower.addRequest(12, 31));
+            assertFalse(tower.addRequest(40, 5));
+            assertTrue(tower.addRequest(12, 20));
+        } finally {
+            System.setOut(systemOut);
+        }
+        assertEquals("", output.toString());
+        assertEquals(2, tower.getInvalidRequests());
+        assertEquals("No elevator serves floor 12 and floor 31!", tower.getRequestError(12, 31));
+    }
+}
@@ -0,0 +1,181 @@
+package project.trace;
+
+import project.enums.Direction;
+import project.enums.Status;
+import project.enums.TraceEventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace file written by the TraceRecorder event by event,
+ * so traces of any length can be replayed without loading them into memory.<br>
+ * After next() returned true, the getters return the fields of the current event
+ * (fields, which the event type does not have, are -1, null or NaN).
+ */
+public class TraceReader implements AutoCloseable {
+    private static final TraceEventType[] TYPES = TraceEventType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final double startTime;
+
+    private TraceEventType type;
+    private double time;
+    private int elevator;
+    private int originFloor;
+    private int destinationFloor;
+    private Status status;
+    private Direction direction;
+    private double duration;
+    private double arrivalTime;
+    private int numberOfPassengers;
+
+    /**
+     * Opens the trace file and checks its header.
+     * @param path path of the trace file
+     * @throws IOException if the file cannot be read or is no trace
+     */
+    public TraceReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        buffer.flip();
+        if (!fill(TraceRecorder.HEADER_SIZE) || buffer.getInt() != TraceRecorder.MAGIC) {
+            channel.close();
+            throw new IOException(path + " is not a trace file!");
+        }
+        short version = buffer.getShort();
+        if (version != TraceRecorder.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported trace version: " + version);
+        }
+        startTime = buffer.getDouble();
+    }
+
+    /**
+     * Reads the next event.
+     * @return false at the end of the trace
+     * @throws IOException if the file cannot be read, ends within an event or holds an unknown type, status or direction
+     */
+    public boolean next() throws IOException {
+        if (!fill(1)) return false;
+        type = TYPES[checkOrdinal(buffer.get(), TYPES.length, "event type")];
+        elevator = originFloor = destinationFloor = -1;
+        status = null;
+        direction = null;
+        duration = arrivalTime = Double.NaN;
+        numberOfPassengers = -1;
+        switch (type) {
+            case REQUEST -> {
+                require(28);
+                time = buffer.getDouble();
+                originFloor = buffer.getInt();
+                destinationFloor = buffer.getInt();
+                arrivalTime = buffer.getDouble();
+                numberOfPassengers = buffer.getInt();
+            }
+            case DISPATCH -> {
+                require(20);
+                time = buffer.getDouble();
+                elevator = buffer.getInt();
+                originFloor = buffer.getInt();
+                destinationFloor = buffer.getInt();
+            }
+            case ACTION -> {
+                require(22);
+                time = buffer.getDouble();
+                elevator = buffer.getInt();
+                status = STATUSES[checkOrdinal(buffer.get(), STATUSES.length, "status")];
+                direction = DIRECTIONS[checkOrdinal(buffer.get(), DIRECTIONS.length, "direction")];
+                duration = buffer.getDouble();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return simulation time, when the recording started (in seconds)
+     */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public TraceEventType getType() {
+        return type;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getElevator() {
+        return elevator;
+    }
+
+    public int getOriginFloor() {
+        return originFloor;
+    }
+
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return simulation time in seconds, when the Request was made (only REQUEST events)
+     */
+    public double getArrivalTime() {
+        return arrivalTime;
+    }
+
+    /**
+     * @return number of passengers of the Request (only REQUEST events)
+     */
+    public int getNumberOfPassengers() {
+        return numberOfPassengers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int checkOrdinal(byte ordinal, int numberOfValues, String name) throws IOException {
+        if (ordinal < 0 || ordinal >= numberOfValues) throw new IOException("Invalid " + name + " in trace: " + ordinal);
+        return ordinal;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (!fill(bytes)) throw new IOException("Trace ends within a " + type + " event!");
+    }
+
+    /**
+     * Makes sure, that the buffer has at least the given number of bytes remaining.
+     * @param bytes number of bytes needed
+     * @return false if the file ends before
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return true;
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) break;
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+}
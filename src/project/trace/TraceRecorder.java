@@ -0,0 +1,158 @@
+package project.trace;
+
+import project.enums.Direction;
+import project.enums.Status;
+import project.enums.TraceEventType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Records Requests, dispatch decisions and Action starts into a compact binary trace file.<br>
+ * Events are written into a ByteBuffer; full buffers are handed over to a writer thread,
+ * so the Simulation thread never waits for the file system.
+ */
+public class TraceRecorder implements AutoCloseable {
+    static final int MAGIC = 0x454C5452; // "ELTR"
+    static final short VERSION = 2; // 2: REQUEST events with arrival time and number of passengers
+    static final int HEADER_SIZE = 14; // magic, version and start time
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> fullBuffers = new LinkedBlockingQueue<>();
+    private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile IOException writeException;
+    private ByteBuffer buffer;
+    private long numberOfEvents;
+    private boolean closed;
+
+    /**
+     * Creates (or overwrites) the trace file and starts the writer thread.
+     * @param path path of the trace file
+     * @param startTime simulation time, when the recording starts (in seconds)
+     * @throws IOException if the file cannot be opened
+     */
+    public TraceRecorder(Path path, double startTime) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.putInt(MAGIC).putShort(VERSION).putDouble(startTime);
+        writer = new Thread(this::writeBuffers, "TraceRecorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records a Request, which was taken from the intake of the Tower.
+     * @param time simulation time in seconds
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     * @param arrivalTime simulation time in seconds, when the Request was made (can be before the time it was taken)
+     * @param numberOfPassengers of the Request
+     */
+    public synchronized void recordRequest(double time, int originFloor, int destinationFloor, double arrivalTime, int numberOfPassengers) {
+        ensureSpace(29);
+        buffer.put((byte) TraceEventType.REQUEST.ordinal()).putDouble(time).putInt(originFloor).putInt(destinationFloor)
+                .putDouble(arrivalTime).putInt(numberOfPassengers);
+    }
+
+    /**
+     * Records that a Request was given to an elevator.
+     * @param time simulation time in seconds
+     * @param elevator index of the elevator
+     * @param originFloor from floor
+     * @param destinationFloor to floor
+     */
+    public synchronized void recordDispatch(double time, int elevator, int originFloor, int destinationFloor) {
+        ensureSpace(21);
+        buffer.put((byte) TraceEventType.DISPATCH.ordinal()).putDouble(time).putInt(elevator).putInt(originFloor).putInt(destinationFloor);
+    }
+
+    /**
+     * Records that an elevator started an Action.<br>
+     * Synchronized (like all record methods), as elevators can be updated in parallel.
+     * @param time simulation time in seconds
+     * @param elevator index of the elevator
+     * @param status of the Action
+     * @param direction of the Action
+     * @param duration of the Action in seconds
+     */
+    public synchronized void recordAction(double time, int elevator, Status status, Direction direction, double duration) {
+        ensureSpace(23);
+        buffer.put((byte) TraceEventType.ACTION.ordinal()).putDouble(time).putInt(elevator)
+                .put((byte) status.ordinal()).put((byte) direction.ordinal()).putDouble(duration);
+    }
+
+    public synchronized long getNumberOfEvents() {
+        return numberOfEvents;
+    }
+
+    /**
+     * Hands the buffer over to the writer thread, if the next event does not fit anymore.
+     * @param size size of the next event in bytes
+     */
+    private void ensureSpace(int size) {
+        numberOfEvents++;
+        if (buffer.remaining() >= size) return;
+        handOver();
+    }
+
+    private void handOver() {
+        if (closed) { // events after closing are discarded
+            buffer.clear();
+            return;
+        }
+        buffer.flip();
+        fullBuffers.add(buffer);
+        ByteBuffer free = freeBuffers.poll();
+        buffer = free != null ? free : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Main loop of the writer thread.
+     */
+    private void writeBuffers() {
+        try {
+            while (true) {
+                ByteBuffer full = fullBuffers.take();
+                if (full == END) return;
+                while (full.hasRemaining()) {
+                    channel.write(full);
+                }
+                full.clear();
+                freeBuffers.add(full);
+            }
+        } catch (IOException e) {
+            writeException = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the remaining events and closes the file (later events are discarded).
+     * @throws IOException if writing failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        handOver();
+        closed = true;
+        fullBuffers.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (writeException != null) throw writeException;
+    }
+}
@@ -0,0 +1,148 @@
+package project.trace;
+
+import project.config.Config;
+import project.dispatch.DispatchStrategy;
+import project.elevator.Elevator;
+import project.enums.TraceEventType;
+import project.simulation.Simulation;
+import project.tower.Tower;
+import project.traffic.TrafficSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Feeds the Requests of a recorded trace back into a Tower, at the same simulation times
+ * (relative to the start of the recording) and with the same arrival times and numbers of passengers.<br>
+ * Only the REQUEST events are replayed, so the dispatching of the Tower can be compared against the trace.
+ */
+public class TraceReplay implements TrafficSource, AutoCloseable {
+    private static final double RUN_STEP = 60d; // s, how long main runs between checking if the replay is done
+
+    private final TraceReader reader;
+    private double offset;
+    private double nextArrivalTime;
+    private double nextRequestArrivalTime; // the Request was made before it was taken from the intake
+    private int nextOriginFloor, nextDestinationFloor, nextNumberOfPassengers;
+    private long replayedRequests;
+
+    /**
+     * Opens the trace and reads up to its first Request.
+     * @param path path of the trace file
+     * @throws IOException if the trace cannot be read
+     */
+    public TraceReplay(Path path) throws IOException {
+        reader = new TraceReader(path);
+        offset = -reader.getStartTime();
+        readNextRequest();
+    }
+
+    /**
+     * Replays the trace (headless) with the given options and prints a summary.
+     * @param args path of the trace file,
+     *             '--dispatch=greedy|destination' selects the DispatchStrategy,
+     *             '--record=FILE' records the replay into a new trace,
+     *             '--config=FILE' replays into a Tower of the given Config (e.g. with other elevator cars)
+     * @throws IOException if a trace or the config cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: TraceReplay #TRACE_FILE [--dispatch=greedy|destination] [--record=#TRACE_FILE] [--config=#CONFIG_FILE]");
+            return;
+        }
+        var arguments = List.of(args);
+        Config config = Config.DEFAULT;
+        for (String argument : arguments) {
+            if (argument.startsWith("--config=")) {
+                config = Config.load(Path.of(argument.substring(9)));
+            }
+        }
+        Tower tower = new Tower(config);
+        tower.setInterFloorRequestsAllowed(true); // the trace only contains valid Requests
+        arguments.stream().filter(argument -> argument.startsWith("--dispatch="))
+                .findFirst().ifPresent(argument -> tower.setDispatchStrategy(DispatchStrategy.forName(argument.substring(11))));
+        TraceRecorder recorder = null;
+        for (String argument : arguments) {
+            if (argument.startsWith("--record=")) {
+                recorder = new TraceRecorder(Path.of(argument.substring(9)), tower.getClock().getTime());
+                tower.setTraceRecorder(recorder);
+            }
+        }
+
+        long startTime = System.nanoTime();
+        Simulation simulation = Simulation.createHeadless(tower);
+        try (TraceReplay replay = new TraceReplay(Path.of(args[0]))) {
+            simulation.setTrafficSource(replay);
+            do {
+                simulation.runFor(RUN_STEP);
+            } while (replay.getNextArrivalTime() != Double.POSITIVE_INFINITY || tower.getPendingRequests() > 0
+                    || !tower.getElevators().stream().allMatch(Elevator::isIdle));
+            System.out.printf("Replayed %d requests, all done after %.1fs simulation time (in %.3fs)%n",
+                    replay.getReplayedRequests(), tower.getClock().getTime(), (System.nanoTime() - startTime) / 1e9);
+            System.out.println(tower.getMetricsSnapshot());
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+                System.out.println("Recorded " + recorder.getNumberOfEvents() + " events");
+            }
+        }
+    }
+
+    /**
+     * Starts the replay at the given time, the first Request arrives after the same time as in the recording.
+     * @param startTime simulation time in seconds
+     */
+    @Override
+    public void start(double startTime) {
+        offset = startTime - reader.getStartTime();
+    }
+
+    @Override
+    public double getNextArrivalTime() {
+        return nextArrivalTime == Double.POSITIVE_INFINITY ? nextArrivalTime : nextArrivalTime + offset;
+    }
+
+    @Override
+    public int generateUntil(double time, Tower tower) {
+        int generated = 0;
+        while (getNextArrivalTime() <= time) {
+            tower.addRequest(nextOriginFloor, nextDestinationFloor, nextRequestArrivalTime + offset, nextNumberOfPassengers);
+            replayedRequests++;
+            generated++;
+            readNextRequest();
+        }
+        return generated;
+    }
+
+    public long getReplayedRequests() {
+        return replayedRequests;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Skips all other events until the next Request (or the end of the trace).
+     */
+    private void readNextRequest() {
+        try {
+            while (reader.next()) {
+                if (reader.getType() == TraceEventType.REQUEST) {
+                    nextArrivalTime = reader.getTime();
+                    nextOriginFloor = reader.getOriginFloor();
+                    nextDestinationFloor = reader.getDestinationFloor();
+                    nextRequestArrivalTime = reader.getArrivalTime();
+                    nextNumberOfPassengers = reader.getNumberOfPassengers();
+                    return;
+                }
+            }
+            nextArrivalTime = Double.POSITIVE_INFINITY;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
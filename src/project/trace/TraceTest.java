@@ -0,0 +1,145 @@
+package project.trace;
+
+import org.junit.jupiter.api.Test;
+import project.metrics.MetricsSnapshot;
+import project.simulation.Simulation;
+import project.tower.Tower;
+import project.traffic.TrafficGenerator;
+import project.traffic.TrafficProfile;
+import project.traffic.TrafficSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Does some Tests for recording and replaying traces
+ */
+public class TraceTest {
+
+    /**
+     * Runs a headless Simulation with the given traffic for 10 minutes and records it into the file.
+     * @return the metrics of the run
+     */
+    private static MetricsSnapshot record(Path path, TrafficSource trafficSource) throws IOException {
+        Tower tower = new Tower(4);
+        tower.setInterFloorRequestsAllowed(true);
+        TraceRecorder recorder = new TraceRecorder(path, tower.getClock().getTime());
+        tower.setTraceRecorder(recorder);
+        Simulation simulation = Simulation.createHeadless(tower);
+        simulation.setTrafficSource(trafficSource);
+        simulation.runFor(600);
+        recorder.close();
+        return tower.getMetricsSnapshot();
+    }
+
+    @Test
+    void replay_reproducesAllEvents() throws IOException {
+        Path original = Files.createTempFile("original", ".trace");
+        Path replayed = Files.createTempFile("replayed", ".trace");
+        try {
+            MetricsSnapshot expectedMetrics = record(original, new TrafficGenerator(3, TrafficProfile.LUNCH, 60, 30));
+            MetricsSnapshot actualMetrics;
+            try (TraceReplay replay = new TraceReplay(original)) {
+                actualMetrics = record(replayed, replay);
+            }
+
+            int requests = 0, dispatches = 0, actions = 0;
+            try (TraceReader expected = new TraceReader(original); TraceReader actual = new TraceReader(replayed)) {
+                while (expected.next()) {
+                    assertTrue(actual.next());
+                    assertEquals(expected.getType(), actual.getType());
+                    assertEquals(expected.getTime(), actual.getTime());
+                    assertEquals(expected.getElevator(), actual.getElevator());
+                    assertEquals(expected.getOriginFloor(), actual.getOriginFloor());
+                    assertEquals(expected.getDestinationFloor(), actual.getDestinationFloor());
+                    assertEquals(expected.getStatus(), actual.getStatus());
+                    assertEquals(expected.getDirection(), actual.getDirection());
+                    assertEquals(expected.getDuration(), actual.getDuration());
+                    assertEquals(expected.getArrivalTime(), actual.getArrivalTime());
+                    assertEquals(expected.getNumberOfPassengers(), actual.getNumberOfPassengers());
+                    switch (expected.getType()) {
+                        case REQUEST -> requests++;
+                        case DISPATCH -> dispatches++;
+                        case ACTION -> actions++;
+                    }
+                }
+                assertFalse(actual.next());
+            }
+            assertTrue(requests > 400);
+            assertEquals(requests, dispatches);
+            assertTrue(actions > 0);
+            assertMetricsEquals(expectedMetrics, actualMetrics);
+        } finally {
+            Files.delete(original);
+            Files.delete(replayed);
+        }
+    }
+
+    @Test
+    void replay_keepsArrivalTimesAndGroups() throws IOException {
+        Path path = Files.createTempFile("groups", ".trace");
+        try {
+            Tower tower = new Tower(4);
+            TraceRecorder recorder = new TraceRecorder(path, 0d);
+            tower.setTraceRecorder(recorder);
+            Simulation simulation = Simulation.createHeadless(tower);
+            tower.addRequest(0, 20, 0d, 3);
+            simulation.runFor(5);
+            tower.addRequest(12, 0, 4.5, 2);
+            simulation.runFor(120);
+            recorder.close();
+
+            Tower replayTower = new Tower(4);
+            try (TraceReplay replay = new TraceReplay(path)) {
+                Simulation replaySimulation = Simulation.createHeadless(replayTower);
+                replaySimulation.setTrafficSource(replay);
+                replaySimulation.runFor(125);
+                assertEquals(2, replay.getReplayedRequests());
+            }
+            assertMetricsEquals(tower.getMetricsSnapshot(), replayTower.getMetricsSnapshot());
+            assertEquals(5, tower.getMetricsSnapshot().getWaitTimes().getCount());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static void assertMetricsEquals(MetricsSnapshot expected, MetricsSnapshot actual) {
+        assertTrue(expected.getWaitTimes().getCount() > 0);
+        assertEquals(expected.getWaitTimes().getCount(), actual.getWaitTimes().getCount());
+        assertEquals(expected.getWaitTimes().getMean(), actual.getWaitTimes().getMean());
+        assertEquals(expected.getJourneyTimes().getCount(), actual.getJourneyTimes().getCount());
+        assertEquals(expected.getJourneyTimes().getMean(), actual.getJourneyTimes().getMean());
+        assertEquals(expected.getAverageUtilisation(), actual.getAverageUtilisation());
+    }
+
+    @Test
+    void reader_rejectsOtherFiles() throws IOException {
+        Path path = Files.createTempFile("other", ".trace");
+        try {
+            Files.writeString(path, "no trace at all");
+            assertThrows(IOException.class, () -> new TraceReader(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void reader_rejectsUnknownEventTypes() throws IOException {
+        Path path = Files.createTempFile("corrupt", ".trace");
+        try {
+            ByteBuffer bytes = ByteBuffer.allocate(TraceRecorder.HEADER_SIZE + 1);
+            bytes.putInt(TraceRecorder.MAGIC).putShort(TraceRecorder.VERSION).putDouble(0d).put((byte) 9);
+            Files.write(path, bytes.array());
+            try (TraceReader reader = new TraceReader(path)) {
+                IOException e = assertThrows(IOException.class, reader::next);
+                assertEquals("Invalid event type in trace: 9", e.getMessage());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
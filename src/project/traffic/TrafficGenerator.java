@@ -0,0 +1,122 @@
+package project.traffic;
+
+import project.tower.Tower;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates reproducible Requests from a seed, with Poisson distributed arrival times.<br>
+ * The arrival rate can be constant or follow a peak (raised cosine over the peak duration, highest in the middle),
+ * the floors depend on the TrafficProfile.
+ */
+public class TrafficGenerator implements TrafficSource {
+    private final SplittableRandom random;
+    private final TrafficProfile profile;
+    private final double maxArrivalRate; // per second
+    private final int numberOfFloors;
+    private final double peakDuration; // s, 0 for a constant rate
+    private double startTime, nextArrivalTime;
+
+    /**
+     * Creates a generator with a constant arrival rate.
+     * @param seed the same seed always gives the same Requests
+     * @param profile the TrafficProfile
+     * @param requestsPerMinute average number of Requests per minute
+     * @param numberOfFloors highest floor
+     */
+    public TrafficGenerator(long seed, TrafficProfile profile, double requestsPerMinute, int numberOfFloors) {
+        this(seed, profile, requestsPerMinute, numberOfFloors, 0d);
+    }
+
+    /**
+     * Creates a generator, whose arrival rate rises from 0 to requestsPerMinute in the middle
+     * of the peak and goes back to 0 at its end (and repeats after that).
+     * @param seed the same seed always gives the same Requests
+     * @param profile the TrafficProfile
+     * @param requestsPerMinute number of Requests per minute at the top of the peak
+     * @param numberOfFloors highest floor (with only floor 1 there are no inter-floor Requests)
+     * @param peakDuration duration of the peak in seconds, 0 for a constant rate
+     * @throws IllegalArgumentException if there is no floor above floor 0
+     */
+    public TrafficGenerator(long seed, TrafficProfile profile, double requestsPerMinute, int numberOfFloors, double peakDuration) {
+        if (numberOfFloors < 1) {
+            throw new IllegalArgumentException("Traffic needs at least floor 1: " + numberOfFloors);
+        }
+        random = new SplittableRandom(seed);
+        this.profile = profile;
+        maxArrivalRate = requestsPerMinute / 60d;
+        this.numberOfFloors = numberOfFloors;
+        this.peakDuration = peakDuration;
+        start(0d);
+    }
+
+    /**
+     * (Re)starts the arrivals (and the peak) at the given time.
+     * @param startTime simulation time in seconds
+     */
+    @Override
+    public void start(double startTime) {
+        this.startTime = startTime;
+        nextArrivalTime = nextArrivalTime(startTime);
+    }
+
+    @Override
+    public double getNextArrivalTime() {
+        return nextArrivalTime;
+    }
+
+    @Override
+    public int generateUntil(double time, Tower tower) {
+        int generated = 0;
+        while (nextArrivalTime <= time) {
+            addRandomRequest(tower, nextArrivalTime);
+            nextArrivalTime = nextArrivalTime(nextArrivalTime);
+            generated++;
+        }
+        return generated;
+    }
+
+    /**
+     * Adds one Request with random floors (depending on the TrafficProfile) to the Tower.
+     * @param tower the Tower to add the Request to
+     */
+    public void addRandomRequest(Tower tower) {
+        addRandomRequest(tower, tower.getClock().getTime());
+    }
+
+    /**
+     * @param tower the Tower to add the Request to
+     * @param arrivalTime simulation time in seconds, when the Request was made
+     */
+    private void addRandomRequest(Tower tower, double arrivalTime) {
+        double interFloorShare = tower.isInterFloorRequestsAllowed() && numberOfFloors > 1 ? profile.getInterFloorShare() : 0d;
+        double value = random.nextDouble() * (profile.getUpShare() + profile.getDownShare() + interFloorShare);
+        int floor = random.nextInt(numberOfFloors) + 1;
+        if (value < profile.getUpShare()) {
+            tower.addRequest(0, floor, arrivalTime);
+        } else if (value < profile.getUpShare() + profile.getDownShare()) {
+            tower.addRequest(floor, 0, arrivalTime);
+        } else {
+            int destinationFloor = random.nextInt(numberOfFloors - 1) + 1;
+            tower.addRequest(floor, destinationFloor < floor ? destinationFloor : destinationFloor + 1, arrivalTime);
+        }
+    }
+
+    /**
+     * Draws the next arrival time of a Poisson process. A peak is done by thinning:
+     * arrivals are drawn with the max. rate and only kept with the probability of the current rate.
+     * @param time time of the last arrival in seconds
+     * @return time of the next arrival in seconds
+     */
+    private double nextArrivalTime(double time) {
+        if (maxArrivalRate <= 0d) return Double.POSITIVE_INFINITY;
+        do {
+            time += -Math.log(1d - random.nextDouble()) / maxArrivalRate;
+        } while (peakDuration > 0d && random.nextDouble() > peakIntensity(time));
+        return time;
+    }
+
+    private double peakIntensity(double time) {
+        return 0.5 - 0.5 * Math.cos(2 * Math.PI * (time - startTime) / peakDuration);
+    }
+}
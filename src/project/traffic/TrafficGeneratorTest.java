@@ -0,0 +1,99 @@
+package project.traffic;
+
+import org.junit.jupiter.api.Test;
+import project.config.Config;
+import project.elevator.Request;
+import project.tower.Tower;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Does some Tests for the TrafficGenerator
+ */
+public class TrafficGeneratorTest {
+
+    /**
+     * Generates traffic for the given time and collects the Requests from the Tower intake.
+     */
+    private static List<Request> generate(TrafficGenerator generator, Tower tower, double duration) {
+        List<Request> requests = new ArrayList<>();
+        tower.setDispatchStrategy((batch, t) -> requests.addAll(batch));
+        for (double time = 1; time <= duration; time++) {
+            generator.generateUntil(time, tower);
+            tower.update();
+        }
+        return requests;
+    }
+
+    @Test
+    void generateUntil_sameSeedSameRequests() {
+        var first = generate(new TrafficGenerator(7, TrafficProfile.LUNCH, 600, 55), new Tower(1), 60);
+        var second = generate(new TrafficGenerator(7, TrafficProfile.LUNCH, 600, 55), new Tower(1), 60);
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i), second.get(i));
+        }
+    }
+
+    @Test
+    void generateUntil_requestsKeepTheirArrivalTimes() {
+        var requests = generate(new TrafficGenerator(2, TrafficProfile.UP_PEAK, 600, 55), new Tower(1), 60);
+        assertTrue(requests.size() > 500);
+        double lastArrivalTime = 0d;
+        for (Request request : requests) {
+            double arrivalTime = request.getArrivalTime();
+            assertTrue(arrivalTime > lastArrivalTime && arrivalTime <= 60d, "arrival at " + arrivalTime);
+            assertTrue(arrivalTime != Math.floor(arrivalTime), "not the time of the update");
+            lastArrivalTime = arrivalTime;
+        }
+    }
+
+    @Test
+    void generateUntil_poissonRateAndUpPeakShare() {
+        var requests = generate(new TrafficGenerator(1, TrafficProfile.UP_PEAK, 20_000, 55), new Tower(1), 300);
+        assertEquals(100_000, requests.size(), 1_500); // 20000 per minute for 5 minutes
+        long up = requests.stream().filter(r -> r.getOriginFloor() == 0).count();
+        assertEquals(0.85 / 0.95, (double) up / requests.size(), 0.01); // no inter-floor Requests allowed
+    }
+
+    @Test
+    void generateUntil_interFloorRequestsOnlyIfAllowed() {
+        Tower tower = new Tower(1);
+        tower.setInterFloorRequestsAllowed(true);
+        var requests = generate(new TrafficGenerator(3, TrafficProfile.INTER_FLOOR, 6000, 55), tower, 60);
+        long interFloor = requests.stream().filter(r -> r.getOriginFloor() != 0 && r.getDestinationFloor() != 0).count();
+        assertEquals(0.8, (double) interFloor / requests.size(), 0.05);
+        assertTrue(requests.stream().allMatch(r -> r.getOriginFloor() != r.getDestinationFloor()));
+    }
+
+    @Test
+    void generateUntil_noInterFloorRequestsWithOneFloor() {
+        Tower tower = new Tower(Config.DEFAULT.with("floors=1").with("elevators=1"));
+        tower.setInterFloorRequestsAllowed(true);
+        var requests = generate(new TrafficGenerator(4, TrafficProfile.INTER_FLOOR, 600, 1), tower, 60);
+        assertTrue(requests.size() > 500);
+        assertTrue(requests.stream().allMatch(r -> r.getOriginFloor() == 0 ^ r.getDestinationFloor() == 0));
+        assertThrows(IllegalArgumentException.class, () -> new TrafficGenerator(4, TrafficProfile.LUNCH, 600, 0));
+    }
+
+    @Test
+    void generateUntil_peakIsHighestInTheMiddle() {
+        var generator = new TrafficGenerator(5, TrafficProfile.DOWN_PEAK, 6000, 55, 600);
+        Tower tower = new Tower(1);
+        int start = generate(generator, tower, 60).size(); // first minute of the peak
+        var middle = new ArrayList<Request>();
+        tower.setDispatchStrategy((batch, t) -> middle.addAll(batch));
+        generator.generateUntil(270, tower); // skip
+        tower.update();
+        middle.clear();
+        generator.generateUntil(330, tower);
+        tower.update();
+        assertTrue(middle.size() > start * 5);
+        assertEquals(6000, middle.size(), 300);
+    }
+}
@@ -0,0 +1,41 @@
+package project.traffic;
+
+/**
+ * Named traffic profiles, defined by the share of up, down and inter-floor Requests.
+ */
+public enum TrafficProfile {
+    UNIFORM(0.5, 0.5, 0.0),     // like 'addRandomRequest': from or to floor 0
+    UP_PEAK(0.85, 0.10, 0.05),  // morning: most people arrive at the lobby
+    DOWN_PEAK(0.10, 0.85, 0.05),// evening: most people leave the building
+    LUNCH(0.45, 0.45, 0.10),    // two-way traffic
+    INTER_FLOOR(0.10, 0.10, 0.80);
+
+    private final double upShare, downShare, interFloorShare;
+
+    TrafficProfile(double upShare, double downShare, double interFloorShare) {
+        this.upShare = upShare;
+        this.downShare = downShare;
+        this.interFloorShare = interFloorShare;
+    }
+
+    /**
+     * @return share of Requests from floor 0 to an upper floor
+     */
+    public double getUpShare() {
+        return upShare;
+    }
+
+    /**
+     * @return share of Requests from an upper floor to floor 0
+     */
+    public double getDownShare() {
+        return downShare;
+    }
+
+    /**
+     * @return share of Requests between two upper floors (only if the Tower allows them)
+     */
+    public double getInterFloorShare() {
+        return interFloorShare;
+    }
+}
@@ -0,0 +1,29 @@
+package project.traffic;
+
+import project.tower.Tower;
+
+/**
+ * Interface for everything, which adds Requests to a Tower during the Simulation
+ * (e.g. generated traffic or a replayed trace).
+ */
+public interface TrafficSource {
+
+    /**
+     * (Re)starts the source at the given time.
+     * @param startTime simulation time in seconds
+     */
+    void start(double startTime);
+
+    /**
+     * @return simulation time of the next Request in seconds (POSITIVE_INFINITY if there is none)
+     */
+    double getNextArrivalTime();
+
+    /**
+     * Adds all Requests, which arrive until the given time, to the Tower.
+     * @param time simulation time in seconds
+     * @param tower the Tower to add the Requests to
+     * @return number of added Requests
+     */
+    int generateUntil(double time, Tower tower);
+}